@@ -0,0 +1,52 @@
+package MyDBMS;
+
+// aggregate function over a column, NULL values are skipped like in SQL
+// a null column counts every record
+public record Aggregate(Function function, String column) {
+
+    public enum Function {
+        COUNT,
+        MIN,
+        MAX,
+        SUM,
+        AVG
+    }
+
+    public static Aggregate count() {
+        return new Aggregate(Function.COUNT, null);
+    }
+
+    public static Aggregate count(String column) {
+        return new Aggregate(Function.COUNT, column);
+    }
+
+    public static Aggregate min(String column) {
+        return new Aggregate(Function.MIN, column);
+    }
+
+    public static Aggregate max(String column) {
+        return new Aggregate(Function.MAX, column);
+    }
+
+    public static Aggregate sum(String column) {
+        return new Aggregate(Function.SUM, column);
+    }
+
+    public static Aggregate avg(String column) {
+        return new Aggregate(Function.AVG, column);
+    }
+
+    public Aggregate {
+        if (function == null) {
+            throw new IllegalArgumentException("Aggregate function is missing");
+        }
+        if (column == null && function != Function.COUNT) {
+            throw new IllegalArgumentException(function + " needs a column");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.function + "(" + (this.column == null ? "*" : this.column) + ")";
+    }
+}
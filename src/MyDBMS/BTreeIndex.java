@@ -0,0 +1,415 @@
+package MyDBMS;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class BTreeIndex implements Index {
+    public static final String FILE_EXTENSION = ".pk";
+    public static final String SECONDARY_FILE_EXTENSION = ".btree";
+    // a node has to hold at least three entries to be split
+    public static final int MAX_KEY_SIZE = 1024;
+
+    private static final byte LEAF = 0;
+    private static final byte INTERNAL = 1;
+    private static final int NODE_HEADER_SIZE = 7;
+    private static final int NO_PAGE = -1;
+
+    private final Table table;
+    private final String column;
+    private final String fileName;
+
+    // entries are ordered by key and then by record id, so duplicate keys are kept apart
+    private record Entry(byte[] key, RecordId recordId, int child) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry o) {
+            int result = Arrays.compareUnsigned(this.key, o.key);
+            return result != 0 ? result : this.recordId.compareTo(o.recordId);
+        }
+    }
+
+    // a leaf links to its right sibling in next, an internal node keeps its leftmost child there
+    private static class Node {
+        private final int index;
+        private final boolean leaf;
+        private int next;
+        private final List<Entry> entries;
+
+        private Node(int index, boolean leaf, int next, List<Entry> entries) {
+            this.index = index;
+            this.leaf = leaf;
+            this.next = next;
+            this.entries = entries;
+        }
+
+        private int getEntrySize(Entry entry) {
+            return 2 + entry.key().length + 6 + (this.leaf ? 0 : 4);
+        }
+
+        private int getSize() {
+            return NODE_HEADER_SIZE + this.entries.stream().mapToInt(this::getEntrySize).sum();
+        }
+
+        // child holding the given entry, entries equal to a separator are on its right
+        private int getChild(Entry entry) {
+            int position = Collections.binarySearch(this.entries, entry);
+            position = position >= 0 ? position : -position - 2;
+            return position < 0 ? this.next : this.entries.get(position).child();
+        }
+    }
+
+    public BTreeIndex(Table table, String column) {
+        this(table, column, table.getTableName() + FILE_EXTENSION);
+    }
+
+    public BTreeIndex(Table table, String column, String fileName) {
+        Column columnBlueprint = table.getColumn(column);
+        if (columnBlueprint != null && columnBlueprint.getSize() > MAX_KEY_SIZE) {
+            throw new IllegalArgumentException("Column [" + column + "] is too long for a B+tree index");
+        }
+        this.table = table;
+        this.column = column;
+        this.fileName = fileName;
+    }
+
+    @Override
+    public String getFileName() {
+        return this.fileName;
+    }
+
+    @Override
+    public String getColumn() {
+        return this.column;
+    }
+
+    // returns null when the value cannot be indexed, lookups fall back to a scan then
+    private byte[] encodeKey(Object value) {
+        byte[] key = Index.encodeKey(value);
+        return key == null || key.length > MAX_KEY_SIZE ? null : key;
+    }
+
+    @Override
+    public List<RecordId> search(Object value) throws IOException {
+        byte[] key = this.encodeKey(value);
+        return key == null ? null : this.searchKey(key);
+    }
+
+    @Override
+    public List<RecordId> searchRange(Object from, boolean fromInclusive, Object to, boolean toInclusive) throws IOException {
+        byte[] fromKey = this.encodeKey(from);
+        byte[] toKey = this.encodeKey(to);
+        if (from != null && fromKey == null || to != null && toKey == null) {
+            return null;
+        }
+        return this.searchKeyRange(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    @Override
+    public void insert(Object value, RecordId recordId) throws IOException {
+        byte[] key = this.encodeKey(value);
+        if (key != null) {
+            this.insertKey(key, recordId);
+        }
+    }
+
+    @Override
+    public boolean delete(Object value, RecordId recordId) throws IOException {
+        byte[] key = this.encodeKey(value);
+        return key != null && this.deleteKey(key, recordId);
+    }
+
+    synchronized List<RecordId> searchKey(byte[] key) throws IOException {
+        Entry lowest = new Entry(key, new RecordId(Integer.MIN_VALUE, Integer.MIN_VALUE), NO_PAGE);
+        Node node = this.readNode(this.getRoot());
+        while (!node.leaf) {
+            node = this.readNode(node.getChild(lowest));
+        }
+
+        List<RecordId> result = new ArrayList<>();
+        while (true) {
+            for (Entry entry : node.entries) {
+                int compare = Arrays.compareUnsigned(entry.key(), key);
+                if (compare > 0) {
+                    return result;
+                }
+                if (compare == 0) {
+                    result.add(entry.recordId());
+                }
+            }
+            if (node.next == NO_PAGE) {
+                return result;
+            }
+            node = this.readNode(node.next);
+        }
+    }
+
+    // record ids in key order, a null key leaves that side of the range open
+    synchronized List<RecordId> searchKeyRange(byte[] fromKey, boolean fromInclusive, byte[] toKey, boolean toInclusive) throws IOException {
+        Node node = this.readNode(this.getRoot());
+        while (!node.leaf) {
+            node = this.readNode(fromKey == null
+                    ? node.next
+                    : node.getChild(new Entry(fromKey, new RecordId(Integer.MIN_VALUE, Integer.MIN_VALUE), NO_PAGE)));
+        }
+
+        List<RecordId> result = new ArrayList<>();
+        while (true) {
+            for (Entry entry : node.entries) {
+                if (fromKey != null) {
+                    int compare = Arrays.compareUnsigned(entry.key(), fromKey);
+                    if (compare < 0 || compare == 0 && !fromInclusive) {
+                        continue;
+                    }
+                }
+                if (toKey != null) {
+                    int compare = Arrays.compareUnsigned(entry.key(), toKey);
+                    if (compare > 0 || compare == 0 && !toInclusive) {
+                        return result;
+                    }
+                }
+                result.add(entry.recordId());
+            }
+            if (node.next == NO_PAGE) {
+                return result;
+            }
+            node = this.readNode(node.next);
+        }
+    }
+
+    synchronized void insertKey(byte[] key, RecordId recordId) throws IOException {
+        int root = this.getRoot();
+        Entry separator = this.insert(root, new Entry(key, recordId, NO_PAGE));
+        if (separator != null) {
+            // root was split, the tree grows by one level
+            Node newRoot = new Node(this.allocatePage(), false, root, new ArrayList<>(List.of(separator)));
+            this.writeNode(newRoot);
+            this.setRoot(newRoot.index);
+        }
+    }
+
+    // returns the separator to add to the parent if the node was split
+    private Entry insert(int nodeIndex, Entry entry) throws IOException {
+        Node node = this.readNode(nodeIndex);
+        if (node.leaf) {
+            int position = Collections.binarySearch(node.entries, entry);
+            if (position >= 0) {
+                // already indexed
+                return null;
+            }
+            node.entries.add(-position - 1, entry);
+        }
+        else {
+            Entry separator = this.insert(node.getChild(entry), entry);
+            if (separator == null) {
+                return null;
+            }
+            node.entries.add(-Collections.binarySearch(node.entries, separator) - 1, separator);
+        }
+
+        if (node.getSize() <= BufferPage.PAGE_SIZE) {
+            this.writeNode(node);
+            return null;
+        }
+        return this.split(node);
+    }
+
+    private Entry split(Node node) throws IOException {
+        int half = node.getSize() / 2;
+        int size = NODE_HEADER_SIZE;
+        int middle = 0;
+        while (size < half) {
+            size += node.getEntrySize(node.entries.get(middle++));
+        }
+
+        Node right;
+        Entry separator;
+        if (node.leaf) {
+            right = new Node(this.allocatePage(), true, node.next, new ArrayList<>(node.entries.subList(middle, node.entries.size())));
+            node.next = right.index;
+            separator = right.entries.get(0);
+        }
+        else {
+            // the middle entry moves up, its child becomes the leftmost child of the new node
+            Entry up = node.entries.get(middle);
+            right = new Node(this.allocatePage(), false, up.child(), new ArrayList<>(node.entries.subList(middle + 1, node.entries.size())));
+            separator = up;
+        }
+        node.entries.subList(middle, node.entries.size()).clear();
+
+        this.writeNode(right);
+        this.writeNode(node);
+        return new Entry(separator.key(), separator.recordId(), right.index);
+    }
+
+    // nodes are not merged, emptied leaves stay in the tree until the index is rebuilt
+    synchronized boolean deleteKey(byte[] key, RecordId recordId) throws IOException {
+        Entry entry = new Entry(key, recordId, NO_PAGE);
+        Node node = this.readNode(this.getRoot());
+        while (!node.leaf) {
+            node = this.readNode(node.getChild(entry));
+        }
+        int position = Collections.binarySearch(node.entries, entry);
+        if (position < 0) {
+            return false;
+        }
+        node.entries.remove(position);
+        this.writeNode(node);
+        return true;
+    }
+
+    @Override
+    public synchronized void clear() throws IOException {
+        this.writeMeta(1, 2);
+        this.writeNode(new Node(1, true, NO_PAGE, new ArrayList<>()));
+    }
+
+    // also used when the index file is missing
+    @Override
+    public synchronized void rebuild() throws IOException {
+        this.clear();
+
+        List<Entry> entries = new ArrayList<>();
+        this.table.forEachRecord((recordId, record) -> {
+            byte[] key = this.encodeKey(record.getValue(this.column));
+            if (key != null) {
+                entries.add(new Entry(key, recordId, NO_PAGE));
+            }
+        });
+
+        Collections.sort(entries);
+        for (Entry entry : entries) {
+            this.insertKey(entry.key(), entry.recordId());
+        }
+    }
+
+    private int getRoot() throws IOException {
+        BufferPage meta;
+        try {
+            meta = DBMS.getInstance().getBufferManager().getPage(this.fileName, 0);
+        } catch (IOException e) {
+            meta = null;
+        }
+        int root = 0;
+        if (meta != null) {
+            try {
+                root = meta.getBuffer().getInt(0);
+            } finally {
+                meta.unpin();
+            }
+        }
+        if (root == 0) {
+            // index does not exist yet
+            this.rebuild();
+            return this.getRoot();
+        }
+        return root;
+    }
+
+    private void setRoot(int root) throws IOException {
+        BufferPage meta = DBMS.getInstance().getBufferManager().getPage(this.fileName, 0);
+        meta.writeLock();
+        try {
+            meta.getBuffer().putInt(0, root);
+            meta.markDirty();
+        } finally {
+            meta.writeUnlock();
+            meta.unpin();
+        }
+    }
+
+    private int allocatePage() throws IOException {
+        BufferPage meta = DBMS.getInstance().getBufferManager().getPage(this.fileName, 0);
+        meta.writeLock();
+        try {
+            ByteBuffer buffer = meta.getBuffer();
+            int pageCount = buffer.getInt(4);
+            buffer.putInt(4, pageCount + 1);
+            meta.markDirty();
+            return pageCount;
+        } finally {
+            meta.writeUnlock();
+            meta.unpin();
+        }
+    }
+
+    private void writeMeta(int root, int pageCount) throws IOException {
+        BufferPage meta = this.getOrCreatePage(0);
+        meta.writeLock();
+        try {
+            meta.getBuffer().putInt(0, root).putInt(4, pageCount);
+            meta.markDirty();
+        } finally {
+            meta.writeUnlock();
+            meta.unpin();
+        }
+    }
+
+    private Node readNode(int index) throws IOException {
+        BufferPage page = DBMS.getInstance().getBufferManager().getPage(this.fileName, index);
+        page.readLock();
+        try {
+            ByteBuffer buffer = page.getBuffer();
+            boolean leaf = buffer.get() == LEAF;
+            int numberOfEntries = buffer.getShort();
+            int next = buffer.getInt();
+            List<Entry> entries = new ArrayList<>(numberOfEntries + 1);
+            for (int i = 0; i < numberOfEntries; i++) {
+                byte[] key = new byte[buffer.getShort()];
+                buffer.get(key);
+                RecordId recordId = new RecordId(buffer.getInt(), buffer.getShort());
+                int child = leaf ? NO_PAGE : buffer.getInt();
+                entries.add(new Entry(key, recordId, child));
+            }
+            return new Node(index, leaf, next, entries);
+        } finally {
+            page.readUnlock();
+            page.unpin();
+        }
+    }
+
+    private void writeNode(Node node) throws IOException {
+        BufferPage page = this.getOrCreatePage(node.index);
+        page.writeLock();
+        try {
+            ByteBuffer buffer = page.getBuffer();
+            buffer.put(node.leaf ? LEAF : INTERNAL);
+            buffer.putShort((short) node.entries.size());
+            buffer.putInt(node.next);
+            for (Entry entry : node.entries) {
+                buffer.putShort((short) entry.key().length);
+                buffer.put(entry.key());
+                buffer.putInt(entry.recordId().pageIndex());
+                buffer.putShort((short) entry.recordId().slot());
+                if (!node.leaf) {
+                    buffer.putInt(entry.child());
+                }
+            }
+            page.markDirty();
+        } finally {
+            page.writeUnlock();
+            page.unpin();
+        }
+    }
+
+    private BufferPage getOrCreatePage(int index) throws IOException {
+        BufferManager bufferManager = DBMS.getInstance().getBufferManager();
+        try {
+            return bufferManager.getPage(this.fileName, index);
+        } catch (IOException e) {
+            return bufferManager.getEmptyPage(this.fileName, index);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        DBMS.getInstance().getBufferManager().flush(this.fileName);
+    }
+
+    @Override
+    public void forceFlush() {
+        DBMS.getInstance().getBufferManager().forceFlush(this.fileName);
+    }
+}
@@ -0,0 +1,544 @@
+package MyDBMS;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// one compressed bitmap of record positions per distinct value, meant for columns with few values
+public class BitmapIndex implements Index {
+    public static final String FILE_EXTENSION = ".bitmap";
+    public static final int MAX_VALUE_SIZE = 1024;
+    // a page never has more slots than this, so page and slot pack into one position
+    static final int SLOTS_PER_PAGE = 1024;
+
+    // page 0 holds the page count, the first value page and where the next chunk goes
+    private static final int PAGE_COUNT = 0;
+    private static final int FIRST_VALUE_PAGE = 4;
+    private static final int OPEN_CHUNK_PAGE = 8;
+    private static final int OPEN_CHUNK_OFFSET = 12;
+    // page and offset of the first region given up by a grown chunk, one list per capacity class
+    private static final int FREE_CHUNKS = 16;
+    // value pages list values with their directory page, directory pages locate the chunks
+    private static final int VALUE_HEADER_SIZE = 6;
+    // chunk page, offset in the page and capacity class of the region
+    private static final int DIRECTORY_ENTRY_SIZE = 8;
+    private static final int CHUNKS_PER_DIRECTORY = (BufferPage.PAGE_SIZE - 4) / DIRECTORY_ENTRY_SIZE;
+    // chunks share pages in regions of a multiple of this size, the last class fits the largest chunk
+    private static final int CHUNK_CAPACITY_STEP = 64;
+    private static final int CAPACITY_CLASSES = (CompressedBitmap.Chunk.MAX_ENCODED_SIZE + CHUNK_CAPACITY_STEP - 1) / CHUNK_CAPACITY_STEP;
+    // page 0 is the meta page, so 0 also marks a missing page
+    private static final int NO_PAGE = 0;
+
+    private final Table table;
+    private final String column;
+    private final String fileName;
+
+    public BitmapIndex(Table table, String column) {
+        Column columnBlueprint = table.getColumn(column);
+        if (columnBlueprint != null && columnBlueprint.getSize() > MAX_VALUE_SIZE) {
+            throw new IllegalArgumentException("Column [" + column + "] is too long for a bitmap index");
+        }
+        this.table = table;
+        this.column = column;
+        this.fileName = table.getTableName() + "." + column + FILE_EXTENSION;
+    }
+
+    @Override
+    public String getColumn() {
+        return this.column;
+    }
+
+    @Override
+    public String getFileName() {
+        return this.fileName;
+    }
+
+    static int getPosition(RecordId recordId) {
+        return recordId.pageIndex() * SLOTS_PER_PAGE + recordId.slot();
+    }
+
+    static RecordId getRecordId(int position) {
+        return new RecordId(position / SLOTS_PER_PAGE, position % SLOTS_PER_PAGE);
+    }
+
+    private static List<RecordId> toRecordIds(CompressedBitmap bitmap) {
+        List<RecordId> recordIds = new ArrayList<>(bitmap.getCardinality());
+        bitmap.forEach(position -> recordIds.add(getRecordId(position)));
+        return recordIds;
+    }
+
+    // null is a value of its own, other values are compared by their bytes
+    private boolean isIndexable(Object value) {
+        return value == null || this.table.getColumn(this.column).accepts(value);
+    }
+
+    private static byte[] encodeValue(Object value) {
+        return value == null ? null : Index.encodeKey(value);
+    }
+
+    @Override
+    public List<RecordId> search(Object value) throws IOException {
+        CompressedBitmap bitmap = this.getBitmap(value);
+        return bitmap == null ? null : toRecordIds(bitmap);
+    }
+
+    @Override
+    public List<RecordId> searchNot(Object value) throws IOException {
+        CompressedBitmap bitmap = this.getBitmap(value);
+        return bitmap == null ? null : toRecordIds(this.getAllBitmap().andNot(bitmap));
+    }
+
+    // positions of the records holding the value, or null if the value cannot be indexed
+    public synchronized CompressedBitmap getBitmap(Object value) throws IOException {
+        if (!this.isIndexable(value)) {
+            return null;
+        }
+        int directory = this.findValue(encodeValue(value), false);
+        CompressedBitmap bitmap = new CompressedBitmap();
+        if (directory != NO_PAGE) {
+            this.readBitmap(directory, bitmap);
+        }
+        return bitmap;
+    }
+
+    // positions of every indexed record
+    public synchronized CompressedBitmap getAllBitmap() throws IOException {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int directory : this.getDirectories()) {
+            CompressedBitmap valueBitmap = new CompressedBitmap();
+            this.readBitmap(directory, valueBitmap);
+            bitmap = bitmap.or(valueBitmap);
+        }
+        return bitmap;
+    }
+
+    @Override
+    public synchronized void insert(Object value, RecordId recordId) throws IOException {
+        if (!this.isIndexable(value)) {
+            return;
+        }
+        this.updateChunk(this.findValue(encodeValue(value), true), getPosition(recordId), true);
+    }
+
+    // emptied chunks keep their region for later inserts
+    @Override
+    public synchronized boolean delete(Object value, RecordId recordId) throws IOException {
+        if (!this.isIndexable(value)) {
+            return false;
+        }
+        int directory = this.findValue(encodeValue(value), false);
+        if (directory == NO_PAGE) {
+            return false;
+        }
+        return this.updateChunk(directory, getPosition(recordId), false);
+    }
+
+    // adds or removes the position, a chunk outgrowing its region moves to a larger one
+    private boolean updateChunk(int directory, int position, boolean add) throws IOException {
+        int[] entry = this.findChunk(directory, position >>> CompressedBitmap.CHUNK_BITS, add);
+        if (entry == null) {
+            return false;
+        }
+        int low = position & (CompressedBitmap.CHUNK_SIZE - 1);
+        BufferPage directoryPage = this.getPage(entry[0]);
+        directoryPage.writeLock();
+        try {
+            ByteBuffer buffer = directoryPage.getBuffer();
+            int chunkPage = buffer.getInt(entry[1]);
+            int offset = buffer.getShort(entry[1] + 4);
+            int capacityClass = buffer.getShort(entry[1] + 6);
+            CompressedBitmap.Chunk chunk = chunkPage == NO_PAGE ? new CompressedBitmap.Chunk() : this.readChunk(chunkPage, offset);
+            if (add ? !chunk.add(low) : !chunk.remove(low)) {
+                return false;
+            }
+            if (chunkPage == NO_PAGE || chunk.getEncodedSize() > getCapacity(capacityClass)) {
+                if (chunkPage != NO_PAGE) {
+                    this.freeChunk(chunkPage, offset, capacityClass);
+                }
+                capacityClass = getCapacityClass(chunk.getEncodedSize());
+                int[] region = this.allocateChunk(capacityClass);
+                chunkPage = region[0];
+                offset = region[1];
+                buffer.putInt(entry[1], chunkPage).putShort(entry[1] + 4, (short) offset).putShort(entry[1] + 6, (short) capacityClass);
+                directoryPage.markDirty();
+            }
+
+            BufferPage page = this.getPage(chunkPage);
+            page.writeLock();
+            try {
+                chunk.write(page.getBuffer(), offset);
+                page.markDirty();
+            } finally {
+                page.writeUnlock();
+                page.unpin();
+            }
+            return true;
+        } finally {
+            directoryPage.writeUnlock();
+            directoryPage.unpin();
+        }
+    }
+
+    private CompressedBitmap.Chunk readChunk(int pageIndex, int offset) throws IOException {
+        BufferPage page = this.getPage(pageIndex);
+        page.readLock();
+        try {
+            return CompressedBitmap.Chunk.read(page.getBuffer(), offset);
+        } finally {
+            page.readUnlock();
+            page.unpin();
+        }
+    }
+
+    private void readBitmap(int directory, CompressedBitmap bitmap) throws IOException {
+        for (int base = 0; directory != NO_PAGE; base += CHUNKS_PER_DIRECTORY) {
+            int[] chunkPages = new int[CHUNKS_PER_DIRECTORY];
+            int[] offsets = new int[CHUNKS_PER_DIRECTORY];
+            BufferPage page = this.getPage(directory);
+            page.readLock();
+            try {
+                ByteBuffer buffer = page.getBuffer();
+                directory = buffer.getInt(0);
+                for (int i = 0; i < CHUNKS_PER_DIRECTORY; i++) {
+                    chunkPages[i] = buffer.getInt(4 + i * DIRECTORY_ENTRY_SIZE);
+                    offsets[i] = buffer.getShort(4 + i * DIRECTORY_ENTRY_SIZE + 4);
+                }
+            } finally {
+                page.readUnlock();
+                page.unpin();
+            }
+
+            for (int i = 0; i < CHUNKS_PER_DIRECTORY; i++) {
+                if (chunkPages[i] != NO_PAGE) {
+                    bitmap.putChunk(base + i, this.readChunk(chunkPages[i], offsets[i]));
+                }
+            }
+        }
+    }
+
+    // first directory page of every value
+    private List<Integer> getDirectories() throws IOException {
+        List<Integer> directories = new ArrayList<>();
+        int valuePage = this.getFirstValuePage();
+        while (valuePage != NO_PAGE) {
+            BufferPage page = this.getPage(valuePage);
+            page.readLock();
+            try {
+                ByteBuffer buffer = page.getBuffer();
+                int count = buffer.getShort(4);
+                int offset = VALUE_HEADER_SIZE;
+                for (int i = 0; i < count; i++) {
+                    int length = buffer.getShort(offset);
+                    offset += 2 + Math.max(0, length);
+                    directories.add(buffer.getInt(offset));
+                    offset += 4;
+                }
+                valuePage = buffer.getInt(0);
+            } finally {
+                page.readUnlock();
+                page.unpin();
+            }
+        }
+        return directories;
+    }
+
+    // returns the first directory page of the value, creating it if asked to
+    private int findValue(byte[] value, boolean create) throws IOException {
+        int entrySize = 2 + (value == null ? 0 : value.length) + 4;
+        int valuePage = this.getFirstValuePage();
+        int last = NO_PAGE;
+        while (valuePage != NO_PAGE) {
+            BufferPage page = this.getPage(valuePage);
+            page.writeLock();
+            try {
+                ByteBuffer buffer = page.getBuffer();
+                int count = buffer.getShort(4);
+                int offset = VALUE_HEADER_SIZE;
+                for (int i = 0; i < count; i++) {
+                    int length = buffer.getShort(offset);
+                    byte[] entry = null;
+                    if (length >= 0) {
+                        entry = new byte[length];
+                        buffer.get(offset + 2, entry);
+                    }
+                    offset += 2 + Math.max(0, length);
+                    if (Arrays.equals(entry, value)) {
+                        return buffer.getInt(offset);
+                    }
+                    offset += 4;
+                }
+                if (create && offset + entrySize <= BufferPage.PAGE_SIZE) {
+                    int directory = this.allocatePage();
+                    buffer.putShort(offset, (short) (value == null ? -1 : value.length));
+                    if (value != null) {
+                        buffer.put(offset + 2, value);
+                    }
+                    buffer.putInt(offset + entrySize - 4, directory);
+                    buffer.putShort(4, (short) (count + 1));
+                    page.markDirty();
+                    return directory;
+                }
+                last = valuePage;
+                valuePage = buffer.getInt(0);
+            } finally {
+                page.writeUnlock();
+                page.unpin();
+            }
+        }
+        if (!create) {
+            return NO_PAGE;
+        }
+
+        // every value page is full
+        int newPage = this.allocatePage();
+        if (last == NO_PAGE) {
+            this.setFirstValuePage(newPage);
+        }
+        else {
+            this.setNextPage(last, newPage);
+        }
+        return this.findValue(value, true);
+    }
+
+    // directory page and offset of the entry of the chunk, null if the directories do not reach it
+    private int[] findChunk(int directory, int key, boolean create) throws IOException {
+        while (key >= CHUNKS_PER_DIRECTORY) {
+            int next = this.getNextPage(directory);
+            if (next == NO_PAGE) {
+                if (!create) {
+                    return null;
+                }
+                next = this.allocatePage();
+                this.setNextPage(directory, next);
+            }
+            directory = next;
+            key -= CHUNKS_PER_DIRECTORY;
+        }
+        return new int[]{directory, 4 + key * DIRECTORY_ENTRY_SIZE};
+    }
+
+    private static int getCapacityClass(int size) {
+        return Math.max(0, size - 1) / CHUNK_CAPACITY_STEP;
+    }
+
+    private static int getCapacity(int capacityClass) {
+        return Math.min(CompressedBitmap.Chunk.MAX_ENCODED_SIZE, (capacityClass + 1) * CHUNK_CAPACITY_STEP);
+    }
+
+    // page and offset of a region for a chunk, a freed region of the class is taken first
+    private int[] allocateChunk(int capacityClass) throws IOException {
+        int head = FREE_CHUNKS + capacityClass * 8;
+        int freePage;
+        int freeOffset;
+        int openPage;
+        int openOffset;
+        BufferPage meta = this.getMeta();
+        try {
+            ByteBuffer buffer = meta.getBuffer();
+            freePage = buffer.getInt(head);
+            freeOffset = buffer.getInt(head + 4);
+            openPage = buffer.getInt(OPEN_CHUNK_PAGE);
+            openOffset = buffer.getInt(OPEN_CHUNK_OFFSET);
+        } finally {
+            meta.unpin();
+        }
+
+        if (freePage != NO_PAGE) {
+            // a freed region links to the next one of its class
+            BufferPage page = this.getPage(freePage);
+            try {
+                this.setMeta(head, page.getBuffer().getInt(freeOffset), page.getBuffer().getInt(freeOffset + 4));
+            } finally {
+                page.unpin();
+            }
+            return new int[]{freePage, freeOffset};
+        }
+        int capacity = getCapacity(capacityClass);
+        if (openPage == NO_PAGE || openOffset + capacity > BufferPage.PAGE_SIZE) {
+            openPage = this.allocatePage();
+            openOffset = 0;
+        }
+        this.setMeta(OPEN_CHUNK_PAGE, openPage, openOffset + capacity);
+        return new int[]{openPage, openOffset};
+    }
+
+    private void freeChunk(int pageIndex, int offset, int capacityClass) throws IOException {
+        int head = FREE_CHUNKS + capacityClass * 8;
+        BufferPage meta = this.getMeta();
+        int nextPage;
+        int nextOffset;
+        try {
+            nextPage = meta.getBuffer().getInt(head);
+            nextOffset = meta.getBuffer().getInt(head + 4);
+        } finally {
+            meta.unpin();
+        }
+
+        BufferPage page = this.getPage(pageIndex);
+        page.writeLock();
+        try {
+            page.getBuffer().putInt(offset, nextPage).putInt(offset + 4, nextOffset);
+            page.markDirty();
+        } finally {
+            page.writeUnlock();
+            page.unpin();
+        }
+        this.setMeta(head, pageIndex, offset);
+    }
+
+    private void setMeta(int position, int pageIndex, int offset) throws IOException {
+        BufferPage meta = this.getMeta();
+        meta.writeLock();
+        try {
+            meta.getBuffer().putInt(position, pageIndex).putInt(position + 4, offset);
+            meta.markDirty();
+        } finally {
+            meta.writeUnlock();
+            meta.unpin();
+        }
+    }
+
+    private int getNextPage(int pageIndex) throws IOException {
+        BufferPage page = this.getPage(pageIndex);
+        try {
+            return page.getBuffer().getInt(0);
+        } finally {
+            page.unpin();
+        }
+    }
+
+    private void setNextPage(int pageIndex, int next) throws IOException {
+        BufferPage page = this.getPage(pageIndex);
+        page.writeLock();
+        try {
+            page.getBuffer().putInt(0, next);
+            page.markDirty();
+        } finally {
+            page.writeUnlock();
+            page.unpin();
+        }
+    }
+
+    // new pages are zeroed, which is an empty value list or directory
+    private int allocatePage() throws IOException {
+        BufferPage meta = this.getMeta();
+        int pageIndex;
+        meta.writeLock();
+        try {
+            pageIndex = meta.getBuffer().getInt(PAGE_COUNT);
+            meta.getBuffer().putInt(PAGE_COUNT, pageIndex + 1);
+            meta.markDirty();
+        } finally {
+            meta.writeUnlock();
+            meta.unpin();
+        }
+
+        BufferPage page = this.getOrCreatePage(pageIndex);
+        page.writeLock();
+        try {
+            page.getBuffer().put(0, new byte[BufferPage.PAGE_SIZE]);
+            page.markDirty();
+        } finally {
+            page.writeUnlock();
+            page.unpin();
+        }
+        return pageIndex;
+    }
+
+    private int getFirstValuePage() throws IOException {
+        BufferPage meta = this.getMeta();
+        try {
+            return meta.getBuffer().getInt(FIRST_VALUE_PAGE);
+        } finally {
+            meta.unpin();
+        }
+    }
+
+    private void setFirstValuePage(int pageIndex) throws IOException {
+        BufferPage meta = this.getMeta();
+        meta.writeLock();
+        try {
+            meta.getBuffer().putInt(FIRST_VALUE_PAGE, pageIndex);
+            meta.markDirty();
+        } finally {
+            meta.writeUnlock();
+            meta.unpin();
+        }
+    }
+
+    @Override
+    public synchronized void clear() throws IOException {
+        BufferPage meta = this.getOrCreatePage(0);
+        meta.writeLock();
+        try {
+            meta.getBuffer().putInt(PAGE_COUNT, 1).putInt(FIRST_VALUE_PAGE, NO_PAGE);
+            meta.getBuffer().putInt(OPEN_CHUNK_PAGE, NO_PAGE).putInt(OPEN_CHUNK_OFFSET, 0);
+            for (int capacityClass = 0; capacityClass < CAPACITY_CLASSES; capacityClass++) {
+                meta.getBuffer().putInt(FREE_CHUNKS + capacityClass * 8, NO_PAGE);
+            }
+            meta.markDirty();
+        } finally {
+            meta.writeUnlock();
+            meta.unpin();
+        }
+    }
+
+    // also used when the index file is missing
+    @Override
+    public synchronized void rebuild() throws IOException {
+        this.clear();
+
+        List<Object> values = new ArrayList<>();
+        List<RecordId> recordIds = new ArrayList<>();
+        this.table.forEachRecord((recordId, record) -> {
+            values.add(record.getValue(this.column));
+            recordIds.add(recordId);
+        });
+        for (int i = 0; i < values.size(); i++) {
+            this.insert(values.get(i), recordIds.get(i));
+        }
+    }
+
+    private BufferPage getMeta() throws IOException {
+        BufferPage meta;
+        try {
+            meta = DBMS.getInstance().getBufferManager().getPage(this.fileName, 0);
+        } catch (IOException e) {
+            meta = null;
+        }
+        if (meta != null && meta.getBuffer().getInt(PAGE_COUNT) != 0) {
+            return meta;
+        }
+        if (meta != null) {
+            meta.unpin();
+        }
+        // index does not exist yet
+        this.rebuild();
+        return DBMS.getInstance().getBufferManager().getPage(this.fileName, 0);
+    }
+
+    private BufferPage getPage(int index) throws IOException {
+        return DBMS.getInstance().getBufferManager().getPage(this.fileName, index);
+    }
+
+    private BufferPage getOrCreatePage(int index) throws IOException {
+        BufferManager bufferManager = DBMS.getInstance().getBufferManager();
+        try {
+            return bufferManager.getPage(this.fileName, index);
+        } catch (IOException e) {
+            return bufferManager.getEmptyPage(this.fileName, index);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        DBMS.getInstance().getBufferManager().flush(this.fileName);
+    }
+
+    @Override
+    public void forceFlush() {
+        DBMS.getInstance().getBufferManager().forceFlush(this.fileName);
+    }
+}
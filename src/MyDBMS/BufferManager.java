@@ -2,113 +2,384 @@ package MyDBMS;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.util.ListIterator;
-import java.util.Stack;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class BufferManager implements Closeable {
     public static final int BUFFER_CAPACITY = 100;
+    private static final int LOCK_STRIPES = 64;
 
-    public Stack<BufferPage> buffer;
+    private final int capacity;
+    private final ConcurrentHashMap<PageId, BufferPage> pageTable;
+    // number of buffered pages including the ones being loaded
+    private final AtomicInteger reserved;
+    // serializes loads of the same page while letting different pages load in parallel
+    private final ReentrantLock[] stripes;
+    // payloads of evicted pages, reused instead of allocating a new array per load
+    private final ConcurrentLinkedQueue<byte[]> freeFrames;
+    private final EvictionPolicy evictionPolicy;
+    private final LongAdder hitCount;
+    private final LongAdder missCount;
+    private final LongAdder cleanEvictionCount;
+    private final LongAdder dirtyEvictionCount;
 
     public BufferManager() {
-        this.buffer = new Stack<>();
+        this(BUFFER_CAPACITY);
     }
 
-    public BufferPage getPage(String key, long index) throws IOException {
-        int indexInBuffer = this.search(key, index);
-        if (indexInBuffer >= 0) {
-            return this.buffer.get(indexInBuffer);
-        }
+    public BufferManager(int capacity) {
+        this(capacity, EvictionPolicy.Type.MRU);
+    }
 
-        // page not found in buffer
+    public BufferManager(int capacity, EvictionPolicy.Type evictionPolicyType) {
+        this(capacity, evictionPolicyType.create(capacity));
+    }
 
-        if (buffer.size() >= BUFFER_CAPACITY) {
-            // MRU
-            this.flushPage(this.buffer.pop());
+    public BufferManager(int capacity, EvictionPolicy evictionPolicy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Buffer capacity must be positive");
         }
+        this.capacity = capacity;
+        this.pageTable = new ConcurrentHashMap<>(capacity * 2);
+        this.reserved = new AtomicInteger(0);
+        this.stripes = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.freeFrames = new ConcurrentLinkedQueue<>();
+        this.evictionPolicy = evictionPolicy;
+        this.hitCount = new LongAdder();
+        this.missCount = new LongAdder();
+        this.cleanEvictionCount = new LongAdder();
+        this.dirtyEvictionCount = new LongAdder();
+    }
 
-        byte[] payload = DBMS.getInstance().getFilePool().read(key, index * BufferPage.PAGE_SIZE, BufferPage.PAGE_SIZE);
-        BufferPage page = new BufferPage(key, index, payload);
-
-        buffer.push(page);
-
-        return page;
+    // the returned page is pinned and must be released with BufferPage.unpin()
+    public BufferPage getPage(String key, long index) throws IOException {
+        return this.fetch(new PageId(key, index), true);
     }
 
+    // the returned page is pinned and must be released with BufferPage.unpin()
     public BufferPage getEmptyPage(String key, long index) throws IOException {
-        int indexInBuffer = this.search(key, index);
-        if (indexInBuffer >= 0) {
-            return this.buffer.get(indexInBuffer);
-        }
+        return this.fetch(new PageId(key, index), false);
+    }
 
-        // page not found in buffer
+    private BufferPage fetch(PageId pageId, boolean load) throws IOException {
+        while (true) {
+            BufferPage page = this.pin(pageId);
+            if (page != null) {
+                return page;
+            }
+
+            // page not found in buffer
+
+            ReentrantLock stripe = this.stripes[Math.floorMod(pageId.hashCode(), LOCK_STRIPES)];
+            stripe.lock();
+            try {
+                if (this.pageTable.containsKey(pageId)) {
+                    // loaded by another thread or still being evicted
+                    continue;
+                }
+                this.missCount.increment();
 
-        if (buffer.size() >= BUFFER_CAPACITY) {
-            // MRU
-            this.flushPage(this.buffer.pop());
+                long offset = pageId.index() * BufferPage.PAGE_SIZE;
+                if (load && DBMS.getInstance().getFilePool().getFileSize(pageId.fileName()) < offset + BufferPage.PAGE_SIZE) {
+                    // checked before reserving a frame so probing past the end does not evict anything
+                    throw new IOException("End of file");
+                }
+
+                this.reserveFrame();
+                byte[] frame = this.allocateFrame(!load);
+                try {
+                    if (load) {
+                        DBMS.getInstance().getFilePool().read(pageId.fileName(), offset, ByteBuffer.wrap(frame));
+                    }
+                } catch (IOException | RuntimeException e) {
+                    this.freeFrames.offer(frame);
+                    this.reserved.decrementAndGet();
+                    throw e;
+                }
+                page = new BufferPage(pageId.fileName(), pageId.index(), frame);
+                page.pin();
+
+                this.pageTable.put(pageId, page);
+                synchronized (this.evictionPolicy) {
+                    this.evictionPolicy.onLoad(pageId);
+                }
+                return page;
+            } finally {
+                stripe.unlock();
+            }
         }
+    }
 
-        BufferPage page = new BufferPage(key, index);
+    private byte[] allocateFrame(boolean clear) {
+        byte[] frame = this.freeFrames.poll();
+        if (frame == null) {
+            return new byte[BufferPage.PAGE_SIZE];
+        }
+        if (clear) {
+            Arrays.fill(frame, (byte) 0);
+        }
+        return frame;
+    }
 
-        buffer.push(page);
+    private BufferPage pin(PageId pageId) {
+        while (true) {
+            BufferPage page = this.pageTable.get(pageId);
+            if (page == null) {
+                return null;
+            }
+            if (page.pin()) {
+                this.hitCount.increment();
+                synchronized (this.evictionPolicy) {
+                    this.evictionPolicy.onAccess(pageId);
+                }
+                return page;
+            }
+            // page is being evicted, wait until it is written back and removed
+            Thread.onSpinWait();
+        }
+    }
 
-        return page;
+    private void reserveFrame() throws IOException {
+        while (true) {
+            int count = this.reserved.get();
+            if (count < this.capacity) {
+                if (this.reserved.compareAndSet(count, count + 1)) {
+                    return;
+                }
+                continue;
+            }
+            this.evict();
+        }
     }
 
-    private int search(String key, long index) {
-        ListIterator<BufferPage> iterator = this.buffer.listIterator();
-        while (iterator.hasNext()) {
-            int indexInBuffer = iterator.nextIndex();
-            BufferPage page = iterator.next();
-            if (page.getFileName().equals(key) && page.getIndex() == index) {
-                return indexInBuffer;
+    private void evict() throws IOException {
+        PageId victim;
+        // the page the eviction was reserved on, the page table may already hold another one by the same id
+        BufferPage[] evicted = new BufferPage[1];
+        synchronized (this.evictionPolicy) {
+            victim = this.evictionPolicy.evict(pageId -> {
+                BufferPage page = this.pageTable.get(pageId);
+                if (page == null || !page.tryEvict()) {
+                    return false;
+                }
+                evicted[0] = page;
+                return true;
+            });
+        }
+        if (victim == null) {
+            throw new IllegalStateException("All pages in the buffer are pinned");
+        }
+        BufferPage page = evicted[0];
+        try {
+            if (this.flushPage(page)) {
+                this.dirtyEvictionCount.increment();
+            } else {
+                this.cleanEvictionCount.increment();
+            }
+        } catch (IOException | RuntimeException e) {
+            // keep the page so its modification is not lost
+            page.cancelEvict();
+            synchronized (this.evictionPolicy) {
+                this.evictionPolicy.onLoad(victim);
             }
+            throw e;
+        }
+        if (this.remove(victim, page)) {
+            this.recycle(page);
         }
-        return -1;
+    }
+
+    // the payload of a removed page is reused for the next load once nobody reads or writes it anymore
+    private void recycle(BufferPage page) {
+        page.writeLock();
+        page.writeUnlock();
+        this.freeFrames.offer(page.getPayload());
     }
 
     public boolean contains(String key, long index) {
-        return this.search(key, index) != -1;
+        return this.pageTable.containsKey(new PageId(key, index));
     }
 
     public int getSize() {
-        return this.buffer.size();
+        return this.pageTable.size();
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    public EvictionPolicy getEvictionPolicy() {
+        return this.evictionPolicy;
+    }
+
+    public long getHitCount() {
+        return this.hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return this.missCount.sum();
+    }
+
+    public double getHitRatio() {
+        long hit = this.getHitCount();
+        long total = hit + this.getMissCount();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    public long getCleanEvictionCount() {
+        return this.cleanEvictionCount.sum();
+    }
+
+    public long getDirtyEvictionCount() {
+        return this.dirtyEvictionCount.sum();
+    }
+
+    public int getDirtyPageCount() {
+        return (int) this.pageTable.values().stream().filter(BufferPage::isDirty).count();
+    }
+
+    public void resetStatistics() {
+        this.hitCount.reset();
+        this.missCount.reset();
+        this.cleanEvictionCount.reset();
+        this.dirtyEvictionCount.reset();
+    }
+
+    public double getDirtyRatio() {
+        return (double) this.getDirtyPageCount() / this.capacity;
+    }
+
+    // writes back up to maxPages dirty pages that are not in use, keeping them buffered
+    public int writeBack(int maxPages) throws IOException {
+        int written = 0;
+        for (BufferPage page : this.pageTable.values()) {
+            if (written >= maxPages) {
+                break;
+            }
+            if (page.isDirty() && !page.isPinned() && this.flushPinned(page)) {
+                written++;
+            }
+        }
+        return written;
+    }
+
+    // writes back every dirty page, keeping them buffered
+    public int checkpoint() throws IOException {
+        int written = 0;
+        for (BufferPage page : this.pageTable.values()) {
+            if (this.flushPinned(page)) {
+                written++;
+            }
+        }
+        return written;
     }
 
     public void flush(String key, long index) throws IOException {
-        int indexInBuffer = this.search(key, index);
-        if (indexInBuffer < 0) {
+        PageId pageId = new PageId(key, index);
+        BufferPage page = this.pageTable.get(pageId);
+        if (page == null) {
+            return;
+        }
+        if (!page.tryEvict()) {
+            // still in use, only write it back
+            this.flushPage(page);
             return;
         }
-        this.flushPage(this.buffer.remove(indexInBuffer));
+        synchronized (this.evictionPolicy) {
+            this.evictionPolicy.onRemove(pageId);
+        }
+        try {
+            this.flushPage(page);
+        } finally {
+            if (this.remove(pageId, page)) {
+                this.recycle(page);
+            }
+        }
     }
 
     public void flush(String key) throws IOException {
-        for (BufferPage page : this.buffer) {
+        for (BufferPage page : this.pageTable.values()) {
             if (page.getFileName().equals(key)) {
-                this.flushPage(page);
+                this.flushPinned(page);
             }
         }
         this.forceFlush(key);
     }
 
     public void flush() throws IOException {
-        for (BufferPage page : this.buffer) {
-            this.flushPage(page);
+        for (BufferPage page : this.pageTable.values()) {
+            this.flushPinned(page);
         }
         this.forceFlush();
     }
 
-    private void flushPage(BufferPage page) throws IOException {
-        DBMS.getInstance().getFilePool().write(page.getFileName(), page.getOffset(), page.getPayload());
+    // keeps the page from being evicted while it is written, a page being evicted is written by the eviction
+    private boolean flushPinned(BufferPage page) throws IOException {
+        if (!page.isDirty() || !page.pin()) {
+            return false;
+        }
+        try {
+            return this.flushPage(page);
+        } finally {
+            page.unpin();
+        }
     }
 
+    private boolean flushPage(BufferPage page) throws IOException {
+        if (!page.isDirty()) {
+            return false;
+        }
+        page.readLock();
+        try {
+            if (!page.isDirty()) {
+                return false;
+            }
+            DBMS.getInstance().getFilePool().write(page.getFileName(), page.getOffset(), page.getPayload());
+            page.markClean();
+            return true;
+        } finally {
+            page.readUnlock();
+        }
+    }
+
+    // pages being evicted are left to the eviction, which writes them back and recycles their frames
     public void forceFlush(String key) {
-        this.buffer.removeIf(page -> page.getFileName().equals(key));
+        for (BufferPage page : this.pageTable.values()) {
+            if (page.getFileName().equals(key) && !page.isEvicting()) {
+                synchronized (this.evictionPolicy) {
+                    this.evictionPolicy.onRemove(page.getPageId());
+                }
+                this.remove(page.getPageId(), page);
+            }
+        }
     }
 
     public void forceFlush() {
-        this.buffer.clear();
+        for (BufferPage page : this.pageTable.values()) {
+            if (page.isEvicting()) {
+                continue;
+            }
+            synchronized (this.evictionPolicy) {
+                this.evictionPolicy.onRemove(page.getPageId());
+            }
+            this.remove(page.getPageId(), page);
+        }
+    }
+
+    private boolean remove(PageId pageId, BufferPage page) {
+        if (this.pageTable.remove(pageId, page)) {
+            this.reserved.decrementAndGet();
+            return true;
+        }
+        return false;
     }
 
     @Override
@@ -1,16 +1,19 @@
 package MyDBMS;
 
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class BufferPage {
     public static final int PAGE_SIZE = 4096;
 
-    private final String fileName;
-    private final long index;
+    private final PageId pageId;
     private final byte[] payload;
     private final ReadWriteLock lock;
-    private boolean dirty;
+    // -1 once the page has been chosen for eviction and must not be handed out anymore
+    private final AtomicInteger pinCount;
+    private volatile boolean dirty;
 
     public BufferPage(String fileName, long index) {
         this(fileName, index, new byte[PAGE_SIZE]);
@@ -23,10 +26,10 @@ public class BufferPage {
     public BufferPage(String fileName, long index, byte[] payload, boolean dirty) {
         assert payload.length == PAGE_SIZE;
 
-        this.fileName = fileName;
-        this.index = index;
+        this.pageId = new PageId(fileName, index);
         this.payload = payload;
         this.lock = new ReentrantReadWriteLock();
+        this.pinCount = new AtomicInteger(0);
         this.dirty = dirty;
     }
 
@@ -46,16 +49,64 @@ public class BufferPage {
         this.lock.writeLock().unlock();
     }
 
+    public boolean pin() {
+        while (true) {
+            int count = this.pinCount.get();
+            if (count < 0) {
+                return false;
+            }
+            if (this.pinCount.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void unpin() {
+        this.pinCount.updateAndGet(count -> count > 0 ? count - 1 : count);
+    }
+
+    public int getPinCount() {
+        return Math.max(this.pinCount.get(), 0);
+    }
+
+    public boolean isPinned() {
+        return this.pinCount.get() > 0;
+    }
+
+    boolean tryEvict() {
+        return this.pinCount.compareAndSet(0, -1);
+    }
+
+    boolean isEvicting() {
+        return this.pinCount.get() == -1;
+    }
+
+    void cancelEvict() {
+        this.pinCount.compareAndSet(-1, 0);
+    }
+
     public boolean isDirty() {
         return this.dirty;
     }
 
+    public void markDirty() {
+        this.dirty = true;
+    }
+
+    public void markClean() {
+        this.dirty = false;
+    }
+
+    public PageId getPageId() {
+        return this.pageId;
+    }
+
     public String getFileName() {
-        return this.fileName;
+        return this.pageId.fileName();
     }
 
     public long getIndex() {
-        return this.index;
+        return this.pageId.index();
     }
 
     public long getOffset() {
@@ -66,6 +117,10 @@ public class BufferPage {
         return this.payload;
     }
 
+    public ByteBuffer getBuffer() {
+        return ByteBuffer.wrap(this.payload);
+    }
+
     public void setPayload(byte[] payload) {
         System.arraycopy(payload, 0, this.payload, 0, Math.min(payload.length, this.payload.length));
         this.dirty = true;
@@ -0,0 +1,82 @@
+package MyDBMS;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.function.Predicate;
+
+public class ClockPolicy implements EvictionPolicy {
+    private final ArrayList<PageId> frames;
+    private final HashMap<PageId, Integer> frameIndex;
+    private final BitSet referenced;
+    private final ArrayList<Integer> freeFrames;
+    private int hand;
+
+    public ClockPolicy(int capacity) {
+        this.frames = new ArrayList<>(capacity);
+        this.frameIndex = new HashMap<>(capacity * 2);
+        this.referenced = new BitSet(capacity);
+        this.freeFrames = new ArrayList<>();
+        this.hand = 0;
+    }
+
+    @Override
+    public void onLoad(PageId pageId) {
+        if (this.frameIndex.containsKey(pageId)) {
+            this.onAccess(pageId);
+            return;
+        }
+        int frame;
+        if (this.freeFrames.isEmpty()) {
+            frame = this.frames.size();
+            this.frames.add(pageId);
+        } else {
+            frame = this.freeFrames.remove(this.freeFrames.size() - 1);
+            this.frames.set(frame, pageId);
+        }
+        this.frameIndex.put(pageId, frame);
+        this.referenced.set(frame);
+    }
+
+    @Override
+    public void onAccess(PageId pageId) {
+        Integer frame = this.frameIndex.get(pageId);
+        if (frame != null) {
+            this.referenced.set(frame);
+        }
+    }
+
+    @Override
+    public void onRemove(PageId pageId) {
+        Integer frame = this.frameIndex.remove(pageId);
+        if (frame != null) {
+            this.frames.set(frame, null);
+            this.referenced.clear(frame);
+            this.freeFrames.add(frame);
+        }
+    }
+
+    @Override
+    public PageId evict(Predicate<PageId> evictable) {
+        // every frame is visited twice: once to clear the reference bit, once to evict
+        for (int visited = 0; visited < this.frames.size() * 2; visited++) {
+            if (this.hand >= this.frames.size()) {
+                this.hand = 0;
+            }
+            int frame = this.hand++;
+            PageId pageId = this.frames.get(frame);
+            if (pageId == null) {
+                continue;
+            }
+            if (this.referenced.get(frame)) {
+                this.referenced.clear(frame);
+                continue;
+            }
+            if (evictable.test(pageId)) {
+                this.onRemove(pageId);
+                return pageId;
+            }
+        }
+        return null;
+    }
+}
@@ -1,18 +1,23 @@
 package MyDBMS;
 
+import java.time.LocalDate;
 import java.util.Objects;
 
 public class Column {
 
     public enum DataType {
-        CHAR("CHAR", false), VARCHAR("VARCHAR", true);
+        CHAR("CHAR", false, 0), VARCHAR("VARCHAR", true, 0),
+        // fixed width binary types, DATE is stored as days since 1970-01-01
+        INT("INT", false, 4), BIGINT("BIGINT", false, 8), DOUBLE("DOUBLE", false, 8), DATE("DATE", false, 4);
 
         private final String value;
         private final boolean variableLength;
+        private final int size;
 
-        DataType(String value, boolean variableLength) {
+        DataType(String value, boolean variableLength, int size) {
             this.value = value;
             this.variableLength = variableLength;
+            this.size = size;
         }
 
         public String getValue() {
@@ -22,6 +27,11 @@ public class Column {
         public boolean isVariableLength() {
             return this.variableLength;
         }
+
+        // 0 if the size is given by the column
+        public int getSize() {
+            return this.size;
+        }
     }
 
     private final DataType type;
@@ -33,10 +43,15 @@ public class Column {
         this(type, name, size, false);
     }
 
+    // for types of fixed size
+    public Column(DataType type, String name) {
+        this(type, name, 0, false);
+    }
+
     public Column(DataType type, String name, int size, boolean notnull) {
         this.type = type;
         this.name = name;
-        this.size = size;
+        this.size = type.getSize() > 0 ? type.getSize() : size;
         this.notnull = notnull;
     }
 
@@ -56,6 +71,26 @@ public class Column {
         return this.notnull;
     }
 
+    // the value in the java type of the column where it can be converted without loss
+    // conditions, index keys and stored values all go through here, so an Integer finds a BIGINT
+    public Object widen(Object value) {
+        if (this.type == DataType.BIGINT && value instanceof Integer integer) {
+            return integer.longValue();
+        }
+        return value;
+    }
+
+    // whether the value is of the java type used for the column, null is not checked
+    public boolean accepts(Object value) {
+        return switch (this.type) {
+            case CHAR, VARCHAR -> value instanceof String;
+            case INT -> value instanceof Integer;
+            case BIGINT -> value instanceof Long;
+            case DOUBLE -> value instanceof Double;
+            case DATE -> value instanceof LocalDate;
+        };
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
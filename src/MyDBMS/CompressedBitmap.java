@@ -0,0 +1,420 @@
+package MyDBMS;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+// roaring style bitmap, values are split into chunks by their high bits
+// and each chunk is a sorted array while sparse and a plain bitset once dense
+public class CompressedBitmap {
+    public static final int CHUNK_BITS = 14;
+    public static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    // an array chunk larger than this would take more space than a bitset
+    static final int ARRAY_LIMIT = CHUNK_SIZE / 16;
+    // serialized chunk size, both forms take the same space
+    static final int CHUNK_BYTES = 4 + CHUNK_SIZE / 8;
+
+    private final TreeMap<Integer, Chunk> chunks;
+
+    public CompressedBitmap() {
+        this.chunks = new TreeMap<>();
+    }
+
+    public static CompressedBitmap of(int... values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    public boolean add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value " + value);
+        }
+        return this.chunks.computeIfAbsent(value >>> CHUNK_BITS, key -> new Chunk()).add(value & (CHUNK_SIZE - 1));
+    }
+
+    public boolean remove(int value) {
+        Chunk chunk = this.chunks.get(value >>> CHUNK_BITS);
+        if (chunk == null || !chunk.remove(value & (CHUNK_SIZE - 1))) {
+            return false;
+        }
+        if (chunk.cardinality == 0) {
+            this.chunks.remove(value >>> CHUNK_BITS);
+        }
+        return true;
+    }
+
+    public boolean contains(int value) {
+        Chunk chunk = this.chunks.get(value >>> CHUNK_BITS);
+        return chunk != null && chunk.contains(value & (CHUNK_SIZE - 1));
+    }
+
+    public int getCardinality() {
+        return this.chunks.values().stream().mapToInt(chunk -> chunk.cardinality).sum();
+    }
+
+    public boolean isEmpty() {
+        return this.chunks.isEmpty();
+    }
+
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        for (Map.Entry<Integer, Chunk> entry : this.chunks.entrySet()) {
+            Chunk chunk = other.chunks.get(entry.getKey());
+            if (chunk != null) {
+                result.putChunk(entry.getKey(), entry.getValue().and(chunk));
+            }
+        }
+        return result;
+    }
+
+    public CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        this.chunks.forEach((key, chunk) -> result.putChunk(key, chunk.copy()));
+        other.chunks.forEach((key, chunk) -> {
+            Chunk existing = result.chunks.get(key);
+            result.putChunk(key, existing == null ? chunk.copy() : existing.or(chunk));
+        });
+        return result;
+    }
+
+    public CompressedBitmap andNot(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        this.chunks.forEach((key, chunk) -> {
+            Chunk removed = other.chunks.get(key);
+            result.putChunk(key, removed == null ? chunk.copy() : chunk.andNot(removed));
+        });
+        return result;
+    }
+
+    // values in [0, size) that are not in this bitmap
+    public CompressedBitmap not(int size) {
+        CompressedBitmap all = new CompressedBitmap();
+        for (int key = 0; key << CHUNK_BITS < size; key++) {
+            all.putChunk(key, Chunk.range(Math.min(CHUNK_SIZE, size - (key << CHUNK_BITS))));
+        }
+        return all.andNot(this);
+    }
+
+    // smallest value not less than from, or -1 if there is none
+    public int nextValue(int from) {
+        for (Map.Entry<Integer, Chunk> entry : this.chunks.tailMap(from >>> CHUNK_BITS, true).entrySet()) {
+            int base = entry.getKey() << CHUNK_BITS;
+            int low = entry.getValue().nextValue(Math.max(0, from - base));
+            if (low >= 0) {
+                return base + low;
+            }
+        }
+        return -1;
+    }
+
+    public void forEach(IntConsumer consumer) {
+        this.chunks.forEach((key, chunk) -> chunk.forEach(key << CHUNK_BITS, consumer));
+    }
+
+    public int[] toArray() {
+        int[] values = new int[this.getCardinality()];
+        int[] position = {0};
+        this.forEach(value -> values[position[0]++] = value);
+        return values;
+    }
+
+    Chunk getChunk(int key) {
+        return this.chunks.get(key);
+    }
+
+    void putChunk(int key, Chunk chunk) {
+        if (chunk == null || chunk.cardinality == 0) {
+            this.chunks.remove(key);
+        }
+        else {
+            this.chunks.put(key, chunk);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CompressedBitmap bitmap)) return false;
+        return Arrays.equals(this.toArray(), bitmap.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.toArray());
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(this.toArray());
+    }
+
+    static final class Chunk {
+        private static final int WORDS = CHUNK_SIZE / 64;
+        // the most bytes write takes, both forms are at most this large
+        static final int MAX_ENCODED_SIZE = 4 + Math.max(ARRAY_LIMIT * 2, WORDS * 8);
+
+        private short[] array;
+        private long[] bits;
+        private int cardinality;
+
+        Chunk() {
+            this.array = new short[4];
+        }
+
+        private Chunk(short[] array, long[] bits, int cardinality) {
+            this.array = array;
+            this.bits = bits;
+            this.cardinality = cardinality;
+        }
+
+        private static Chunk range(int size) {
+            long[] bits = new long[WORDS];
+            Arrays.fill(bits, 0, size / 64, -1L);
+            if (size % 64 != 0) {
+                bits[size / 64] = (1L << (size % 64)) - 1;
+            }
+            return fromBits(bits);
+        }
+
+        private static Chunk fromBits(long[] bits) {
+            int cardinality = 0;
+            for (long word : bits) {
+                cardinality += Long.bitCount(word);
+            }
+            Chunk chunk = new Chunk(null, bits, cardinality);
+            if (cardinality <= ARRAY_LIMIT) {
+                chunk.convertToArray();
+            }
+            return chunk;
+        }
+
+        int getCardinality() {
+            return this.cardinality;
+        }
+
+        boolean contains(int low) {
+            if (this.bits != null) {
+                return (this.bits[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(this.array, 0, this.cardinality, (short) low) >= 0;
+        }
+
+        int nextValue(int low) {
+            if (this.bits == null) {
+                int position = Arrays.binarySearch(this.array, 0, this.cardinality, (short) low);
+                if (position < 0) {
+                    position = -position - 1;
+                }
+                return position < this.cardinality ? this.array[position] : -1;
+            }
+            int word = low >>> 6;
+            long bits = this.bits[word] & (-1L << low);
+            while (bits == 0) {
+                if (++word == WORDS) {
+                    return -1;
+                }
+                bits = this.bits[word];
+            }
+            return word * 64 + Long.numberOfTrailingZeros(bits);
+        }
+
+        boolean add(int low) {
+            if (this.bits != null) {
+                long mask = 1L << low;
+                if ((this.bits[low >>> 6] & mask) != 0) {
+                    return false;
+                }
+                this.bits[low >>> 6] |= mask;
+                this.cardinality++;
+                return true;
+            }
+
+            int position = Arrays.binarySearch(this.array, 0, this.cardinality, (short) low);
+            if (position >= 0) {
+                return false;
+            }
+            if (this.cardinality == ARRAY_LIMIT) {
+                this.convertToBits();
+                return this.add(low);
+            }
+            position = -position - 1;
+            if (this.cardinality == this.array.length) {
+                this.array = Arrays.copyOf(this.array, Math.min(ARRAY_LIMIT, this.cardinality * 2));
+            }
+            System.arraycopy(this.array, position, this.array, position + 1, this.cardinality - position);
+            this.array[position] = (short) low;
+            this.cardinality++;
+            return true;
+        }
+
+        boolean remove(int low) {
+            if (this.bits != null) {
+                long mask = 1L << low;
+                if ((this.bits[low >>> 6] & mask) == 0) {
+                    return false;
+                }
+                this.bits[low >>> 6] &= ~mask;
+                this.cardinality--;
+                if (this.cardinality <= ARRAY_LIMIT) {
+                    this.convertToArray();
+                }
+                return true;
+            }
+
+            int position = Arrays.binarySearch(this.array, 0, this.cardinality, (short) low);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(this.array, position + 1, this.array, position, this.cardinality - position - 1);
+            this.cardinality--;
+            return true;
+        }
+
+        private void convertToBits() {
+            this.bits = this.getBits();
+            this.array = null;
+        }
+
+        private void convertToArray() {
+            short[] array = new short[Math.max(4, this.cardinality)];
+            int position = 0;
+            for (int word = 0; word < WORDS; word++) {
+                long bits = this.bits[word];
+                while (bits != 0) {
+                    array[position++] = (short) (word * 64 + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+            this.array = array;
+            this.bits = null;
+        }
+
+        private long[] getBits() {
+            if (this.bits != null) {
+                return this.bits;
+            }
+            long[] bits = new long[WORDS];
+            for (int i = 0; i < this.cardinality; i++) {
+                bits[this.array[i] >>> 6] |= 1L << this.array[i];
+            }
+            return bits;
+        }
+
+        Chunk copy() {
+            return new Chunk(
+                    this.array == null ? null : this.array.clone(),
+                    this.bits == null ? null : this.bits.clone(),
+                    this.cardinality);
+        }
+
+        Chunk and(Chunk other) {
+            if (this.bits == null || other.bits == null) {
+                // probe the sparse side
+                Chunk sparse = this.bits == null ? this : other;
+                Chunk dense = sparse == this ? other : this;
+                short[] array = new short[Math.max(4, sparse.cardinality)];
+                int cardinality = 0;
+                for (int i = 0; i < sparse.cardinality; i++) {
+                    if (dense.contains(sparse.array[i])) {
+                        array[cardinality++] = sparse.array[i];
+                    }
+                }
+                return new Chunk(array, null, cardinality);
+            }
+            long[] bits = new long[WORDS];
+            for (int word = 0; word < WORDS; word++) {
+                bits[word] = this.bits[word] & other.bits[word];
+            }
+            return fromBits(bits);
+        }
+
+        Chunk or(Chunk other) {
+            long[] bits = this.getBits().clone();
+            long[] otherBits = other.getBits();
+            for (int word = 0; word < WORDS; word++) {
+                bits[word] |= otherBits[word];
+            }
+            return fromBits(bits);
+        }
+
+        Chunk andNot(Chunk other) {
+            if (this.bits == null) {
+                short[] array = new short[Math.max(4, this.cardinality)];
+                int cardinality = 0;
+                for (int i = 0; i < this.cardinality; i++) {
+                    if (!other.contains(this.array[i])) {
+                        array[cardinality++] = this.array[i];
+                    }
+                }
+                return new Chunk(array, null, cardinality);
+            }
+            long[] bits = this.bits.clone();
+            long[] otherBits = other.getBits();
+            for (int word = 0; word < WORDS; word++) {
+                bits[word] &= ~otherBits[word];
+            }
+            return fromBits(bits);
+        }
+
+        void forEach(int base, IntConsumer consumer) {
+            if (this.bits == null) {
+                for (int i = 0; i < this.cardinality; i++) {
+                    consumer.accept(base + this.array[i]);
+                }
+                return;
+            }
+            for (int word = 0; word < WORDS; word++) {
+                long bits = this.bits[word];
+                while (bits != 0) {
+                    consumer.accept(base + word * 64 + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+        }
+
+        int getEncodedSize() {
+            return 4 + (this.bits != null ? WORDS * 8 : this.cardinality * 2);
+        }
+
+        void write(ByteBuffer buffer, int offset) {
+            buffer.putInt(offset, this.cardinality);
+            offset += 4;
+            if (this.bits != null) {
+                for (long word : this.bits) {
+                    buffer.putLong(offset, word);
+                    offset += 8;
+                }
+            }
+            else {
+                for (int i = 0; i < this.cardinality; i++) {
+                    buffer.putShort(offset, this.array[i]);
+                    offset += 2;
+                }
+            }
+        }
+
+        static Chunk read(ByteBuffer buffer, int offset) {
+            int cardinality = buffer.getInt(offset);
+            offset += 4;
+            if (cardinality > ARRAY_LIMIT) {
+                long[] bits = new long[WORDS];
+                for (int word = 0; word < WORDS; word++) {
+                    bits[word] = buffer.getLong(offset);
+                    offset += 8;
+                }
+                return new Chunk(null, bits, cardinality);
+            }
+            short[] array = new short[Math.max(4, cardinality)];
+            for (int i = 0; i < cardinality; i++) {
+                array[i] = buffer.getShort(offset);
+                offset += 2;
+            }
+            return new Chunk(array, null, cardinality);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package MyDBMS;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// WHERE clause as a tree, tables evaluate it once per record and look up conjuncts through indexes
+public sealed interface Condition {
+
+    // column = value, or column IS NULL for a null value
+    record Equal(String column, Object value, boolean not) implements Condition {
+        @Override
+        public String toString() {
+            if (this.value == null) {
+                return this.column + (this.not ? " IS NOT NULL" : " IS NULL");
+            }
+            return this.column + (this.not ? " != " : " = ") + format(this.value);
+        }
+    }
+
+    // a null bound leaves that side open, null values are never in a range
+    record Range(String column, Object from, boolean fromInclusive, Object to, boolean toInclusive) implements Condition {
+        @Override
+        public String toString() {
+            if (this.from != null && this.to != null && this.fromInclusive && this.toInclusive) {
+                return this.column + " BETWEEN " + format(this.from) + " AND " + format(this.to);
+            }
+            String lower = this.from == null ? null : this.column + (this.fromInclusive ? " >= " : " > ") + format(this.from);
+            String upper = this.to == null ? null : this.column + (this.toInclusive ? " <= " : " < ") + format(this.to);
+            if (lower == null && upper == null) {
+                return this.column + " IS NOT NULL";
+            }
+            return lower == null ? upper : upper == null ? lower : lower + " AND " + upper;
+        }
+    }
+
+    record And(List<Condition> conditions) implements Condition {
+        @Override
+        public String toString() {
+            return join(this.conditions, " AND ");
+        }
+    }
+
+    record Or(List<Condition> conditions) implements Condition {
+        @Override
+        public String toString() {
+            return join(this.conditions, " OR ");
+        }
+    }
+
+    record Not(Condition condition) implements Condition {
+        @Override
+        public String toString() {
+            return "NOT (" + this.condition + ")";
+        }
+    }
+
+    static Condition equal(String column, Object value) {
+        return new Equal(column, value, false);
+    }
+
+    static Condition notEqual(String column, Object value) {
+        return new Equal(column, value, true);
+    }
+
+    static Condition isNull(String column) {
+        return new Equal(column, null, false);
+    }
+
+    static Condition isNotNull(String column) {
+        return new Equal(column, null, true);
+    }
+
+    static Condition lessThan(String column, Object value) {
+        return new Range(column, null, false, checkBound(value, "<"), false);
+    }
+
+    static Condition lessThanOrEqual(String column, Object value) {
+        return new Range(column, null, false, checkBound(value, "<="), true);
+    }
+
+    static Condition greaterThan(String column, Object value) {
+        return new Range(column, checkBound(value, ">"), false, null, false);
+    }
+
+    static Condition greaterThanOrEqual(String column, Object value) {
+        return new Range(column, checkBound(value, ">="), true, null, false);
+    }
+
+    // both bounds are inclusive
+    static Condition between(String column, Object from, Object to) {
+        return new Range(column, checkBound(from, "BETWEEN"), true, checkBound(to, "BETWEEN"), true);
+    }
+
+    static Condition and(Condition... conditions) {
+        return new And(List.of(conditions));
+    }
+
+    static Condition or(Condition... conditions) {
+        return new Or(List.of(conditions));
+    }
+
+    static Condition not(Condition condition) {
+        return new Not(condition);
+    }
+
+    private static Object checkBound(Object value, String operator) {
+        if (value == null) {
+            throw new IllegalArgumentException("NULL cannot be compared with " + operator);
+        }
+        return value;
+    }
+
+    private static String format(Object value) {
+        if (value instanceof Number) {
+            return value.toString();
+        }
+        return "'" + value.toString().replace("'", "\\'") + "'";
+    }
+
+    private static String join(List<Condition> conditions, String operator) {
+        // nested AND and OR are parenthesized, leaves are not
+        return conditions.stream()
+                .map(condition -> condition instanceof And || condition instanceof Or ? "(" + condition + ")" : condition.toString())
+                .collect(Collectors.joining(operator));
+    }
+}
@@ -2,15 +2,27 @@ package MyDBMS;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class DBMS implements Closeable {
+    public static final long WORK_MEMORY = 4L << 20;
+
     private final FilePool filePool;
     private final BufferManager bufferManager;
     private Dictionary dictionary;
+    private PageWriter pageWriter;
+    // memory a sort or an aggregation may use before it spills to temporary files
+    private volatile long workMemory = WORK_MEMORY;
 
     private DBMS() {
         this(new FilePool(), new BufferManager());
@@ -37,6 +49,33 @@ public class DBMS implements Closeable {
         return this.bufferManager;
     }
 
+    public long getWorkMemory() {
+        return this.workMemory;
+    }
+
+    public void setWorkMemory(long workMemory) {
+        if (workMemory <= 0) {
+            throw new IllegalArgumentException("Work memory must be positive");
+        }
+        this.workMemory = workMemory;
+    }
+
+    public synchronized PageWriter startPageWriter() {
+        return this.startPageWriter(new PageWriter(this.bufferManager));
+    }
+
+    public synchronized PageWriter startPageWriter(PageWriter pageWriter) {
+        if (this.pageWriter != null && this.pageWriter.isRunning()) {
+            throw new IllegalStateException("Page writer is already running");
+        }
+        this.pageWriter = pageWriter.start();
+        return this.pageWriter;
+    }
+
+    public synchronized PageWriter getPageWriter() {
+        return this.pageWriter;
+    }
+
     public synchronized Dictionary getDictionary() {
         // Dictionary must not be loaded in the constructor
         // due to cyclic reference of getBufferManager()
@@ -54,10 +93,17 @@ public class DBMS implements Closeable {
         private final String tableName;
         private final List<Column> columns;
         private String primaryColumn;
+        private final HashMap<String, Index.Type> indexes;
 
         public TableBuilder(String tableName) {
             this.tableName = tableName;
             this.columns = new ArrayList<>();
+            this.indexes = new LinkedHashMap<>();
+        }
+
+        // for types of fixed size, such as INT or DATE
+        public TableBuilder addColumn(String name, String type) {
+            return this.addColumn(name, type, 0, false);
         }
 
         public TableBuilder addColumn(String name, String type, int size) {
@@ -79,6 +125,15 @@ public class DBMS implements Closeable {
             return this.addColumn(name, type, size, true);
         }
 
+        public TableBuilder addIndex(String column) {
+            return this.addIndex(column, Index.Type.HASH.getValue());
+        }
+
+        public TableBuilder addIndex(String column, String type) {
+            this.indexes.put(column, getIndexType(type));
+            return this;
+        }
+
         @Override
         public String toString() {
             StringBuilder query = new StringBuilder("CREATE TABLE ").append(this.tableName).append(" (");
@@ -88,26 +143,53 @@ public class DBMS implements Closeable {
                     query.append(",");
                 }
                 query.append("\n  ").append(column.getName())
-                        .append(" ").append(column.getType().getValue())
-                        .append("(").append(column.getSize()).append(")");
+                        .append(" ").append(column.getType().getValue());
+                if (column.getType().getSize() == 0) {
+                    query.append("(").append(column.getSize()).append(")");
+                }
                 if (column.getName().equals(this.primaryColumn)) {
                     query.append(" PRIMARY KEY");
                 }
             }
             query.append("\n)");
+            this.indexes.forEach((column, type) -> query
+                    .append(";\nCREATE INDEX ON ").append(this.tableName)
+                    .append(" USING ").append(type.getValue())
+                    .append(" (").append(column).append(")"));
 
             return query.toString();
         }
 
         public boolean persist() {
             try {
-                return DBMS.this.getDictionary().createTable(this.tableName, this.columns.toArray(Column[]::new), this.primaryColumn) != null;
+                Dictionary dictionary = DBMS.this.getDictionary();
+                if (dictionary.createTable(this.tableName, this.columns.toArray(Column[]::new), this.primaryColumn) == null) {
+                    return false;
+                }
+                this.indexes.forEach((column, type) -> dictionary.createIndex(this.tableName, column, type));
+                return true;
             } catch (Exception e) {
                 return false;
             }
         }
     }
 
+    private static Index.Type getIndexType(String type) {
+        return Arrays.stream(Index.Type.values()).filter(indexType -> indexType.getValue().equalsIgnoreCase(type)).findAny().orElseThrow();
+    }
+
+    public boolean createIndex(String tableName, String column) {
+        return this.createIndex(tableName, column, Index.Type.HASH.getValue());
+    }
+
+    public boolean createIndex(String tableName, String column, String type) {
+        try {
+            return this.getDictionary().createIndex(tableName, column, getIndexType(type)) != null;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
     public void deleteTable(String tableName) {
         this.getDictionary().deleteTable(tableName);
     }
@@ -118,9 +200,18 @@ public class DBMS implements Closeable {
 
     public class QueryBuilder {
         private final String tableName;
-        private String whereColumn;
-        private String whereOperator = "";
-        private Object whereValue;
+        // null selects every record
+        private Condition condition;
+        // null selects every column
+        private String[] columns;
+        // -1 returns every match
+        private long limit = -1;
+        private long offset = 0;
+        private final List<Order> orders = new ArrayList<>();
+        private String[] groupColumns = new String[0];
+
+        private record Order(String column, boolean ascending) {
+        }
 
         public QueryBuilder(String tableName) {
             this.tableName = tableName;
@@ -139,11 +230,7 @@ public class DBMS implements Closeable {
             Column[] columns = table.getColumns();
             Record record = new Record(table);
             for (int i = 0; i < Math.min(table.getColumns().length, values.length); i++) {
-                Column column = columns[i];
-                switch (column.getType()) {
-                    case CHAR -> record.setChar(column.getName(), (String) values[i]);
-                    case VARCHAR -> record.setVarchar(column.getName(), (String) values[i]);
-                }
+                record.setValue(columns[i].getName(), values[i]);
             }
             return table.addRecord(record);
         }
@@ -152,114 +239,302 @@ public class DBMS implements Closeable {
             return this.where(this.getTable().getPrimaryColumn(), value);
         }
 
-        private QueryBuilder where(String column, String operator, Object value) {
-            this.whereColumn = column;
-            this.whereOperator = operator;
-            this.whereValue = value;
+        public QueryBuilder select(String... columns) {
+            this.columns = columns;
+            return this;
+        }
+
+        private String[] getSelectedColumns() {
+            if (this.columns != null) {
+                return this.columns;
+            }
+            return Arrays.stream(this.getTable().getColumns()).map(Column::getName).toArray(String[]::new);
+        }
+
+        public QueryBuilder limit(long limit) {
+            if (limit < 0) {
+                throw new IllegalArgumentException("Negative limit " + limit);
+            }
+            this.limit = limit;
+            return this;
+        }
+
+        public QueryBuilder offset(long offset) {
+            if (offset < 0) {
+                throw new IllegalArgumentException("Negative offset " + offset);
+            }
+            this.offset = offset;
+            return this;
+        }
+
+        public QueryBuilder orderBy(String column) {
+            return this.orderBy(column, true);
+        }
+
+        // later columns order the records that are equal on the earlier ones
+        public QueryBuilder orderBy(String column, boolean ascending) {
+            this.orders.add(new Order(column, ascending));
+            return this;
+        }
+
+        // NULL comes first in ascending order
+        private <T> Comparator<T> getComparator(BiFunction<T, String, Object> getter) {
+            Comparator<T> comparator = null;
+            for (Order order : this.orders) {
+                Comparator<T> next = (a, b) -> compareValues(getter.apply(a, order.column()), getter.apply(b, order.column()));
+                next = order.ascending() ? next : next.reversed();
+                comparator = comparator == null ? next : comparator.thenComparing(next);
+            }
+            return comparator;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static int compareValues(Object a, Object b) {
+            if (a == null || b == null) {
+                return a == null ? (b == null ? 0 : -1) : 1;
+            }
+            return ((Comparable<Object>) a).compareTo(b);
+        }
+
+        // conditions added one after another must all hold
+        public QueryBuilder where(Condition condition) {
+            if (this.condition == null) {
+                this.condition = condition;
+            }
+            else if (this.condition instanceof Condition.And and) {
+                List<Condition> conditions = new ArrayList<>(and.conditions());
+                conditions.add(condition);
+                this.condition = new Condition.And(conditions);
+            }
+            else {
+                this.condition = Condition.and(this.condition, condition);
+            }
             return this;
         }
 
         public QueryBuilder where(String column, Object value) {
-            return this.where(column, "=", value);
+            return this.where(Condition.equal(column, value));
         }
 
         public QueryBuilder whereNot(String column, Object value) {
-            return this.where(column, "!=", value);
+            return this.where(Condition.notEqual(column, value));
         }
 
         public QueryBuilder whereNull(String column) {
-            return this.where(column, "IS", null);
+            return this.where(Condition.isNull(column));
         }
 
         public QueryBuilder whereNotNull(String column) {
-            return this.where(column, "IS NOT", null);
+            return this.where(Condition.isNotNull(column));
+        }
+
+        public QueryBuilder whereLessThan(String column, Object value) {
+            return this.where(Condition.lessThan(column, value));
+        }
+
+        public QueryBuilder whereLessThanOrEqual(String column, Object value) {
+            return this.where(Condition.lessThanOrEqual(column, value));
+        }
+
+        public QueryBuilder whereGreaterThan(String column, Object value) {
+            return this.where(Condition.greaterThan(column, value));
+        }
+
+        public QueryBuilder whereGreaterThanOrEqual(String column, Object value) {
+            return this.where(Condition.greaterThanOrEqual(column, value));
+        }
+
+        // both bounds are inclusive
+        public QueryBuilder whereBetween(String column, Object from, Object to) {
+            return this.where(Condition.between(column, from, to));
         }
 
         public Record[] get() {
+            try (Stream<Record> records = this.stream()) {
+                return records.toArray(Record[]::new);
+            }
+        }
+
+        // only the selected columns are read from the pages
+        public Row[] getRows() {
+            try (Stream<Row> rows = this.streamRows()) {
+                return rows.toArray(Row[]::new);
+            }
+        }
+
+        // records are read page by page as the stream is consumed, reading stops at the limit
+        // an ordered query reads every match first, close the stream to delete its temporary files early
+        public Stream<Record> stream() {
             Table table = this.getTable();
+            if (this.orders.isEmpty()) {
+                return this.page(table.stream(this.condition));
+            }
+            for (Order order : this.orders) {
+                table.getColumnIndex(order.column());
+            }
+            ExternalSorter sorter = new ExternalSorter(table, this.getComparator(Record::getValue), DBMS.this.getWorkMemory());
+            try {
+                if (this.limit >= 0) {
+                    // a bounded heap is enough for the first offset + limit records
+                    return sorter.sort(table.stream(this.condition), this.offset + this.limit).skip(this.offset);
+                }
+                return sorter.sort(table.stream(this.condition)).skip(this.offset);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
 
-            return switch (this.whereOperator) {
-                case "=", "IS" -> table.where(this.whereColumn, this.whereValue);
-                case "!=", "IS NOT" -> table.whereNot(this.whereColumn, this.whereValue);
-                default -> table.getAllRecords().toArray(Record[]::new);
-            };
+        // an ordered query sorts whole records and projects them afterwards
+        public Stream<Row> streamRows() {
+            String[] columns = this.getSelectedColumns().clone();
+            if (this.orders.isEmpty()) {
+                return this.page(this.getTable().stream(columns, this.condition));
+            }
+            Table table = this.getTable();
+            for (String column : columns) {
+                table.getColumnIndex(column);
+            }
+            return this.stream().map(record -> {
+                Object[] values = new Object[columns.length];
+                for (int i = 0; i < columns.length; i++) {
+                    values[i] = record.getValue(columns[i]);
+                }
+                return new Row(columns, values);
+            });
         }
 
-        public Record[] getAndPrint() {
-            Record[] records = this.get();
-            Column[] columns = this.getTable().getColumns();
+        public Iterator<Record> cursor() {
+            return this.stream().iterator();
+        }
+
+        private <T> Stream<T> page(Stream<T> stream) {
+            stream = stream.skip(this.offset);
+            return this.limit < 0 ? stream : stream.limit(this.limit);
+        }
+
+        public QueryBuilder groupBy(String... columns) {
+            this.groupColumns = columns.clone();
+            return this;
+        }
+
+        // matching records, decoding nothing but their positions
+        public long count() {
+            try (Stream<Row> rows = this.page(this.getTable().stream(new String[0], this.condition))) {
+                return rows.count();
+            }
+        }
+
+        // a row of the group columns and the aggregates for every group, or a single row without groupBy
+        // groups are ordered by orderBy on their output columns, such as "COUNT(*)", LIMIT and OFFSET apply to groups
+        public Row[] aggregate(Aggregate... aggregates) {
+            Table table = this.getTable();
+            HashAggregator aggregator = new HashAggregator(table, this.groupColumns, aggregates, DBMS.this.getWorkMemory());
+            List<Row> groups;
+            // only the group and aggregate columns are decoded
+            try (Stream<Row> rows = table.stream(aggregator.getInputColumns(), this.condition)) {
+                groups = aggregator.aggregate(rows.iterator());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (!this.orders.isEmpty()) {
+                groups.sort(this.getComparator(Row::getValue));
+            }
+            return this.page(groups.stream()).toArray(Row[]::new);
+        }
+
+        // rows of this query and the other one where column equals otherColumn, named "table.column"
+        // each query keeps its conditions and selected columns, the join algorithm is picked from their sizes
+        public Stream<Row> join(QueryBuilder other, String column, String otherColumn) {
+            return this.join(other, column, otherColumn, null);
+        }
+
+        // a null strategy is picked like above
+        public Stream<Row> join(QueryBuilder other, String column, String otherColumn, Join.Strategy strategy) {
+            Join join = new Join(
+                    new Join.Side(this.getTable(), this.getSelectedColumns(), column, this.condition, this.offset, this.limit),
+                    new Join.Side(other.getTable(), other.getSelectedColumns(), otherColumn, other.condition, other.offset, other.limit),
+                    DBMS.this.getWorkMemory());
+            return join.stream(strategy);
+        }
+
+        public Row[] getAndPrint() {
+            Row[] rows = this.getRows();
+            String[] columns = this.getSelectedColumns();
 
             // calculate column size
-            HashMap<String, Integer> columnSize = new HashMap<>(columns.length);
-            for (Column column : columns) {
-                columnSize.put(column.getName(), column.getName().length());
-            }
-            for (Record record : records) {
-                for (Column column : columns) {
-                    String value = switch (column.getType()) {
-                        case CHAR -> record.getChar(column.getName());
-                        case VARCHAR -> record.getVarchar(column.getName());
-                    };
-                    String nullSafeValue = value == null ? "(null)" : value;
-                    columnSize.computeIfPresent(column.getName(), (k, v) -> Math.max(v, nullSafeValue.length()));
+            int[] columnSize = new int[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                columnSize[i] = columns[i].length();
+            }
+            for (Row row : rows) {
+                for (int i = 0; i < columns.length; i++) {
+                    Object value = row.getValue(i);
+                    columnSize[i] = Math.max(columnSize[i], (value == null ? "(null)" : value.toString()).length());
                 }
             }
 
             // print header
-            for (Column column : columns) {
-                System.out.print("+" + "-".repeat(columnSize.get(column.getName()) + 2));
+            for (int size : columnSize) {
+                System.out.print("+" + "-".repeat(size + 2));
             }
             System.out.println("+");
-            for (Column column : columns) {
-                System.out.format("| %-" + columnSize.get(column.getName()) + "s ", column.getName());
+            for (int i = 0; i < columns.length; i++) {
+                System.out.format("| %-" + columnSize[i] + "s ", columns[i]);
             }
             System.out.println("|");
-            for (Column column : columns) {
-                System.out.print("+" + "-".repeat(columnSize.get(column.getName()) + 2));
+            for (int size : columnSize) {
+                System.out.print("+" + "-".repeat(size + 2));
             }
             System.out.println("+");
             // print data
-            for (Record record : records) {
-                for (Column column : columns) {
-                    String value = switch (column.getType()) {
-                        case CHAR -> record.getChar(column.getName());
-                        case VARCHAR -> record.getVarchar(column.getName());
-                    };
-                    String nullSafeValue = value == null ? "(null)" : value;
-                    System.out.format("| %-" + columnSize.get(column.getName()) + "s ", nullSafeValue);
+            for (Row row : rows) {
+                for (int i = 0; i < columns.length; i++) {
+                    Object value = row.getValue(i);
+                    System.out.format("| %-" + columnSize[i] + "s ", value == null ? "(null)" : value.toString());
                 }
                 System.out.println("|");
             }
-            for (Column column : columns) {
-                System.out.print("+" + "-".repeat(columnSize.get(column.getName()) + 2));
+            for (int size : columnSize) {
+                System.out.print("+" + "-".repeat(size + 2));
             }
             System.out.println("+");
 
-            return records;
+            return rows;
         }
 
         public boolean delete() {
+            if (this.limit >= 0 || this.offset > 0) {
+                throw new IllegalStateException("LIMIT and OFFSET are not supported by DELETE");
+            }
             Table table = this.getTable();
 
-            return switch (this.whereOperator) {
-                case "=", "IS" -> table.delete(this.whereColumn, this.whereValue) > 0;
-                case "!=", "IS NOT" -> table.deleteNot(this.whereColumn, this.whereValue) > 0;
-                default -> table.truncate();
-            };
+            if (this.condition == null) {
+                return table.truncate();
+            }
+            return table.delete(this.condition) > 0;
         }
 
         @Override
         public String toString() {
-            StringBuilder query = new StringBuilder("SELECT * FROM ").append(this.tableName);
-            if (!this.whereOperator.isEmpty()) {
-                query.append(" WHERE ")
-                        .append(this.whereColumn)
-                        .append(" ").append(this.whereOperator).append(" ");
-                if (this.whereValue == null) {
-                    query.append("NULL");
-                } else {
-                    query.append("'").append(((String) this.whereValue).replace("'", "\\'")).append("'");
-                }
+            StringBuilder query = new StringBuilder("SELECT ")
+                    .append(this.columns == null ? "*" : String.join(", ", this.columns))
+                    .append(" FROM ").append(this.tableName);
+            if (this.condition != null) {
+                query.append(" WHERE ").append(this.condition);
+            }
+            if (this.groupColumns.length > 0) {
+                query.append(" GROUP BY ").append(String.join(", ", this.groupColumns));
+            }
+            if (!this.orders.isEmpty()) {
+                query.append(this.orders.stream()
+                        .map(order -> order.ascending() ? order.column() : order.column() + " DESC")
+                        .collect(Collectors.joining(", ", " ORDER BY ", "")));
+            }
+            if (this.limit >= 0) {
+                query.append(" LIMIT ").append(this.limit);
+            }
+            if (this.offset > 0) {
+                query.append(" OFFSET ").append(this.offset);
             }
             return query.toString();
         }
@@ -267,6 +542,12 @@ public class DBMS implements Closeable {
 
     @Override
     public void close() throws IOException {
+        synchronized (this) {
+            if (this.pageWriter != null) {
+                this.pageWriter.close();
+                this.pageWriter = null;
+            }
+        }
         this.getBufferManager().close();
         this.getFilePool().close();
     }
@@ -1,7 +1,6 @@
 package MyDBMS;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.stream.Collectors;
@@ -9,6 +8,7 @@ import java.util.stream.Collectors;
 public class Dictionary {
     public static final String TABLE_DICTIONARY = ".table";
     public static final String ATTRIBUTE_DICTIONARY = ".attribute";
+    public static final String INDEX_DICTIONARY = ".index";
 
     private final HashMap<String, Table> tables;
 
@@ -22,9 +22,11 @@ public class Dictionary {
 
         Table attributeTable = this.addDefaultAttributeTable();
         Table tableTable = this.addDefaultTableTable();
+        Table indexTable = this.addDefaultIndexTable();
 
         HashMap<String, ArrayList<Column>> attributesByTable = this.collectAttributes(attributeTable);
         this.registerTables(tableTable, attributesByTable);
+        this.registerIndexes(indexTable);
     }
 
     private Table addDefaultAttributeTable() {
@@ -32,9 +34,9 @@ public class Dictionary {
                 new Column(Column.DataType.VARCHAR, "table", 255, true),
                 new Column(Column.DataType.VARCHAR, "name", 255, true),
                 new Column(Column.DataType.CHAR, "type", 1, true),
-                new Column(Column.DataType.CHAR, "size", 2, true),
+                new Column(Column.DataType.INT, "size", 0, true),
                 new Column(Column.DataType.CHAR, "notnull", 1, true),
-                new Column(Column.DataType.CHAR, "position", 2, true)
+                new Column(Column.DataType.INT, "position", 0, true)
         });
         this.tables.put(table.getTableName(), table);
         return table;
@@ -44,12 +46,22 @@ public class Dictionary {
         Table table = new Table(TABLE_DICTIONARY, new Column[]{
                 new Column(Column.DataType.VARCHAR, "name", 255, true),
                 new Column(Column.DataType.VARCHAR, "primary_key", 255),
-                new Column(Column.DataType.CHAR, "nattrs", 2, true)
+                new Column(Column.DataType.INT, "nattrs", 0, true)
         }, "name");
         this.tables.put(table.getTableName(), table);
         return table;
     }
 
+    private Table addDefaultIndexTable() {
+        Table table = new Table(INDEX_DICTIONARY, new Column[]{
+                new Column(Column.DataType.VARCHAR, "table", 255, true),
+                new Column(Column.DataType.VARCHAR, "column", 255, true),
+                new Column(Column.DataType.CHAR, "type", 1, true)
+        });
+        this.tables.put(table.getTableName(), table);
+        return table;
+    }
+
     private HashMap<String, ArrayList<Column>> collectAttributes(Table attributeTable) {
         return attributeTable
                 .getAllRecords()
@@ -60,7 +72,7 @@ public class Dictionary {
                                 record -> new Column(
                                         Column.DataType.values()[record.getChar("type").getBytes()[0]],
                                         record.getVarchar("name"),
-                                        ByteBuffer.wrap(record.getChar("size").getBytes()).getShort(),
+                                        record.getInt("size"),
                                         record.getChar("notnull").getBytes()[0] == 1
                                 ),
                                 Collectors.toCollection(ArrayList::new)
@@ -82,6 +94,21 @@ public class Dictionary {
         );
     }
 
+    private void registerIndexes(Table indexTable) {
+        indexTable.getAllRecords().forEach(record -> {
+            Table table = this.tables.get(record.getVarchar("table"));
+            if (table != null) {
+                Index index = Index.Type.values()[record.getChar("type").getBytes()[0]].create(table, record.getVarchar("column"));
+                table.addIndex(index);
+                try {
+                    index.open();
+                } catch (IOException e) {
+                    // lookups build it again, inserts fail until then
+                }
+            }
+        });
+    }
+
     private void addTable(Table table) {
         this.tables.put(table.getTableName(), table);
 
@@ -89,7 +116,7 @@ public class Dictionary {
                 new Record(this.getTable(TABLE_DICTIONARY))
                         .setVarchar("name", table.getTableName())
                         .setVarchar("primary_key", table.getPrimaryColumn())
-                        .setChar("nattrs", new String(ByteBuffer.allocate(2).putShort((short) table.getColumns().length).array()))
+                        .setInt("nattrs", table.getColumns().length)
         );
 
         Column[] columns = table.getColumns();
@@ -100,9 +127,9 @@ public class Dictionary {
                             .setVarchar("table", table.getTableName())
                             .setVarchar("name", column.getName())
                             .setChar("type", new String(new byte[]{(byte) column.getType().ordinal()}))
-                            .setChar("size", new String(ByteBuffer.allocate(2).putShort((short) column.getSize()).array()))
+                            .setInt("size", column.getSize())
                             .setChar("notnull", new String(new byte[]{(byte) (column.isNotnull() ? 1 : 0)}))
-                            .setChar("position", new String(ByteBuffer.allocate(2).putShort((short) index).array()))
+                            .setInt("position", index)
             );
         }
     }
@@ -119,6 +146,29 @@ public class Dictionary {
         return table;
     }
 
+    public Index createIndex(String tableName, String column, Index.Type type) {
+        Table table = this.getTable(tableName);
+        if (table == null) {
+            throw new IllegalArgumentException("Table [" + tableName + "] does not exists");
+        }
+        Index index = type.create(table, column);
+        table.addIndex(index);
+        try {
+            index.rebuild();
+        } catch (IOException e) {
+            table.removeIndex(column);
+            throw new IllegalStateException("Failed to build index on [" + tableName + "." + column + "]", e);
+        }
+
+        this.getTable(INDEX_DICTIONARY).addRecord(
+                new Record(this.getTable(INDEX_DICTIONARY))
+                        .setVarchar("table", tableName)
+                        .setVarchar("column", column)
+                        .setChar("type", new String(new byte[]{(byte) type.ordinal()}))
+        );
+        return index;
+    }
+
     public Table getTable(String tableName) {
         return this.tables.get(tableName);
     }
@@ -127,9 +177,11 @@ public class Dictionary {
         this.tables.remove(tableName).forceFlush();
         this.getTable(TABLE_DICTIONARY).destroy(tableName);
         this.getTable(ATTRIBUTE_DICTIONARY).delete("table", tableName);
+        this.getTable(INDEX_DICTIONARY).delete("table", tableName);
     }
 
     public void flush() throws IOException {
+        this.getTable(INDEX_DICTIONARY).flush();
         this.getTable(ATTRIBUTE_DICTIONARY).flush();
         this.getTable(TABLE_DICTIONARY).flush();
     }
@@ -0,0 +1,43 @@
+package MyDBMS;
+
+import java.util.function.Predicate;
+
+public interface EvictionPolicy {
+
+    enum Type {
+        MRU("MRU"), LRU("LRU"), CLOCK("CLOCK"), LRU_K("LRU-K"), TWO_QUEUE("2Q");
+
+        private final String value;
+
+        Type(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return this.value;
+        }
+
+        public EvictionPolicy create(int capacity) {
+            return switch (this) {
+                case MRU -> new MruPolicy();
+                case LRU -> new LruPolicy();
+                case CLOCK -> new ClockPolicy(capacity);
+                case LRU_K -> new LruKPolicy(2, capacity);
+                case TWO_QUEUE -> new TwoQueuePolicy(capacity);
+            };
+        }
+    }
+
+    void onLoad(PageId pageId);
+
+    void onAccess(PageId pageId);
+
+    void onRemove(PageId pageId);
+
+    default PageId evict() {
+        return this.evict(pageId -> true);
+    }
+
+    // returns the best candidate accepted by evictable and forgets it, or null if there is none
+    PageId evict(Predicate<PageId> evictable);
+}
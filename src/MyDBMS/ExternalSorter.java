@@ -0,0 +1,242 @@
+package MyDBMS;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// sorts records that may not fit in memory
+// runs sorted within the memory budget are spilled to temporary files and merged back as a stream
+// records that compare equal keep their input order
+public class ExternalSorter {
+    // rough size of a record object beyond its encoded bytes
+    static final int RECORD_OVERHEAD = 64;
+
+    private final Table table;
+    private final Comparator<Record> comparator;
+    private final long memoryBudget;
+    // number of runs merged at once, each one holds a block in memory and an open file,
+    // leaving a file for the merged run and one for the table being read
+    static final int MAX_FAN_IN = FilePool.MAX_OPEN_FILE - 2;
+
+    private final int fanIn;
+
+    public ExternalSorter(Table table, Comparator<Record> comparator, long memoryBudget) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive");
+        }
+        this.table = table;
+        this.comparator = comparator;
+        this.memoryBudget = memoryBudget;
+        this.fanIn = (int) Math.max(2, Math.min(MAX_FAN_IN, memoryBudget / SpillFile.BLOCK_SIZE));
+    }
+
+    static long estimateSize(Record record) {
+        return record.getEncodedLength() + RECORD_OVERHEAD;
+    }
+
+    // estimated size of the largest record the table can hold
+    private long getMaxRecordSize() {
+        Column[] columns = this.table.getColumns();
+        long size = (columns.length + 7) / 8 + RECORD_OVERHEAD;
+        for (Column column : columns) {
+            size += column.getType().isVariableLength() ? 4 + column.getSize() : column.getSize();
+        }
+        return size;
+    }
+
+    // the first limit records in order, kept in a bounded heap when that many records surely fit in the budget
+    public Stream<Record> sort(Stream<Record> records, long limit) throws IOException {
+        if (limit <= this.memoryBudget / this.getMaxRecordSize()) {
+            return this.top(records, (int) limit).stream();
+        }
+        return this.sort(records).limit(limit);
+    }
+
+    // the stream must be consumed to the end or closed to delete the temporary files
+    public Stream<Record> sort(Stream<Record> records) throws IOException {
+        List<SpillFile> runs = new ArrayList<>();
+        List<Record> run = new ArrayList<>();
+        long runSize = 0;
+        try {
+            Iterator<Record> iterator = records.iterator();
+            while (iterator.hasNext()) {
+                Record record = iterator.next();
+                long size = estimateSize(record);
+                if (!run.isEmpty() && runSize + size > this.memoryBudget) {
+                    runs.add(this.spill(run));
+                    run.clear();
+                    runSize = 0;
+                }
+                run.add(record);
+                runSize += size;
+            }
+            if (runs.isEmpty()) {
+                // everything fit in memory
+                run.sort(this.comparator);
+                return run.stream();
+            }
+            runs.add(this.spill(run));
+            run.clear();
+
+            while (runs.size() > this.fanIn) {
+                runs = this.mergePass(runs);
+            }
+        } catch (IOException | RuntimeException e) {
+            close(runs);
+            throw e;
+        }
+        return this.merge(runs);
+    }
+
+    // the first n records in order, only n records are held while the input is read
+    public List<Record> top(Stream<Record> records, int n) {
+        if (n == 0) {
+            return new ArrayList<>();
+        }
+        // the heap root is the record to drop next, the latest of equal records goes first
+        PriorityQueue<Ordered> heap = new PriorityQueue<>(Comparator.<Ordered>reverseOrder());
+        long sequence = 0;
+        Iterator<Record> iterator = records.iterator();
+        while (iterator.hasNext()) {
+            Ordered entry = new Ordered(iterator.next(), sequence++, this.comparator);
+            if (heap.size() < n) {
+                heap.add(entry);
+            }
+            else if (entry.compareTo(heap.peek()) < 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+        List<Ordered> sorted = new ArrayList<>(heap);
+        Collections.sort(sorted);
+        List<Record> result = new ArrayList<>(sorted.size());
+        for (Ordered entry : sorted) {
+            result.add(entry.record());
+        }
+        return result;
+    }
+
+    private record Ordered(Record record, long sequence, Comparator<Record> comparator) implements Comparable<Ordered> {
+        @Override
+        public int compareTo(Ordered other) {
+            int compare = this.comparator.compare(this.record, other.record);
+            return compare != 0 ? compare : Long.compare(this.sequence, other.sequence);
+        }
+    }
+
+    private SpillFile spill(List<Record> run) throws IOException {
+        run.sort(this.comparator);
+        SpillFile file = new SpillFile(this.table);
+        try {
+            for (Record record : run) {
+                file.write(record);
+            }
+            file.flush();
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+        return file;
+    }
+
+    // merges neighbouring runs so the merged runs stay in input order
+    private List<SpillFile> mergePass(List<SpillFile> runs) throws IOException {
+        List<SpillFile> merged = new ArrayList<>();
+        try {
+            for (int start = 0; start < runs.size(); start += this.fanIn) {
+                List<SpillFile> group = runs.subList(start, Math.min(runs.size(), start + this.fanIn));
+                SpillFile file = new SpillFile(this.table);
+                merged.add(file);
+                Iterator<Record> iterator = this.mergeIterator(group);
+                while (iterator.hasNext()) {
+                    file.write(iterator.next());
+                }
+                file.flush();
+            }
+        } catch (UncheckedIOException e) {
+            close(merged);
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            close(merged);
+            throw e;
+        }
+        close(runs);
+        return merged;
+    }
+
+    private Stream<Record> merge(List<SpillFile> runs) throws IOException {
+        Iterator<Record> merged = this.mergeIterator(runs);
+        Iterator<Record> iterator = new Iterator<>() {
+            private boolean closed = false;
+
+            @Override
+            public boolean hasNext() {
+                if (merged.hasNext()) {
+                    return true;
+                }
+                if (!this.closed) {
+                    this.closed = true;
+                    close(runs);
+                }
+                return false;
+            }
+
+            @Override
+            public Record next() {
+                return merged.next();
+            }
+        };
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> close(runs));
+    }
+
+    // k-way merge, equal records are taken from the earlier run first
+    private Iterator<Record> mergeIterator(List<SpillFile> runs) throws IOException {
+        PriorityQueue<Head> heads = new PriorityQueue<>();
+        for (int i = 0; i < runs.size(); i++) {
+            Iterator<Record> run = runs.get(i).read();
+            if (run.hasNext()) {
+                heads.add(new Head(run.next(), i, run, this.comparator));
+            }
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public Record next() {
+                Head head = heads.poll();
+                if (head == null) {
+                    throw new NoSuchElementException();
+                }
+                if (head.run().hasNext()) {
+                    heads.add(new Head(head.run().next(), head.index(), head.run(), head.comparator()));
+                }
+                return head.record();
+            }
+        };
+    }
+
+    private record Head(Record record, int index, Iterator<Record> run, Comparator<Record> comparator) implements Comparable<Head> {
+        @Override
+        public int compareTo(Head other) {
+            int compare = this.comparator.compare(this.record, other.record);
+            return compare != 0 ? compare : Integer.compare(this.index, other.index);
+        }
+    }
+
+    private static void close(List<SpillFile> files) {
+        for (SpillFile file : files) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                // the file is left behind and overwritten when its name comes up again
+            }
+        }
+    }
+}
@@ -2,37 +2,239 @@ package MyDBMS;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 public class FilePool implements Closeable {
     public static final int MAX_OPEN_FILE = 10;
+    public static final long GROUP_COMMIT_WINDOW = TimeUnit.MICROSECONDS.toNanos(200);
+    public static final int GROUP_COMMIT_SIZE = 16;
+    public static final long MAPPED_SEGMENT_SIZE = 64L << 20;
 
-    private final LinkedHashMap<String, RandomAccessFile> pool;
+    public enum Durability {
+        // every write is on the device when it returns
+        SYNC("SYNC"),
+        // every write is on the device when it returns, concurrent writes share one sync
+        GROUP_COMMIT("GROUP COMMIT"),
+        // writes are left to the OS until sync() or close()
+        BUFFERED("BUFFERED");
+
+        private final String value;
+
+        Durability(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return this.value;
+        }
+    }
+
+    private final LinkedHashMap<String, FileChannel> pool;
+    private final long groupCommitWindow;
+    private final int groupCommitSize;
+    private volatile Durability durability;
+    private volatile GroupCommit groupCommit;
+    private final HashMap<String, MappedFile> mappings;
+    private volatile boolean memoryMapped;
+    // files of intermediate results, they are never synced whatever the durability mode
+    private final Set<String> temporaryFiles;
 
     public FilePool() {
+        this(Durability.SYNC);
+    }
+
+    public FilePool(Durability durability) {
+        this(durability, GROUP_COMMIT_WINDOW, GROUP_COMMIT_SIZE);
+    }
+
+    // a group commit waits at most groupCommitWindow nanoseconds for groupCommitSize writers to join
+    public FilePool(Durability durability, long groupCommitWindow, int groupCommitSize) {
         this.pool = new LinkedHashMap<>(MAX_OPEN_FILE);
+        this.groupCommitWindow = groupCommitWindow;
+        this.groupCommitSize = groupCommitSize;
+        this.durability = durability;
+        this.groupCommit = new GroupCommit(groupCommitWindow, groupCommitSize);
+        this.mappings = new HashMap<>();
+        this.memoryMapped = false;
+        this.temporaryFiles = new HashSet<>();
+    }
+
+    public Durability getDurability() {
+        return this.durability;
+    }
+
+    public synchronized void setDurability(Durability durability) throws IOException {
+        if (this.durability == durability) {
+            return;
+        }
+        // channels are reopened with the options of the new mode
+        this.close();
+        this.durability = durability;
+        this.groupCommit = new GroupCommit(this.groupCommitWindow, this.groupCommitSize);
+    }
+
+    // an empty file that is written without syncing until it is deleted, for data that does not outlive a query
+    public synchronized void createTemporary(String fileName) throws IOException {
+        this.delete(fileName);
+        this.temporaryFiles.add(fileName);
+    }
+
+    public synchronized boolean isTemporary(String fileName) {
+        return this.temporaryFiles.contains(fileName);
+    }
+
+    public long getGroupCommitSyncCount() {
+        return this.groupCommit.getSyncCount();
+    }
+
+    public boolean isMemoryMapped() {
+        return this.memoryMapped;
+    }
+
+    // lets read-mostly scans look at file contents without copying them into the buffer
+    public synchronized void setMemoryMapped(boolean memoryMapped) {
+        this.memoryMapped = memoryMapped;
+        if (!memoryMapped) {
+            this.mappings.clear();
+        }
+    }
+
+    // returns a read-only view of the file region, or null if it is past the end of file
+    public ByteBuffer map(String fileName, long offset, int length) throws IOException {
+        MappedFile mappedFile;
+        synchronized (this) {
+            if (!this.memoryMapped) {
+                throw new IllegalStateException("Memory mapping is disabled");
+            }
+            mappedFile = this.mappings.computeIfAbsent(fileName, key -> new MappedFile(MAPPED_SEGMENT_SIZE));
+        }
+        while (true) {
+            try {
+                return mappedFile.slice(this.getChannel(fileName), offset, length);
+            } catch (ClosedChannelException e) {
+                this.retryOnClosedChannel(e);
+            }
+        }
     }
 
     public byte[] read(String fileName, long offset, int length) throws IOException {
         byte[] payload = new byte[length];
-        RandomAccessFile file = this.getFile(fileName);
-        file.seek(offset);
-        if (file.read(payload) != length) {
-            throw new IOException("End of file");
-        }
+        this.read(fileName, offset, ByteBuffer.wrap(payload));
         return payload;
     }
 
+    // fills the remaining space of destination, which may be a direct buffer
+    public void read(String fileName, long offset, ByteBuffer destination) throws IOException {
+        int start = destination.position();
+        while (true) {
+            FileChannel channel = this.getChannel(fileName);
+            try {
+                long position = offset + destination.position() - start;
+                while (destination.hasRemaining()) {
+                    int read = channel.read(destination, position);
+                    if (read < 0) {
+                        throw new IOException("End of file");
+                    }
+                    position += read;
+                }
+                return;
+            } catch (ClosedChannelException e) {
+                this.retryOnClosedChannel(e);
+            }
+        }
+    }
+
     public void write(String fileName, long offset, byte[] payload) throws IOException {
-        RandomAccessFile file = this.getFile(fileName);
-        file.seek(offset);
-        file.write(payload);
+        this.write(fileName, offset, ByteBuffer.wrap(payload));
+    }
+
+    public void write(String fileName, long offset, ByteBuffer source) throws IOException {
+        GroupCommit groupCommit = this.durability == Durability.GROUP_COMMIT && !this.isTemporary(fileName) ? this.groupCommit : null;
+        if (groupCommit == null) {
+            this.writeFully(fileName, offset, source);
+            return;
+        }
+        groupCommit.begin();
+        FileChannel channel;
+        try {
+            channel = this.writeFully(fileName, offset, source);
+        } catch (IOException | RuntimeException e) {
+            groupCommit.abort();
+            throw e;
+        }
+        groupCommit.commit(channel);
+    }
+
+    private FileChannel writeFully(String fileName, long offset, ByteBuffer source) throws IOException {
+        int start = source.position();
+        while (true) {
+            FileChannel channel = this.getChannel(fileName);
+            try {
+                long position = offset + source.position() - start;
+                while (source.hasRemaining()) {
+                    position += channel.write(source, position);
+                }
+                return channel;
+            } catch (ClosedChannelException e) {
+                this.retryOnClosedChannel(e);
+            }
+        }
     }
 
-    public void delete(String fileName) throws IOException {
+    private void retryOnClosedChannel(ClosedChannelException e) throws ClosedChannelException {
+        // the channel was closed by another thread evicting it from the pool, so it is reopened,
+        // unless this thread was interrupted
+        if (e instanceof ClosedByInterruptException || Thread.currentThread().isInterrupted()) {
+            throw e;
+        }
+    }
+
+    public long getFileSize(String fileName) throws IOException {
+        while (true) {
+            try {
+                return this.getChannel(fileName).size();
+            } catch (ClosedChannelException e) {
+                this.retryOnClosedChannel(e);
+            }
+        }
+    }
+
+    // forces every write so far to the device, whatever the durability mode
+    public void sync() throws IOException {
+        List<FileChannel> channels = new ArrayList<>();
+        synchronized (this) {
+            for (Map.Entry<String, FileChannel> entry : this.pool.entrySet()) {
+                if (!this.temporaryFiles.contains(entry.getKey())) {
+                    channels.add(entry.getValue());
+                }
+            }
+        }
+        for (FileChannel channel : channels) {
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                // forced when it was closed
+            }
+        }
+    }
+
+    public synchronized void delete(String fileName) throws IOException {
+        this.mappings.remove(fileName);
+        this.temporaryFiles.remove(fileName);
         if (this.pool.containsKey(fileName)) {
             this.pool.remove(fileName).close();
         }
@@ -42,26 +244,37 @@ public class FilePool implements Closeable {
         }
     }
 
-    public int size() {
+    public synchronized int size() {
         return this.pool.size();
     }
 
-    private RandomAccessFile getFile(String fileName) throws IOException {
-        RandomAccessFile file = this.pool.remove(fileName);
-        if (file == null) {
+    private synchronized FileChannel getChannel(String fileName) throws IOException {
+        FileChannel channel = this.pool.remove(fileName);
+        if (channel == null || !channel.isOpen()) {
             if (this.pool.size() >= MAX_OPEN_FILE) {
-                this.pool.remove(this.pool.keySet().iterator().next()).close();
+                String eldest = this.pool.keySet().iterator().next();
+                this.closeChannel(eldest, this.pool.remove(eldest));
             }
-            file = new RandomAccessFile(fileName, "rwd");
+            channel = this.durability == Durability.SYNC && !this.temporaryFiles.contains(fileName)
+                    ? FileChannel.open(Path.of(fileName), StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.DSYNC)
+                    : FileChannel.open(Path.of(fileName), StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        }
+        this.pool.put(fileName, channel);
+        return channel;
+    }
+
+    private void closeChannel(String fileName, FileChannel channel) throws IOException {
+        // writes that are not synced yet would otherwise be missed by a later sync()
+        if (this.durability != Durability.SYNC && !this.temporaryFiles.contains(fileName) && channel.isOpen()) {
+            channel.force(false);
         }
-        this.pool.put(fileName, file);
-        return file;
+        channel.close();
     }
 
     @Override
-    public void close() throws IOException {
-        for (RandomAccessFile file : this.pool.values()) {
-            file.close();
+    public synchronized void close() throws IOException {
+        for (Map.Entry<String, FileChannel> entry : this.pool.entrySet()) {
+            this.closeChannel(entry.getKey(), entry.getValue());
         }
         this.pool.clear();
     }
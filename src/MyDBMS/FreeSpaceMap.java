@@ -0,0 +1,140 @@
+package MyDBMS;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class FreeSpaceMap {
+    public static final String FILE_EXTENSION = ".fsm";
+    // free space is kept in 16 byte steps so one byte describes a page
+    private static final int CATEGORY_SIZE = 16;
+    private static final int MAX_CATEGORY = 255;
+
+    private final Table table;
+    private final String fileName;
+
+    public FreeSpaceMap(Table table) {
+        this.table = table;
+        this.fileName = table.getTableName() + FILE_EXTENSION;
+    }
+
+    public String getFileName() {
+        return this.fileName;
+    }
+
+    public synchronized int getPageCount() throws IOException {
+        BufferPage header = this.getHeader();
+        try {
+            return header.getBuffer().getInt(0);
+        } finally {
+            header.unpin();
+        }
+    }
+
+    // returns the first page with at least size bytes free, or -1 if a page has to be appended
+    public synchronized int findPage(int size) throws IOException {
+        int category = (size + CATEGORY_SIZE - 1) / CATEGORY_SIZE;
+        if (category > MAX_CATEGORY) {
+            return -1;
+        }
+        int pageCount = this.getPageCount();
+        for (int mapIndex = 0; mapIndex * BufferPage.PAGE_SIZE < pageCount; mapIndex++) {
+            BufferPage mapPage = this.getMapPage(mapIndex);
+            mapPage.readLock();
+            try {
+                byte[] categories = mapPage.getPayload();
+                int entries = Math.min(BufferPage.PAGE_SIZE, pageCount - mapIndex * BufferPage.PAGE_SIZE);
+                for (int i = 0; i < entries; i++) {
+                    if ((categories[i] & 0xFF) >= category) {
+                        return mapIndex * BufferPage.PAGE_SIZE + i;
+                    }
+                }
+            } finally {
+                mapPage.readUnlock();
+                mapPage.unpin();
+            }
+        }
+        return -1;
+    }
+
+    public synchronized void update(int pageIndex, int freeSpaceSize) throws IOException {
+        BufferPage mapPage = this.getMapPage(pageIndex / BufferPage.PAGE_SIZE);
+        mapPage.writeLock();
+        try {
+            mapPage.getPayload()[pageIndex % BufferPage.PAGE_SIZE] = (byte) Math.min(MAX_CATEGORY, freeSpaceSize / CATEGORY_SIZE);
+            mapPage.markDirty();
+        } finally {
+            mapPage.writeUnlock();
+            mapPage.unpin();
+        }
+        if (pageIndex >= this.getPageCount()) {
+            this.setPageCount(pageIndex + 1);
+        }
+    }
+
+    // recomputes the map from the table pages, used when the map is missing or out of date
+    public synchronized void rebuild() throws IOException {
+        this.setPageCount(0);
+        BufferManager bufferManager = DBMS.getInstance().getBufferManager();
+        for (int i = 0; ; i++) {
+            BufferPage page;
+            try {
+                page = bufferManager.getPage(this.table.getTableName(), i);
+            } catch (IOException e) {
+                // end of file
+                return;
+            }
+            int freeSpaceSize;
+            page.readLock();
+            try {
+                freeSpaceSize = new SlottedPage(this.table, page.getBuffer()).getFreeSpaceSize();
+            } finally {
+                page.readUnlock();
+                page.unpin();
+            }
+            this.update(i, freeSpaceSize);
+        }
+    }
+
+    private BufferPage getHeader() throws IOException {
+        try {
+            return DBMS.getInstance().getBufferManager().getPage(this.fileName, 0);
+        } catch (IOException e) {
+            // map does not exist yet
+            this.rebuild();
+            return DBMS.getInstance().getBufferManager().getPage(this.fileName, 0);
+        }
+    }
+
+    private void setPageCount(int pageCount) throws IOException {
+        BufferPage header = this.getOrCreatePage(0);
+        header.writeLock();
+        try {
+            ByteBuffer.wrap(header.getPayload()).putInt(0, pageCount);
+            header.markDirty();
+        } finally {
+            header.writeUnlock();
+            header.unpin();
+        }
+    }
+
+    private BufferPage getMapPage(int mapIndex) throws IOException {
+        return this.getOrCreatePage(mapIndex + 1);
+    }
+
+    private BufferPage getOrCreatePage(int index) throws IOException {
+        BufferManager bufferManager = DBMS.getInstance().getBufferManager();
+        try {
+            return bufferManager.getPage(this.fileName, index);
+        } catch (IOException e) {
+            return bufferManager.getEmptyPage(this.fileName, index);
+        }
+    }
+
+    public void flush() throws IOException {
+        DBMS.getInstance().getBufferManager().flush(this.fileName);
+    }
+
+    public void forceFlush() {
+        DBMS.getInstance().getBufferManager().forceFlush(this.fileName);
+    }
+}
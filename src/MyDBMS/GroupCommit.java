@@ -0,0 +1,124 @@
+package MyDBMS;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+class GroupCommit {
+    private final long windowNanos;
+    private final int batchSize;
+    private final LinkedHashSet<FileChannel> pending;
+    // batches are numbered, every caller waits until the batch it joined is synced
+    private long collecting;
+    private long durable;
+    private int waiting;
+    // callers between begin() and commit(), a leader never waits for more than these
+    private int writers;
+    private boolean leading;
+    private long failedBatch;
+    private IOException failure;
+    private long syncCount;
+
+    public GroupCommit(long windowNanos, int batchSize) {
+        this.windowNanos = windowNanos;
+        this.batchSize = Math.max(1, batchSize);
+        this.pending = new LinkedHashSet<>();
+        this.collecting = 1;
+        this.durable = 0;
+        this.failedBatch = 0;
+    }
+
+    public synchronized void begin() {
+        this.writers++;
+    }
+
+    public synchronized void abort() {
+        this.writers--;
+        this.notifyAll();
+    }
+
+    // blocks until every write issued to channel before this call is on the device
+    public void commit(FileChannel channel) throws IOException {
+        long batch;
+        List<FileChannel> channels;
+        synchronized (this) {
+            this.pending.add(channel);
+            batch = this.collecting;
+            this.writers--;
+            if (++this.waiting >= this.batchSize || this.writers == 0) {
+                this.notifyAll();
+            }
+            while (this.durable < batch && this.leading) {
+                this.await();
+            }
+            if (this.durable >= batch) {
+                this.rethrow(batch);
+                return;
+            }
+
+            // no sync in progress, this caller syncs the batch on behalf of everyone who joined it
+            this.leading = true;
+            long deadline = System.nanoTime() + this.windowNanos;
+            long remaining;
+            while (this.waiting < this.batchSize && this.writers > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                } catch (InterruptedException e) {
+                    // the batch is synced anyway so followers are not left waiting
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            channels = new ArrayList<>(this.pending);
+            this.pending.clear();
+            this.waiting = 0;
+            this.collecting++;
+        }
+
+        IOException failure = null;
+        for (FileChannel pendingChannel : channels) {
+            try {
+                pendingChannel.force(false);
+            } catch (ClosedChannelException e) {
+                // forced by FilePool when it was closed
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        synchronized (this) {
+            this.durable = batch;
+            this.syncCount++;
+            if (failure != null) {
+                this.failedBatch = batch;
+                this.failure = failure;
+            }
+            this.leading = false;
+            this.notifyAll();
+            this.rethrow(batch);
+        }
+    }
+
+    private void await() throws IOException {
+        try {
+            this.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for group commit", e);
+        }
+    }
+
+    private void rethrow(long batch) throws IOException {
+        if (this.failedBatch == batch) {
+            throw new IOException("Group commit failed", this.failure);
+        }
+    }
+
+    public synchronized long getSyncCount() {
+        return this.syncCount;
+    }
+}
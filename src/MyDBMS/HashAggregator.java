@@ -0,0 +1,230 @@
+package MyDBMS;
+
+import java.io.IOException;
+import java.util.*;
+
+// hash aggregate over projected rows
+// groups are kept in memory within the budget, rows of groups that do not fit are partitioned into spill files
+// by their hash and each partition is aggregated on its own afterwards
+public class HashAggregator {
+    static final int PARTITIONS = 16;
+    // every level partitions on the next 4 bits of the hash, the last one keeps all its groups in memory
+    private static final int MAX_LEVEL = 8;
+    // rough size of a group entry beyond its key values
+    private static final int GROUP_OVERHEAD = 96;
+    private static final int ACCUMULATOR_SIZE = 48;
+
+    // the columns of the input rows, also used to spill them
+    private final Table schema;
+    private final String[] inputColumns;
+    private final int[] groupIndexes;
+    private final Aggregate[] aggregates;
+    // -1 for COUNT(*)
+    private final int[] aggregateIndexes;
+    private final String[] outputColumns;
+    private final long memoryBudget;
+
+    public HashAggregator(Table table, String[] groupColumns, Aggregate[] aggregates, long memoryBudget) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive");
+        }
+        List<String> inputColumns = new ArrayList<>();
+        for (String column : groupColumns) {
+            if (!inputColumns.contains(column)) {
+                inputColumns.add(column);
+            }
+        }
+        for (Aggregate aggregate : aggregates) {
+            if (aggregate.column() != null && !inputColumns.contains(aggregate.column())) {
+                inputColumns.add(aggregate.column());
+            }
+        }
+        Table schema = table.project(inputColumns.toArray(String[]::new));
+        for (Aggregate aggregate : aggregates) {
+            if (aggregate.function() == Aggregate.Function.SUM || aggregate.function() == Aggregate.Function.AVG) {
+                Column.DataType type = schema.getColumn(aggregate.column()).getType();
+                if (type != Column.DataType.INT && type != Column.DataType.BIGINT && type != Column.DataType.DOUBLE) {
+                    throw new IllegalArgumentException("Column [" + aggregate.column() + "] is not numeric");
+                }
+            }
+        }
+
+        this.schema = schema;
+        this.inputColumns = inputColumns.toArray(String[]::new);
+        this.groupIndexes = Arrays.stream(groupColumns).mapToInt(inputColumns::indexOf).toArray();
+        this.aggregates = aggregates.clone();
+        this.aggregateIndexes = Arrays.stream(aggregates)
+                .mapToInt(aggregate -> aggregate.column() == null ? -1 : inputColumns.indexOf(aggregate.column()))
+                .toArray();
+        this.outputColumns = new String[groupColumns.length + aggregates.length];
+        System.arraycopy(groupColumns, 0, this.outputColumns, 0, groupColumns.length);
+        for (int i = 0; i < aggregates.length; i++) {
+            this.outputColumns[groupColumns.length + i] = aggregates[i].toString();
+        }
+        this.memoryBudget = memoryBudget;
+    }
+
+    // the columns the input rows must have, in this order
+    public String[] getInputColumns() {
+        return this.inputColumns.clone();
+    }
+
+    // a row of group values followed by aggregate values for every group
+    // without group columns there is exactly one row, even for no input
+    public List<Row> aggregate(Iterator<Row> rows) throws IOException {
+        List<Row> output = new ArrayList<>();
+        this.aggregate(rows, 0, output);
+        if (this.groupIndexes.length == 0 && output.isEmpty()) {
+            output.add(this.toRow(List.of(), this.newAccumulators()));
+        }
+        return output;
+    }
+
+    private void aggregate(Iterator<Row> rows, int level, List<Row> output) throws IOException {
+        Map<List<Object>, Accumulator[]> groups = new LinkedHashMap<>();
+        long memory = 0;
+        SpillFile[] partitions = new SpillFile[PARTITIONS];
+        try {
+            while (rows.hasNext()) {
+                Row row = rows.next();
+                List<Object> key = this.getKey(row);
+                Accumulator[] accumulators = groups.get(key);
+                if (accumulators == null) {
+                    long size = this.estimateSize(key);
+                    if (!groups.isEmpty() && memory + size > this.memoryBudget && level < MAX_LEVEL) {
+                        // the group does not fit, its rows wait in a partition
+                        int partition = getPartition(key, level);
+                        if (partitions[partition] == null) {
+                            partitions[partition] = new SpillFile(this.schema);
+                        }
+                        partitions[partition].write(row);
+                        continue;
+                    }
+                    accumulators = this.newAccumulators();
+                    groups.put(key, accumulators);
+                    memory += size;
+                }
+                for (int i = 0; i < accumulators.length; i++) {
+                    accumulators[i].add(this.aggregateIndexes[i] < 0 ? null : row.getValue(this.aggregateIndexes[i]));
+                }
+            }
+            groups.forEach((key, accumulators) -> output.add(this.toRow(key, accumulators)));
+            groups.clear();
+
+            for (SpillFile partition : partitions) {
+                if (partition != null) {
+                    this.aggregate(partition.readRows(), level + 1, output);
+                }
+            }
+        } finally {
+            for (SpillFile partition : partitions) {
+                if (partition != null) {
+                    partition.close();
+                }
+            }
+        }
+    }
+
+    static int getPartition(List<Object> key, int level) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return Integer.rotateLeft(hash, level * 4) >>> 28;
+    }
+
+    private List<Object> getKey(Row row) {
+        Object[] values = new Object[this.groupIndexes.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = row.getValue(this.groupIndexes[i]);
+        }
+        return Arrays.asList(values);
+    }
+
+    private long estimateSize(List<Object> key) {
+        long size = GROUP_OVERHEAD + (long) this.aggregates.length * ACCUMULATOR_SIZE;
+        for (Object value : key) {
+            size += value instanceof String string ? 40 + string.length() : 16;
+        }
+        return size;
+    }
+
+    private Accumulator[] newAccumulators() {
+        Accumulator[] accumulators = new Accumulator[this.aggregates.length];
+        for (int i = 0; i < accumulators.length; i++) {
+            Column.DataType type = this.aggregateIndexes[i] < 0 ? null : this.schema.getColumns()[this.aggregateIndexes[i]].getType();
+            accumulators[i] = new Accumulator(this.aggregates[i].function(), type);
+        }
+        return accumulators;
+    }
+
+    private Row toRow(List<Object> key, Accumulator[] accumulators) {
+        Object[] values = new Object[this.outputColumns.length];
+        for (int i = 0; i < key.size(); i++) {
+            values[i] = key.get(i);
+        }
+        for (int i = 0; i < accumulators.length; i++) {
+            values[key.size() + i] = accumulators[i].getResult();
+        }
+        return new Row(this.outputColumns, values);
+    }
+
+    private static final class Accumulator {
+        private final Aggregate.Function function;
+        // null for COUNT(*)
+        private final Column.DataType type;
+        private long count;
+        private long sum;
+        private double doubleSum;
+        private Object extreme;
+
+        Accumulator(Aggregate.Function function, Column.DataType type) {
+            this.function = function;
+            this.type = type;
+        }
+
+        @SuppressWarnings("unchecked")
+        void add(Object value) {
+            if (value == null && this.type != null) {
+                return;
+            }
+            this.count++;
+            switch (this.function) {
+                case MIN, MAX -> {
+                    if (this.extreme == null) {
+                        this.extreme = value;
+                    }
+                    else {
+                        int compare = ((Comparable<Object>) value).compareTo(this.extreme);
+                        if (this.function == Aggregate.Function.MIN ? compare < 0 : compare > 0) {
+                            this.extreme = value;
+                        }
+                    }
+                }
+                case SUM, AVG -> {
+                    if (this.type == Column.DataType.DOUBLE) {
+                        this.doubleSum += (Double) value;
+                    }
+                    else {
+                        this.sum = Math.addExact(this.sum, ((Number) value).longValue());
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        // COUNT is a Long, SUM a Long or a Double like its column, AVG a Double, NULL without values
+        Object getResult() {
+            if (this.function == Aggregate.Function.COUNT) {
+                return this.count;
+            }
+            if (this.count == 0) {
+                return null;
+            }
+            return switch (this.function) {
+                case MIN, MAX -> this.extreme;
+                case SUM -> this.type == Column.DataType.DOUBLE ? (Object) this.doubleSum : (Object) this.sum;
+                case AVG -> (this.type == Column.DataType.DOUBLE ? this.doubleSum : (double) this.sum) / this.count;
+                default -> throw new IllegalStateException();
+            };
+        }
+    }
+}
@@ -0,0 +1,476 @@
+package MyDBMS;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+
+// linear hashing, buckets are split one at a time in order so no directory is needed
+public class HashIndex implements Index {
+    public static final String FILE_EXTENSION = ".hash";
+    private static final int INITIAL_BUCKETS = 4;
+    private static final double FILL_FACTOR = 0.75;
+
+    // an entry holds only the hash and the record id, matches are checked against the record
+    private static final int BUCKET_HEADER_SIZE = 6;
+    private static final int ENTRY_SIZE = 10;
+    static final int ENTRIES_PER_PAGE = (BufferPage.PAGE_SIZE - BUCKET_HEADER_SIZE) / ENTRY_SIZE;
+
+    // page 0 is the meta page, so 0 also marks the end of an overflow chain
+    private static final int NO_PAGE = 0;
+    private static final int LEVEL = 0;
+    private static final int NEXT = 4;
+    private static final int PAGE_COUNT = 8;
+    private static final int FREE_PAGE = 12;
+    private static final int ENTRY_COUNT = 16;
+    // first page of each splitpoint group, bucket pages of a group are allocated together
+    private static final int GROUPS = 24;
+
+    private final Table table;
+    private final String column;
+    private final String fileName;
+
+    public HashIndex(Table table, String column) {
+        this.table = table;
+        this.column = column;
+        this.fileName = table.getTableName() + "." + column + FILE_EXTENSION;
+    }
+
+    @Override
+    public String getColumn() {
+        return this.column;
+    }
+
+    @Override
+    public String getFileName() {
+        return this.fileName;
+    }
+
+    private static int hash(Object value) {
+        int hash = Objects.hashCode(value);
+        // low bits pick the bucket, so spread the high bits down
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int getGroup(int bucket) {
+        return 32 - Integer.numberOfLeadingZeros(bucket / INITIAL_BUCKETS);
+    }
+
+    private static int getFirstBucket(int group) {
+        return group == 0 ? 0 : INITIAL_BUCKETS << (group - 1);
+    }
+
+    private static int getBucket(ByteBuffer meta, int hash) {
+        int buckets = INITIAL_BUCKETS << meta.getInt(LEVEL);
+        int bucket = hash & (buckets - 1);
+        if (bucket < meta.getInt(NEXT)) {
+            // already split in this round
+            bucket = hash & (buckets * 2 - 1);
+        }
+        return bucket;
+    }
+
+    private static int getBucketPage(ByteBuffer meta, int bucket) {
+        int group = getGroup(bucket);
+        return meta.getInt(GROUPS + group * 4) + bucket - getFirstBucket(group);
+    }
+
+    @Override
+    public synchronized List<RecordId> search(Object value) throws IOException {
+        int hash = hash(value);
+        int pageIndex;
+        BufferPage meta = this.getMeta();
+        try {
+            pageIndex = getBucketPage(meta.getBuffer(), getBucket(meta.getBuffer(), hash));
+        } finally {
+            meta.unpin();
+        }
+
+        List<RecordId> result = new ArrayList<>();
+        while (pageIndex != NO_PAGE) {
+            BufferPage page = this.getPage(pageIndex);
+            page.readLock();
+            try {
+                ByteBuffer buffer = page.getBuffer();
+                int count = buffer.getShort(4);
+                for (int i = 0; i < count; i++) {
+                    int offset = BUCKET_HEADER_SIZE + i * ENTRY_SIZE;
+                    if (buffer.getInt(offset) == hash) {
+                        result.add(new RecordId(buffer.getInt(offset + 4), buffer.getShort(offset + 8)));
+                    }
+                }
+                pageIndex = buffer.getInt(0);
+            } finally {
+                page.readUnlock();
+                page.unpin();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void insert(Object value, RecordId recordId) throws IOException {
+        int hash = hash(value);
+        // building the index here would add the record twice, it is built when it is opened
+        BufferPage meta = this.getMeta(false);
+        meta.writeLock();
+        try {
+            ByteBuffer metaBuffer = meta.getBuffer();
+            int bucketPage = getBucketPage(metaBuffer, getBucket(metaBuffer, hash));
+            int target;
+            BufferPage bucket = this.getPage(bucketPage);
+            bucket.writeLock();
+            try {
+                ByteBuffer buffer = bucket.getBuffer();
+                target = buffer.getInt(0);
+                if (buffer.getShort(4) < ENTRIES_PER_PAGE) {
+                    target = bucketPage;
+                }
+                else if (target == NO_PAGE || this.isFull(target)) {
+                    // a full bucket page gets a new overflow page in front of the rest of the chain,
+                    // so an insert reads at most two pages however long the chain is
+                    int overflow = this.allocatePage(metaBuffer);
+                    BufferPage page = this.getPage(overflow);
+                    page.writeLock();
+                    try {
+                        page.getBuffer().putInt(0, target);
+                        page.markDirty();
+                    } finally {
+                        page.writeUnlock();
+                        page.unpin();
+                    }
+                    buffer.putInt(0, overflow);
+                    bucket.markDirty();
+                    target = overflow;
+                }
+            } finally {
+                bucket.writeUnlock();
+                bucket.unpin();
+            }
+
+            BufferPage page = this.getPage(target);
+            page.writeLock();
+            try {
+                ByteBuffer buffer = page.getBuffer();
+                int count = buffer.getShort(4);
+                this.putEntry(buffer, count, hash, recordId);
+                buffer.putShort(4, (short) (count + 1));
+                page.markDirty();
+            } finally {
+                page.writeUnlock();
+                page.unpin();
+            }
+
+            long entryCount = metaBuffer.getLong(ENTRY_COUNT) + 1;
+            metaBuffer.putLong(ENTRY_COUNT, entryCount);
+            meta.markDirty();
+
+            int buckets = (INITIAL_BUCKETS << metaBuffer.getInt(LEVEL)) + metaBuffer.getInt(NEXT);
+            if (entryCount > buckets * ENTRIES_PER_PAGE * FILL_FACTOR) {
+                this.split(metaBuffer);
+            }
+        } finally {
+            meta.writeUnlock();
+            meta.unpin();
+        }
+    }
+
+    private boolean isFull(int pageIndex) throws IOException {
+        BufferPage page = this.getPage(pageIndex);
+        page.readLock();
+        try {
+            return page.getBuffer().getShort(4) >= ENTRIES_PER_PAGE;
+        } finally {
+            page.readUnlock();
+            page.unpin();
+        }
+    }
+
+    private int indexOf(ByteBuffer buffer, int hash, RecordId recordId) {
+        int count = buffer.getShort(4);
+        for (int i = 0; i < count; i++) {
+            int offset = BUCKET_HEADER_SIZE + i * ENTRY_SIZE;
+            if (buffer.getInt(offset) == hash
+                    && buffer.getInt(offset + 4) == recordId.pageIndex()
+                    && buffer.getShort(offset + 8) == recordId.slot()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void putEntry(ByteBuffer buffer, int position, int hash, RecordId recordId) {
+        int offset = BUCKET_HEADER_SIZE + position * ENTRY_SIZE;
+        buffer.putInt(offset, hash);
+        buffer.putInt(offset + 4, recordId.pageIndex());
+        buffer.putShort(offset + 8, (short) recordId.slot());
+    }
+
+    // splits the bucket at the split pointer into itself and its image in the next round
+    private void split(ByteBuffer meta) throws IOException {
+        int level = meta.getInt(LEVEL);
+        int next = meta.getInt(NEXT);
+        int oldBucket = next;
+        int newBucket = next + (INITIAL_BUCKETS << level);
+
+        int group = getGroup(newBucket);
+        if (newBucket == getFirstBucket(group)) {
+            int pageCount = meta.getInt(PAGE_COUNT);
+            meta.putInt(GROUPS + group * 4, pageCount);
+            meta.putInt(PAGE_COUNT, pageCount + getFirstBucket(group));
+        }
+
+        // read the whole chain, its overflow pages are reused for both buckets
+        List<long[]> entries = new ArrayList<>();
+        Deque<Integer> spare = new ArrayDeque<>();
+        int pageIndex = getBucketPage(meta, oldBucket);
+        while (pageIndex != NO_PAGE) {
+            BufferPage page = this.getPage(pageIndex);
+            page.readLock();
+            try {
+                ByteBuffer buffer = page.getBuffer();
+                int count = buffer.getShort(4);
+                for (int i = 0; i < count; i++) {
+                    int offset = BUCKET_HEADER_SIZE + i * ENTRY_SIZE;
+                    entries.add(new long[]{buffer.getInt(offset), buffer.getInt(offset + 4), buffer.getShort(offset + 8)});
+                }
+                pageIndex = buffer.getInt(0);
+            } finally {
+                page.readUnlock();
+                page.unpin();
+            }
+            if (pageIndex != NO_PAGE) {
+                spare.add(pageIndex);
+            }
+        }
+
+        next++;
+        if (next == INITIAL_BUCKETS << level) {
+            meta.putInt(LEVEL, level + 1);
+            next = 0;
+        }
+        meta.putInt(NEXT, next);
+
+        int mask = (INITIAL_BUCKETS << (level + 1)) - 1;
+        List<long[]> oldEntries = new ArrayList<>();
+        List<long[]> newEntries = new ArrayList<>();
+        for (long[] entry : entries) {
+            ((((int) entry[0]) & mask) == oldBucket ? oldEntries : newEntries).add(entry);
+        }
+        this.writeChain(meta, getBucketPage(meta, oldBucket), oldEntries, spare);
+        this.writeChain(meta, getBucketPage(meta, newBucket), newEntries, spare);
+        for (int page : spare) {
+            this.freePage(meta, page);
+        }
+    }
+
+    private void writeChain(ByteBuffer meta, int pageIndex, List<long[]> entries, Deque<Integer> spare) throws IOException {
+        int position = 0;
+        while (true) {
+            BufferPage page = this.getOrCreatePage(pageIndex);
+            page.writeLock();
+            try {
+                ByteBuffer buffer = page.getBuffer();
+                int count = Math.min(ENTRIES_PER_PAGE, entries.size() - position);
+                for (int i = 0; i < count; i++) {
+                    long[] entry = entries.get(position++);
+                    this.putEntry(buffer, i, (int) entry[0], new RecordId((int) entry[1], (int) entry[2]));
+                }
+                buffer.putShort(4, (short) count);
+                pageIndex = position < entries.size()
+                        ? (spare.isEmpty() ? this.allocatePage(meta) : spare.poll())
+                        : NO_PAGE;
+                buffer.putInt(0, pageIndex);
+                page.markDirty();
+            } finally {
+                page.writeUnlock();
+                page.unpin();
+            }
+            if (pageIndex == NO_PAGE) {
+                return;
+            }
+        }
+    }
+
+    private int allocatePage(ByteBuffer meta) throws IOException {
+        int pageIndex = meta.getInt(FREE_PAGE);
+        if (pageIndex != NO_PAGE) {
+            // free pages are linked through the overflow pointer
+            BufferPage page = this.getPage(pageIndex);
+            try {
+                meta.putInt(FREE_PAGE, page.getBuffer().getInt(0));
+            } finally {
+                page.unpin();
+            }
+        }
+        else {
+            pageIndex = meta.getInt(PAGE_COUNT);
+            meta.putInt(PAGE_COUNT, pageIndex + 1);
+        }
+
+        BufferPage page = this.getOrCreatePage(pageIndex);
+        page.writeLock();
+        try {
+            page.getBuffer().putInt(0, NO_PAGE).putShort(4, (short) 0);
+            page.markDirty();
+        } finally {
+            page.writeUnlock();
+            page.unpin();
+        }
+        return pageIndex;
+    }
+
+    private void freePage(ByteBuffer meta, int pageIndex) throws IOException {
+        BufferPage page = this.getPage(pageIndex);
+        page.writeLock();
+        try {
+            page.getBuffer().putInt(0, meta.getInt(FREE_PAGE)).putShort(4, (short) 0);
+            page.markDirty();
+        } finally {
+            page.writeUnlock();
+            page.unpin();
+        }
+        meta.putInt(FREE_PAGE, pageIndex);
+    }
+
+    // emptied overflow pages stay in the chain until the bucket is split
+    @Override
+    public synchronized boolean delete(Object value, RecordId recordId) throws IOException {
+        int hash = hash(value);
+        BufferPage meta = this.getMeta();
+        meta.writeLock();
+        try {
+            ByteBuffer metaBuffer = meta.getBuffer();
+            int pageIndex = getBucketPage(metaBuffer, getBucket(metaBuffer, hash));
+            while (pageIndex != NO_PAGE) {
+                BufferPage page = this.getPage(pageIndex);
+                page.writeLock();
+                try {
+                    ByteBuffer buffer = page.getBuffer();
+                    int count = buffer.getShort(4);
+                    int position = this.indexOf(buffer, hash, recordId);
+                    if (position >= 0) {
+                        // the last entry takes its place
+                        buffer.put(BUCKET_HEADER_SIZE + position * ENTRY_SIZE, buffer, BUCKET_HEADER_SIZE + (count - 1) * ENTRY_SIZE, ENTRY_SIZE);
+                        buffer.putShort(4, (short) (count - 1));
+                        page.markDirty();
+                        metaBuffer.putLong(ENTRY_COUNT, metaBuffer.getLong(ENTRY_COUNT) - 1);
+                        meta.markDirty();
+                        return true;
+                    }
+                    pageIndex = buffer.getInt(0);
+                } finally {
+                    page.writeUnlock();
+                    page.unpin();
+                }
+            }
+            return false;
+        } finally {
+            meta.writeUnlock();
+            meta.unpin();
+        }
+    }
+
+    @Override
+    public synchronized void clear() throws IOException {
+        BufferPage meta = this.getOrCreatePage(0);
+        meta.writeLock();
+        try {
+            ByteBuffer buffer = meta.getBuffer();
+            buffer.put(0, new byte[GROUPS + 32 * 4]);
+            buffer.putInt(GROUPS, 1);
+            buffer.putInt(PAGE_COUNT, 1 + INITIAL_BUCKETS);
+            meta.markDirty();
+        } finally {
+            meta.writeUnlock();
+            meta.unpin();
+        }
+        for (int bucket = 0; bucket < INITIAL_BUCKETS; bucket++) {
+            BufferPage page = this.getOrCreatePage(1 + bucket);
+            page.writeLock();
+            try {
+                page.getBuffer().putInt(0, NO_PAGE).putShort(4, (short) 0);
+                page.markDirty();
+            } finally {
+                page.writeUnlock();
+                page.unpin();
+            }
+        }
+    }
+
+    // builds the index when its file is missing, lookups do it themselves but inserts need a built index
+    @Override
+    public synchronized void open() throws IOException {
+        this.getMeta(true).unpin();
+    }
+
+    @Override
+    public synchronized void rebuild() throws IOException {
+        this.clear();
+
+        List<Object> values = new ArrayList<>();
+        List<RecordId> recordIds = new ArrayList<>();
+        this.table.forEachRecord((recordId, record) -> {
+            values.add(record.getValue(this.column));
+            recordIds.add(recordId);
+        });
+        for (int i = 0; i < values.size(); i++) {
+            this.insert(values.get(i), recordIds.get(i));
+        }
+    }
+
+    private BufferPage getMeta() throws IOException {
+        return this.getMeta(true);
+    }
+
+    private BufferPage getMeta(boolean build) throws IOException {
+        BufferPage meta;
+        try {
+            meta = DBMS.getInstance().getBufferManager().getPage(this.fileName, 0);
+        } catch (IOException e) {
+            meta = null;
+        }
+        if (meta != null && meta.getBuffer().getInt(GROUPS) != 0) {
+            return meta;
+        }
+        if (meta != null) {
+            meta.unpin();
+        }
+        if (!build) {
+            throw new IOException("Index [" + this.fileName + "] is not built");
+        }
+        // index does not exist yet
+        this.rebuild();
+        return DBMS.getInstance().getBufferManager().getPage(this.fileName, 0);
+    }
+
+    private BufferPage getPage(int index) throws IOException {
+        return DBMS.getInstance().getBufferManager().getPage(this.fileName, index);
+    }
+
+    private BufferPage getOrCreatePage(int index) throws IOException {
+        BufferManager bufferManager = DBMS.getInstance().getBufferManager();
+        try {
+            return bufferManager.getPage(this.fileName, index);
+        } catch (IOException e) {
+            return bufferManager.getEmptyPage(this.fileName, index);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        DBMS.getInstance().getBufferManager().flush(this.fileName);
+    }
+
+    @Override
+    public void forceFlush() {
+        DBMS.getInstance().getBufferManager().forceFlush(this.fileName);
+    }
+}
@@ -0,0 +1,167 @@
+package MyDBMS;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// equi-join of projected rows, a hash table is built on one input and probed with the other, see Join for the keys
+// when the build input outgrows the memory budget both inputs are partitioned by the hash of their key
+// into spill files and each pair of partitions is joined on its own, building on the smaller one
+public class HashJoin {
+    static final int PARTITIONS = 16;
+    // every level partitions on the next 4 bits of the hash, the last one builds in memory whatever the size
+    private static final int MAX_LEVEL = 8;
+    // rough size of a row in the hash table beyond its values
+    private static final int ROW_OVERHEAD = 64;
+
+    private final Join.Input left;
+    private final Join.Input right;
+    private final String[] outputColumns;
+    private final long memoryBudget;
+
+    public HashJoin(Join.Input left, Join.Input right, long memoryBudget) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive");
+        }
+        Join.checkKeys(left, right);
+        this.left = left;
+        this.right = right;
+        this.outputColumns = Join.getOutputColumns(left, right);
+        this.memoryBudget = memoryBudget;
+    }
+
+    public String[] getOutputColumns() {
+        return this.outputColumns.clone();
+    }
+
+    // joined rows of the left values followed by the right values
+    // the probe input is read as the result is consumed, close the stream to delete temporary files early
+    public Stream<Row> join(Stream<Row> left, Stream<Row> right, boolean buildLeft) throws IOException {
+        return buildLeft
+                ? this.join(this.left, left, this.right, right, 0)
+                : this.join(this.right, right, this.left, left, 0);
+    }
+
+    private Stream<Row> join(Join.Input buildInput, Stream<Row> build, Join.Input probeInput, Stream<Row> probe, int level) throws IOException {
+        Map<Object, List<Row>> table = new HashMap<>();
+        long memory = 0;
+        Iterator<Row> rows = build.iterator();
+        while (rows.hasNext()) {
+            Row row = rows.next();
+            Object key = Join.getKey(row, buildInput);
+            if (key == null) {
+                continue;
+            }
+            table.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
+            memory += estimateSize(row);
+            if (memory > this.memoryBudget && level < MAX_LEVEL) {
+                // the rows read so far are partitioned along with the rest of the input
+                return this.partitionedJoin(buildInput, table.values(), rows, probeInput, probe.iterator(), level);
+            }
+        }
+
+        Map<Object, List<Row>> hashTable = table;
+        return probe.flatMap(row -> {
+            Object key = Join.getKey(row, probeInput);
+            List<Row> matches = key == null ? null : hashTable.get(key);
+            if (matches == null) {
+                return Stream.empty();
+            }
+            return matches.stream().map(match -> this.combine(match, buildInput, row));
+        });
+    }
+
+    // Grace hash join, pairs of partitions are joined one after another as the stream is consumed
+    private Stream<Row> partitionedJoin(Join.Input buildInput, Collection<List<Row>> built, Iterator<Row> build, Join.Input probeInput, Iterator<Row> probe, int level) throws IOException {
+        SpillFile[] buildPartitions = new SpillFile[PARTITIONS];
+        SpillFile[] probePartitions = new SpillFile[PARTITIONS];
+        Runnable close = () -> {
+            close(buildPartitions);
+            close(probePartitions);
+        };
+        try {
+            for (List<Row> rows : built) {
+                this.partition(rows.iterator(), buildInput, level, buildPartitions);
+            }
+            this.partition(build, buildInput, level, buildPartitions);
+            this.partition(probe, probeInput, level, probePartitions);
+        } catch (IOException | RuntimeException e) {
+            close.run();
+            throw e;
+        }
+
+        return IntStream.range(0, PARTITIONS)
+                .mapToObj(partition -> {
+                    SpillFile buildPartition = buildPartitions[partition];
+                    SpillFile probePartition = probePartitions[partition];
+                    if (buildPartition == null || probePartition == null) {
+                        close(new SpillFile[]{buildPartition, probePartition});
+                        return Stream.<Row>empty();
+                    }
+                    try {
+                        // the smaller partition is built, whichever input it comes from
+                        Stream<Row> joined = buildPartition.getCount() <= probePartition.getCount()
+                                ? this.join(buildInput, stream(buildPartition), probeInput, stream(probePartition), level + 1)
+                                : this.join(probeInput, stream(probePartition), buildInput, stream(buildPartition), level + 1);
+                        return joined.onClose(() -> close(new SpillFile[]{buildPartition, probePartition}));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .flatMap(joined -> joined)
+                .onClose(close);
+    }
+
+    private void partition(Iterator<Row> rows, Join.Input input, int level, SpillFile[] partitions) throws IOException {
+        while (rows.hasNext()) {
+            Row row = rows.next();
+            Object key = Join.getKey(row, input);
+            if (key == null) {
+                continue;
+            }
+            int partition = getPartition(key, level);
+            if (partitions[partition] == null) {
+                partitions[partition] = new SpillFile(input.schema());
+            }
+            partitions[partition].write(row);
+        }
+    }
+
+    static int getPartition(Object key, int level) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return Integer.rotateLeft(hash, level * 4) >>> 28;
+    }
+
+    private static Stream<Row> stream(SpillFile file) throws IOException {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(file.readRows(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private static long estimateSize(Row row) {
+        long size = ROW_OVERHEAD;
+        for (int i = 0; i < row.size(); i++) {
+            size += row.getValue(i) instanceof String string ? 40 + string.length() : 16;
+        }
+        return size;
+    }
+
+    private Row combine(Row buildRow, Join.Input buildInput, Row probeRow) {
+        return buildInput == this.left
+                ? Join.combine(this.outputColumns, this.left, buildRow, this.right, probeRow)
+                : Join.combine(this.outputColumns, this.left, probeRow, this.right, buildRow);
+    }
+
+    private static void close(SpillFile[] files) {
+        for (SpillFile file : files) {
+            if (file != null) {
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    // the file is left behind and overwritten when its name comes up again
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package MyDBMS;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface Index {
+
+    enum Type {
+        HASH("HASH"), BITMAP("BITMAP"), BTREE("BTREE");
+
+        private final String value;
+
+        Type(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return this.value;
+        }
+
+        public Index create(Table table, String column) {
+            return switch (this) {
+                case HASH -> new HashIndex(table, column);
+                case BITMAP -> new BitmapIndex(table, column);
+                case BTREE -> new BTreeIndex(table, column, table.getTableName() + "." + column + BTreeIndex.SECONDARY_FILE_EXTENSION);
+            };
+        }
+    }
+
+    // bytes of a column value that compare unsigned in the order of the values, null if the value cannot be encoded
+    static byte[] encodeKey(Object value) {
+        if (value instanceof String string) {
+            return string.getBytes();
+        }
+        if (value instanceof Integer number) {
+            // flipping the sign bit orders negative numbers first
+            return ByteBuffer.allocate(4).putInt(0, number ^ Integer.MIN_VALUE).array();
+        }
+        if (value instanceof Long number) {
+            return ByteBuffer.allocate(8).putLong(0, number ^ Long.MIN_VALUE).array();
+        }
+        if (value instanceof Double number) {
+            // negative numbers have all bits flipped so that larger magnitudes come first
+            long bits = Double.doubleToLongBits(number);
+            return ByteBuffer.allocate(8).putLong(0, bits ^ (bits >> 63 | Long.MIN_VALUE)).array();
+        }
+        if (value instanceof LocalDate date) {
+            return ByteBuffer.allocate(8).putLong(0, date.toEpochDay() ^ Long.MIN_VALUE).array();
+        }
+        return null;
+    }
+
+    String getColumn();
+
+    String getFileName();
+
+    // record ids that may hold the value, or null if the value cannot be looked up through this index
+    List<RecordId> search(Object value) throws IOException;
+
+    // record ids that may hold any other value, or null if the index cannot answer it
+    default List<RecordId> searchNot(Object value) throws IOException {
+        return null;
+    }
+
+    // record ids that may hold a value in the range, or null if the index is not ordered
+    // a null bound leaves that side open, null values are never in a range
+    default List<RecordId> searchRange(Object from, boolean fromInclusive, Object to, boolean toInclusive) throws IOException {
+        return null;
+    }
+
+    void insert(Object value, RecordId recordId) throws IOException;
+
+    boolean delete(Object value, RecordId recordId) throws IOException;
+
+    void clear() throws IOException;
+
+    // builds the index from the records of the table
+    void rebuild() throws IOException;
+
+    // called when the table is opened, builds the index if its file is missing
+    default void open() throws IOException {
+    }
+
+    void flush() throws IOException;
+
+    void forceFlush();
+}
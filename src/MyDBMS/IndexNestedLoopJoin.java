@@ -0,0 +1,70 @@
+package MyDBMS;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+// equi-join that looks up the records matching each outer row through the index on the inner join column,
+// cheap when the outer input is small and the inner table is large, see Join for the keys
+public class IndexNestedLoopJoin {
+    private final Join.Input outer;
+    private final Table innerTable;
+    private final Join.Input inner;
+    private final String[] innerColumns;
+    // the inner query's own condition, checked along with the key
+    private final Condition innerCondition;
+    private final boolean outerLeft;
+    private final String[] outputColumns;
+
+    public IndexNestedLoopJoin(Join.Input outer, Table innerTable, Join.Input inner, Condition innerCondition, boolean outerLeft) {
+        Join.checkKeys(outer, inner);
+        this.outer = outer;
+        this.innerTable = innerTable;
+        this.inner = inner;
+        this.innerColumns = Arrays.stream(inner.schema().getColumns()).map(Column::getName).toArray(String[]::new);
+        this.innerCondition = innerCondition;
+        this.outerLeft = outerLeft;
+        this.outputColumns = outerLeft ? Join.getOutputColumns(outer, inner) : Join.getOutputColumns(inner, outer);
+    }
+
+    public Stream<Row> join(Stream<Row> outer) {
+        Column keyColumn = this.inner.getKeyColumn();
+        return outer.flatMap(row -> {
+            Object value = toColumnValue(Join.getKey(row, this.outer), keyColumn);
+            if (value == null) {
+                return Stream.empty();
+            }
+            Condition condition = Condition.equal(keyColumn.getName(), value);
+            if (this.innerCondition != null) {
+                condition = Condition.and(this.innerCondition, condition);
+            }
+            return this.innerTable.stream(this.innerColumns, condition).map(match -> this.outerLeft
+                    ? Join.combine(this.outputColumns, this.outer, row, this.inner, match)
+                    : Join.combine(this.outputColumns, this.inner, match, this.outer, row));
+        });
+    }
+
+    // the key as a value of the inner column, or null if no value of the column can match it
+    static Object toColumnValue(Object key, Column column) {
+        if (key == null) {
+            return null;
+        }
+        switch (column.getType()) {
+            case CHAR -> {
+                // stored values are padded, a key with trailing spaces matches only a padded CHAR key, which it never is
+                String string = (String) key;
+                int length = string.getBytes().length;
+                if (string.endsWith(" ") || length > column.getSize()) {
+                    return null;
+                }
+                return string + " ".repeat(column.getSize() - length);
+            }
+            case INT -> {
+                long value = (Long) key;
+                return value == (int) value ? (Object) (int) value : null;
+            }
+            default -> {
+                return key;
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package MyDBMS;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+// equi-join of two queries, picks a hash, index nested loop or sort-merge join from the sizes of the inputs
+// joined rows hold the output columns of the left side followed by the right side, named "table.column"
+// NULL keys never match, CHAR keys match without their padding and INT keys match BIGINT keys
+public class Join {
+    // page reads of an index probe, an index nested loop join pays off below one outer row per this many inner pages
+    static final int PROBE_COST = 2;
+
+    public enum Strategy {
+        HASH,
+        INDEX_NESTED_LOOP,
+        SORT_MERGE
+    }
+
+    // one input of a join operator, schema holds the projected columns and the first width values are output
+    public record Input(Table schema, int keyIndex, int width) {
+        Column getKeyColumn() {
+            return this.schema.getColumns()[this.keyIndex];
+        }
+    }
+
+    // a query taking part in a join, limit -1 takes every record
+    public record Side(Table table, String[] columns, String column, Condition condition, long offset, long limit) {
+        // the join column is read even when it is not output
+        String[] getReadColumns() {
+            if (Arrays.asList(this.columns).contains(this.column)) {
+                return this.columns;
+            }
+            String[] result = Arrays.copyOf(this.columns, this.columns.length + 1);
+            result[this.columns.length] = this.column;
+            return result;
+        }
+
+        Input getInput() {
+            String[] readColumns = this.getReadColumns();
+            return new Input(this.table.project(readColumns), Arrays.asList(readColumns).indexOf(this.column), this.columns.length);
+        }
+
+        boolean isPaged() {
+            return this.offset > 0 || this.limit >= 0;
+        }
+
+        <T> Stream<T> page(Stream<T> stream) {
+            stream = stream.skip(this.offset);
+            return this.limit < 0 ? stream : stream.limit(this.limit);
+        }
+
+        Stream<Row> stream() {
+            return this.page(this.table.stream(this.getReadColumns(), this.condition));
+        }
+
+        int getPageCount() {
+            try {
+                return this.table.getFreeSpaceMap().getPageCount();
+            } catch (IOException e) {
+                return Integer.MAX_VALUE;
+            }
+        }
+
+        boolean hasIndex() {
+            return !this.isPaged() && this.table.getIndex(this.column) != null;
+        }
+
+        // CHAR keys are padded in the index, so their order differs from the order of the keys
+        boolean isOrdered() {
+            return !this.isPaged()
+                    && this.table.hasOrderedIndex(this.column)
+                    && this.table.getColumn(this.column).getType() != Column.DataType.CHAR;
+        }
+    }
+
+    private final Side left;
+    private final Side right;
+    private final Input leftInput;
+    private final Input rightInput;
+    private final long memoryBudget;
+
+    public Join(Side left, Side right, long memoryBudget) {
+        this.left = left;
+        this.right = right;
+        this.leftInput = left.getInput();
+        this.rightInput = right.getInput();
+        checkKeys(this.leftInput, this.rightInput);
+        this.memoryBudget = memoryBudget;
+    }
+
+    static void checkKeys(Input left, Input right) {
+        Column leftKey = left.getKeyColumn();
+        Column rightKey = right.getKeyColumn();
+        if (getKeyType(leftKey.getType()) != getKeyType(rightKey.getType())) {
+            throw new IllegalArgumentException("Column [" + leftKey.getName() + "] cannot be joined with column [" + rightKey.getName() + "]");
+        }
+    }
+
+    private static Column.DataType getKeyType(Column.DataType type) {
+        return switch (type) {
+            case CHAR, VARCHAR -> Column.DataType.VARCHAR;
+            case INT, BIGINT -> Column.DataType.BIGINT;
+            default -> type;
+        };
+    }
+
+    static Object getKey(Row row, Input input) {
+        return getKey(row.getValue(input.keyIndex()), input.getKeyColumn().getType());
+    }
+
+    static Object getKey(Object value, Column.DataType type) {
+        if (type == Column.DataType.CHAR && value != null) {
+            return ((String) value).stripTrailing();
+        }
+        if (value instanceof Integer integer) {
+            return integer.longValue();
+        }
+        return value;
+    }
+
+    // strings are compared by their bytes like index keys
+    @SuppressWarnings("unchecked")
+    static int compareKeys(Object a, Object b) {
+        if (a instanceof String string) {
+            return Arrays.compareUnsigned(string.getBytes(), ((String) b).getBytes());
+        }
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    static String[] getOutputColumns(Input left, Input right) {
+        String[] columns = new String[left.width() + right.width()];
+        for (int i = 0; i < left.width(); i++) {
+            columns[i] = left.schema().getTableName() + "." + left.schema().getColumns()[i].getName();
+        }
+        for (int i = 0; i < right.width(); i++) {
+            columns[left.width() + i] = right.schema().getTableName() + "." + right.schema().getColumns()[i].getName();
+        }
+        return columns;
+    }
+
+    static Row combine(String[] outputColumns, Input left, Row leftRow, Input right, Row rightRow) {
+        Object[] values = new Object[outputColumns.length];
+        for (int i = 0; i < left.width(); i++) {
+            values[i] = leftRow.getValue(i);
+        }
+        for (int i = 0; i < right.width(); i++) {
+            values[left.width() + i] = rightRow.getValue(i);
+        }
+        return new Row(outputColumns, values);
+    }
+
+    public String[] getOutputColumns() {
+        return getOutputColumns(this.leftInput, this.rightInput);
+    }
+
+    // an index nested loop join when the outer query matches few records for the size of the indexed inner table,
+    // a sort-merge join when both queries can be read in key order, a hash join otherwise
+    public Strategy select() {
+        return this.select(this.getInnerSide());
+    }
+
+    private Strategy select(Side inner) {
+        if (inner != null) {
+            return Strategy.INDEX_NESTED_LOOP;
+        }
+        if (this.left.isOrdered() && this.right.isOrdered()) {
+            return Strategy.SORT_MERGE;
+        }
+        return Strategy.HASH;
+    }
+
+    // the indexed side worth probing for every row of the other one, the larger side is tried first
+    private Side getInnerSide() {
+        for (Side inner : this.left.getPageCount() >= this.right.getPageCount()
+                ? new Side[]{this.left, this.right}
+                : new Side[]{this.right, this.left}) {
+            if (inner.hasIndex()) {
+                Side outer = inner == this.left ? this.right : this.left;
+                long threshold = inner.getPageCount() / PROBE_COST;
+                // counting stops right after the threshold, nothing but positions is decoded
+                try (Stream<Row> rows = outer.page(outer.table().stream(new String[0], outer.condition()))) {
+                    if (rows.limit(threshold + 1).count() <= threshold) {
+                        return inner;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    // a null strategy is selected, close the stream to delete temporary files early
+    public Stream<Row> stream(Strategy strategy) {
+        Side inner = strategy == null || strategy == Strategy.INDEX_NESTED_LOOP ? this.getInnerSide() : null;
+        if (strategy == null) {
+            strategy = this.select(inner);
+        }
+        try {
+            return switch (strategy) {
+                case HASH -> new HashJoin(this.leftInput, this.rightInput, this.memoryBudget)
+                        .join(this.left.stream(), this.right.stream(), this.left.getPageCount() <= this.right.getPageCount());
+                case INDEX_NESTED_LOOP -> this.indexNestedLoopJoin(inner);
+                case SORT_MERGE -> new SortMergeJoin(this.leftInput, this.rightInput).join(this.sorted(this.left), this.sorted(this.right));
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // without a side worth probing the larger indexed side is probed
+    private Stream<Row> indexNestedLoopJoin(Side inner) {
+        if (inner == null) {
+            if (!this.left.hasIndex() && !this.right.hasIndex()) {
+                throw new IllegalStateException("Neither join column has an index");
+            }
+            inner = this.left.hasIndex() && (!this.right.hasIndex() || this.left.getPageCount() >= this.right.getPageCount())
+                    ? this.left
+                    : this.right;
+        }
+        boolean innerLeft = inner == this.left;
+        return new IndexNestedLoopJoin(
+                innerLeft ? this.rightInput : this.leftInput,
+                inner.table(),
+                innerLeft ? this.leftInput : this.rightInput,
+                inner.condition(),
+                !innerLeft
+        ).join((innerLeft ? this.right : this.left).stream());
+    }
+
+    // rows of the side in key order without NULL keys, read through an ordered index or sorted
+    private Stream<Row> sorted(Side side) throws IOException {
+        if (side.isOrdered()) {
+            Stream<Row> rows = side.table().streamOrdered(side.getReadColumns(), side.condition(), side.column());
+            if (rows != null) {
+                return rows;
+            }
+        }
+        Column.DataType type = side.table().getColumn(side.column()).getType();
+        Comparator<Record> comparator = (a, b) -> compareKeys(getKey(a.getValue(side.column()), type), getKey(b.getValue(side.column()), type));
+        Stream<Record> records = side.page(side.table().stream(side.condition())).filter(record -> !record.isNull(side.column()));
+        String[] columns = side.getReadColumns();
+        return new ExternalSorter(side.table(), comparator, this.memoryBudget).sort(records).map(record -> {
+            Object[] values = new Object[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                values[i] = record.getValue(columns[i]);
+            }
+            return new Row(columns, values);
+        });
+    }
+}
@@ -0,0 +1,87 @@
+package MyDBMS;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+public class LruKPolicy implements EvictionPolicy {
+    private final int k;
+    private final HashMap<PageId, long[]> resident;
+    private final TreeSet<PageId> victims;
+    private final LinkedHashMap<PageId, long[]> retained;
+    private long clock;
+
+    public LruKPolicy(int k, int capacity) {
+        if (k < 1) {
+            throw new IllegalArgumentException("K must be positive");
+        }
+        this.k = k;
+        this.resident = new HashMap<>(capacity * 2);
+        // pages with less than K references have infinite backward K-distance and go first,
+        // ties are broken by the most recent reference (plain LRU)
+        this.victims = new TreeSet<>(Comparator
+                .<PageId>comparingLong(pageId -> this.resident.get(pageId)[this.k - 1])
+                .thenComparingLong(pageId -> this.resident.get(pageId)[0]));
+        // history of evicted pages is kept for a while so a re-read page is not treated as new
+        this.retained = new LinkedHashMap<>(capacity * 2) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PageId, long[]> eldest) {
+                return this.size() > capacity;
+            }
+        };
+        this.clock = 0;
+    }
+
+    @Override
+    public void onLoad(PageId pageId) {
+        if (this.resident.containsKey(pageId)) {
+            this.onAccess(pageId);
+            return;
+        }
+        long[] history = this.retained.remove(pageId);
+        if (history == null) {
+            history = new long[this.k];
+        }
+        this.resident.put(pageId, this.reference(history));
+        this.victims.add(pageId);
+    }
+
+    @Override
+    public void onAccess(PageId pageId) {
+        long[] history = this.resident.get(pageId);
+        if (history == null) {
+            return;
+        }
+        this.victims.remove(pageId);
+        this.reference(history);
+        this.victims.add(pageId);
+    }
+
+    private long[] reference(long[] history) {
+        System.arraycopy(history, 0, history, 1, history.length - 1);
+        history[0] = ++this.clock;
+        return history;
+    }
+
+    @Override
+    public void onRemove(PageId pageId) {
+        if (this.resident.containsKey(pageId)) {
+            this.victims.remove(pageId);
+            this.retained.put(pageId, this.resident.remove(pageId));
+        }
+    }
+
+    @Override
+    public PageId evict(Predicate<PageId> evictable) {
+        for (PageId pageId : this.victims) {
+            if (evictable.test(pageId)) {
+                this.onRemove(pageId);
+                return pageId;
+            }
+        }
+        return null;
+    }
+}
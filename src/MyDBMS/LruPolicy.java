@@ -0,0 +1,42 @@
+package MyDBMS;
+
+import java.util.Iterator;
+import java.util.function.Predicate;
+
+public class LruPolicy implements EvictionPolicy {
+    private final PageList pages;
+
+    public LruPolicy() {
+        this.pages = new PageList();
+    }
+
+    @Override
+    public void onLoad(PageId pageId) {
+        this.pages.addFirst(pageId);
+    }
+
+    @Override
+    public void onAccess(PageId pageId) {
+        if (this.pages.contains(pageId)) {
+            this.pages.addFirst(pageId);
+        }
+    }
+
+    @Override
+    public void onRemove(PageId pageId) {
+        this.pages.remove(pageId);
+    }
+
+    @Override
+    public PageId evict(Predicate<PageId> evictable) {
+        Iterator<PageId> iterator = this.pages.descendingIterator();
+        while (iterator.hasNext()) {
+            PageId pageId = iterator.next();
+            if (evictable.test(pageId)) {
+                this.pages.remove(pageId);
+                return pageId;
+            }
+        }
+        return null;
+    }
+}
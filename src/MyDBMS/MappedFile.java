@@ -0,0 +1,59 @@
+package MyDBMS;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+
+class MappedFile {
+    private final long segmentSize;
+    private final ArrayList<MappedByteBuffer> segments;
+    private long mappedSize;
+
+    public MappedFile(long segmentSize) {
+        // a page never spans two segments
+        if (segmentSize <= 0 || segmentSize % BufferPage.PAGE_SIZE != 0 || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid segment size");
+        }
+        this.segmentSize = segmentSize;
+        this.segments = new ArrayList<>();
+        this.mappedSize = 0;
+    }
+
+    // returns a read-only view of the region, or null if it is past the end of file
+    public synchronized ByteBuffer slice(FileChannel channel, long offset, int length) throws IOException {
+        if (offset / this.segmentSize != (offset + length - 1) / this.segmentSize) {
+            throw new IllegalArgumentException("Region spans two segments");
+        }
+        if (offset + length > this.mappedSize) {
+            this.remap(channel);
+            if (offset + length > this.mappedSize) {
+                return null;
+            }
+        }
+        MappedByteBuffer segment = this.segments.get((int) (offset / this.segmentSize));
+        return segment.slice((int) (offset % this.segmentSize), length);
+    }
+
+    private void remap(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        if (fileSize <= this.mappedSize) {
+            return;
+        }
+        // the last segment may have been mapped while the file was shorter
+        if (!this.segments.isEmpty() && this.mappedSize % this.segmentSize != 0) {
+            this.segments.remove(this.segments.size() - 1);
+            this.mappedSize = (long) this.segments.size() * this.segmentSize;
+        }
+        while (this.mappedSize < fileSize) {
+            long size = Math.min(this.segmentSize, fileSize - this.mappedSize);
+            this.segments.add(channel.map(FileChannel.MapMode.READ_ONLY, this.mappedSize, size));
+            this.mappedSize += size;
+        }
+    }
+
+    public synchronized long getMappedSize() {
+        return this.mappedSize;
+    }
+}
@@ -0,0 +1,39 @@
+package MyDBMS;
+
+import java.util.function.Predicate;
+
+public class MruPolicy implements EvictionPolicy {
+    private final PageList pages;
+
+    public MruPolicy() {
+        this.pages = new PageList();
+    }
+
+    @Override
+    public void onLoad(PageId pageId) {
+        this.pages.addFirst(pageId);
+    }
+
+    @Override
+    public void onAccess(PageId pageId) {
+        if (this.pages.contains(pageId)) {
+            this.pages.addFirst(pageId);
+        }
+    }
+
+    @Override
+    public void onRemove(PageId pageId) {
+        this.pages.remove(pageId);
+    }
+
+    @Override
+    public PageId evict(Predicate<PageId> evictable) {
+        for (PageId pageId : this.pages) {
+            if (evictable.test(pageId)) {
+                this.pages.remove(pageId);
+                return pageId;
+            }
+        }
+        return null;
+    }
+}
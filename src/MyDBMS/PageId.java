@@ -0,0 +1,4 @@
+package MyDBMS;
+
+public record PageId(String fileName, long index) {
+}
@@ -0,0 +1,112 @@
+package MyDBMS;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+class PageList implements Iterable<PageId> {
+    private static class Node {
+        private final PageId pageId;
+        private Node prev;
+        private Node next;
+
+        private Node(PageId pageId) {
+            this.pageId = pageId;
+        }
+    }
+
+    private final HashMap<PageId, Node> nodes;
+    private Node head;
+    private Node tail;
+
+    public PageList() {
+        this.nodes = new HashMap<>();
+    }
+
+    public boolean contains(PageId pageId) {
+        return this.nodes.containsKey(pageId);
+    }
+
+    public int size() {
+        return this.nodes.size();
+    }
+
+    public boolean isEmpty() {
+        return this.nodes.isEmpty();
+    }
+
+    public void addFirst(PageId pageId) {
+        this.remove(pageId);
+        Node node = new Node(pageId);
+        this.nodes.put(pageId, node);
+        node.next = this.head;
+        if (this.head != null) {
+            this.head.prev = node;
+        }
+        this.head = node;
+        if (this.tail == null) {
+            this.tail = node;
+        }
+    }
+
+    public boolean remove(PageId pageId) {
+        Node node = this.nodes.remove(pageId);
+        if (node == null) {
+            return false;
+        }
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            this.head = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        } else {
+            this.tail = node.prev;
+        }
+        return true;
+    }
+
+    @Override
+    public Iterator<PageId> iterator() {
+        return new Iterator<>() {
+            private Node cursor = PageList.this.head;
+
+            @Override
+            public boolean hasNext() {
+                return this.cursor != null;
+            }
+
+            @Override
+            public PageId next() {
+                if (this.cursor == null) {
+                    throw new NoSuchElementException();
+                }
+                PageId pageId = this.cursor.pageId;
+                this.cursor = this.cursor.next;
+                return pageId;
+            }
+        };
+    }
+
+    public Iterator<PageId> descendingIterator() {
+        return new Iterator<>() {
+            private Node cursor = PageList.this.tail;
+
+            @Override
+            public boolean hasNext() {
+                return this.cursor != null;
+            }
+
+            @Override
+            public PageId next() {
+                if (this.cursor == null) {
+                    throw new NoSuchElementException();
+                }
+                PageId pageId = this.cursor.pageId;
+                this.cursor = this.cursor.prev;
+                return pageId;
+            }
+        };
+    }
+}
@@ -0,0 +1,133 @@
+package MyDBMS;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class PageWriter implements Closeable {
+    public static final double DIRTY_RATIO = 0.25;
+    public static final int PAGES_PER_ROUND = 16;
+    public static final long WRITER_INTERVAL = 100;
+    public static final long CHECKPOINT_INTERVAL = 30_000;
+
+    private final BufferManager bufferManager;
+    private final double dirtyRatio;
+    private final int pagesPerRound;
+    private final long writerInterval;
+    private final long checkpointInterval;
+    private final AtomicLong writtenPageCount;
+    private final AtomicLong checkpointCount;
+    private ScheduledExecutorService executor;
+
+    public PageWriter(BufferManager bufferManager) {
+        this(bufferManager, DIRTY_RATIO, PAGES_PER_ROUND, WRITER_INTERVAL, CHECKPOINT_INTERVAL);
+    }
+
+    // intervals are in milliseconds, a non-positive checkpoint interval disables checkpoints
+    public PageWriter(BufferManager bufferManager, double dirtyRatio, int pagesPerRound, long writerInterval, long checkpointInterval) {
+        if (dirtyRatio < 0 || dirtyRatio > 1) {
+            throw new IllegalArgumentException("Dirty ratio must be between 0 and 1");
+        }
+        if (pagesPerRound <= 0 || writerInterval <= 0) {
+            throw new IllegalArgumentException("Writer round must write at least one page periodically");
+        }
+        this.bufferManager = bufferManager;
+        this.dirtyRatio = dirtyRatio;
+        this.pagesPerRound = pagesPerRound;
+        this.writerInterval = writerInterval;
+        this.checkpointInterval = checkpointInterval;
+        this.writtenPageCount = new AtomicLong(0);
+        this.checkpointCount = new AtomicLong(0);
+    }
+
+    public synchronized PageWriter start() {
+        if (this.executor != null) {
+            return this;
+        }
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "page-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::runSafely, this.writerInterval, this.writerInterval, TimeUnit.MILLISECONDS);
+        if (this.checkpointInterval > 0) {
+            this.executor.scheduleWithFixedDelay(this::checkpointSafely, this.checkpointInterval, this.checkpointInterval, TimeUnit.MILLISECONDS);
+        }
+        return this;
+    }
+
+    public synchronized boolean isRunning() {
+        return this.executor != null;
+    }
+
+    // writes back dirty pages while the buffer holds more of them than allowed
+    public int writeRound() throws IOException {
+        int written = 0;
+        while (written < this.pagesPerRound && this.bufferManager.getDirtyRatio() > this.dirtyRatio) {
+            int round = this.bufferManager.writeBack(Math.min(this.pagesPerRound - written, this.excessDirtyPages()));
+            if (round == 0) {
+                // the remaining dirty pages are pinned
+                break;
+            }
+            written += round;
+        }
+        this.writtenPageCount.addAndGet(written);
+        return written;
+    }
+
+    private int excessDirtyPages() {
+        int allowed = (int) (this.bufferManager.getCapacity() * this.dirtyRatio);
+        return Math.max(1, this.bufferManager.getDirtyPageCount() - allowed);
+    }
+
+    public int checkpoint() throws IOException {
+        int written = this.bufferManager.checkpoint();
+        this.writtenPageCount.addAndGet(written);
+        this.checkpointCount.incrementAndGet();
+        return written;
+    }
+
+    private void runSafely() {
+        try {
+            this.writeRound();
+        } catch (IOException | RuntimeException e) {
+            // retried on the next round, pages stay dirty
+        }
+    }
+
+    private void checkpointSafely() {
+        try {
+            this.checkpoint();
+        } catch (IOException | RuntimeException e) {
+            // retried on the next checkpoint, pages stay dirty
+        }
+    }
+
+    public long getWrittenPageCount() {
+        return this.writtenPageCount.get();
+    }
+
+    public long getCheckpointCount() {
+        return this.checkpointCount.get();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.executor == null) {
+            return;
+        }
+        this.executor.shutdown();
+        try {
+            if (!this.executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                this.executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            this.executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        this.executor = null;
+    }
+}
@@ -1,6 +1,7 @@
 package MyDBMS;
 
 import java.nio.ByteBuffer;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -9,10 +10,17 @@ public class Record {
     private final Table table;
     private final Column[] columnBlueprints;
     private final HashMap<String, byte[]> columnData;
+    private RecordId recordId;
+    private int encodedLength = -1;
 
     public Record(Table table, byte[] payload) {
+        this(table, ByteBuffer.wrap(payload));
+    }
+
+    // payload starts at the record and is left untouched, it may be a view of a page or a mapped file
+    public Record(Table table, ByteBuffer payload) {
         this(table);
-        this.parseBytes(payload);
+        this.parseBytes(payload.duplicate());
     }
 
     public Record(Table table) {
@@ -24,13 +32,11 @@ public class Record {
         }
     }
 
-    private void parseBytes(byte[] payload) {
-        ByteBuffer stream = ByteBuffer.wrap(payload);
-
+    private void parseBytes(ByteBuffer stream) {
         for (Column columnBlueprint : this.columnBlueprints) {
             byte[] column;
             if (columnBlueprint.getType().isVariableLength()) {
-                column = this.getReference(payload, stream.getShort(), stream.getShort());
+                column = this.getReference(stream, stream.getShort(), stream.getShort());
             }
             else {
                 column = new byte[columnBlueprint.getSize()];
@@ -50,9 +56,9 @@ public class Record {
         }
     }
 
-    private byte[] getReference(byte[] payload, int offset, int length) {
+    private byte[] getReference(ByteBuffer payload, int offset, int length) {
         byte[] result = new byte[length];
-        System.arraycopy(payload, offset, result, 0, result.length);
+        payload.get(offset, result);
         return result;
     }
 
@@ -60,21 +66,35 @@ public class Record {
         return (this.columnBlueprints.length + 7) / 8;
     }
 
-    public byte[] toByteArray() {
-        ByteBuffer stream = ByteBuffer.allocate(4090);
-
-        int position = 0;
-        for (Column columnBlueprint : this.columnBlueprints) {
-            if (columnBlueprint.getType().isVariableLength()) {
-                position += 4;
-            }
-            else {
-                position += columnBlueprint.getSize();
+    // size of the encoded record, kept until a column changes
+    public int getEncodedLength() {
+        if (this.encodedLength < 0) {
+            int length = this.getNullBitmapLength();
+            for (Column columnBlueprint : this.columnBlueprints) {
+                if (columnBlueprint.getType().isVariableLength()) {
+                    byte[] data = this.columnData.get(columnBlueprint.getName());
+                    length += 4 + (data == null ? 0 : data.length);
+                }
+                else {
+                    length += columnBlueprint.getSize();
+                }
             }
+            this.encodedLength = length;
         }
-        position += this.getNullBitmapLength();
+        return this.encodedLength;
+    }
 
-        Bitmap nullBitmap = new Bitmap(this.columnBlueprints.length);
+    // writes the record at the offset of the target without moving its position, returns the encoded length
+    public int writeTo(ByteBuffer target, int offset) {
+        int position = offset;
+        int nullBitmapOffset = offset;
+        for (Column columnBlueprint : this.columnBlueprints) {
+            nullBitmapOffset += columnBlueprint.getType().isVariableLength() ? 4 : columnBlueprint.getSize();
+        }
+        int dataOffset = nullBitmapOffset + this.getNullBitmapLength();
+        for (int i = nullBitmapOffset; i < dataOffset; i++) {
+            target.put(i, (byte) 0);
+        }
 
         for (int columnIndex = 0; columnIndex < this.columnBlueprints.length; columnIndex++) {
             Column columnBlueprint = this.columnBlueprints[columnIndex];
@@ -82,34 +102,51 @@ public class Record {
 
             if (columnBlueprint.getType().isVariableLength()) {
                 int length = data == null ? 0 : data.length;
-                stream.putShort((short) position);
-                stream.putShort((short) length);
-                position += length;
+                // variable length data is addressed from the start of the record
+                target.putShort(position, (short) (dataOffset - offset));
+                target.putShort(position + 2, (short) length);
+                if (data != null) {
+                    target.put(dataOffset, data);
+                }
+                dataOffset += length;
+                position += 4;
             }
             else {
-                stream.put(data == null ? new byte[columnBlueprint.getSize()] : data);
+                if (data == null) {
+                    for (int i = 0; i < columnBlueprint.getSize(); i++) {
+                        target.put(position + i, (byte) 0);
+                    }
+                }
+                else {
+                    target.put(position, data);
+                }
+                position += columnBlueprint.getSize();
             }
 
             if (data == null) {
-                nullBitmap.set(columnIndex);
-            }
-        }
-        stream.put(nullBitmap.toByteArray());
-
-        for (Column columnBlueprint : this.columnBlueprints) {
-            if (columnBlueprint.getType().isVariableLength()) {
-                byte[] data = this.columnData.get(columnBlueprint.getName());
-                if (data != null) {
-                    stream.put(data);
-                }
+                int nullByte = nullBitmapOffset + columnIndex / 8;
+                target.put(nullByte, (byte) (target.get(nullByte) | 1 << (7 - columnIndex % 8)));
             }
         }
+        return dataOffset - offset;
+    }
 
-        byte[] result = new byte[position];
-        stream.get(0, result);
+    public byte[] toByteArray() {
+        byte[] result = new byte[this.getEncodedLength()];
+        this.writeTo(ByteBuffer.wrap(result), 0);
         return result;
     }
 
+    // null until the record is stored in or read from the table
+    public RecordId getRecordId() {
+        return this.recordId;
+    }
+
+    Record setRecordId(RecordId recordId) {
+        this.recordId = recordId;
+        return this;
+    }
+
     public String getTableName() {
         return this.table.getTableName();
     }
@@ -170,6 +207,7 @@ public class Record {
         }
 
         this.columnData.put(columnBlueprint.getName(), data);
+        this.encodedLength = -1;
         return this;
     }
 
@@ -192,9 +230,137 @@ public class Record {
         }
 
         this.columnData.put(columnBlueprint.getName(), data);
+        this.encodedLength = -1;
+        return this;
+    }
+
+    private Column getColumnBlueprint(String columnName, Column.DataType type) {
+        Column columnBlueprint = this.getColumnBlueprint(columnName);
+        if (columnBlueprint == null) {
+            throw new IllegalArgumentException("Column [" + columnName + "] does not exists");
+        }
+        if (columnBlueprint.getType() != type) {
+            throw new IllegalArgumentException("Column [" + columnName + "] is not " + type.getValue() + " type");
+        }
+        return columnBlueprint;
+    }
+
+    private ByteBuffer getFixed(String columnName, Column.DataType type) {
+        this.getColumnBlueprint(columnName, type);
+        byte[] column = this.columnData.get(columnName);
+        return column == null ? null : ByteBuffer.wrap(column);
+    }
+
+    private Record setFixed(String columnName, Column.DataType type, ByteBuffer data) {
+        Column columnBlueprint = this.getColumnBlueprint(columnName, type);
+        this.columnData.put(columnBlueprint.getName(), data.array());
+        this.encodedLength = -1;
+        return this;
+    }
+
+    public boolean isNull(String columnName) {
+        if (this.getColumnBlueprint(columnName) == null) {
+            throw new IllegalArgumentException("Column [" + columnName + "] does not exists");
+        }
+        return this.columnData.get(columnName) == null;
+    }
+
+    // numeric getters return 0 for null, use isNull to tell them apart
+    public int getInt(String columnName) {
+        ByteBuffer column = this.getFixed(columnName, Column.DataType.INT);
+        return column == null ? 0 : column.getInt(0);
+    }
+
+    public long getBigint(String columnName) {
+        ByteBuffer column = this.getFixed(columnName, Column.DataType.BIGINT);
+        return column == null ? 0 : column.getLong(0);
+    }
+
+    public double getDouble(String columnName) {
+        ByteBuffer column = this.getFixed(columnName, Column.DataType.DOUBLE);
+        return column == null ? 0 : column.getDouble(0);
+    }
+
+    public LocalDate getDate(String columnName) {
+        ByteBuffer column = this.getFixed(columnName, Column.DataType.DATE);
+        return column == null ? null : LocalDate.ofEpochDay(column.getInt(0));
+    }
+
+    public Record setInt(String columnName, int value) {
+        return this.setFixed(columnName, Column.DataType.INT, ByteBuffer.allocate(4).putInt(0, value));
+    }
+
+    public Record setBigint(String columnName, long value) {
+        return this.setFixed(columnName, Column.DataType.BIGINT, ByteBuffer.allocate(8).putLong(0, value));
+    }
+
+    public Record setDouble(String columnName, double value) {
+        return this.setFixed(columnName, Column.DataType.DOUBLE, ByteBuffer.allocate(8).putDouble(0, value));
+    }
+
+    public Record setDate(String columnName, LocalDate value) {
+        if (value == null) {
+            return this.setNull(columnName);
+        }
+        return this.setFixed(columnName, Column.DataType.DATE, ByteBuffer.allocate(4).putInt(0, (int) value.toEpochDay()));
+    }
+
+    public Record setNull(String columnName) {
+        Column columnBlueprint = this.getColumnBlueprint(columnName);
+        if (columnBlueprint == null) {
+            throw new IllegalArgumentException("Column [" + columnName + "] does not exists");
+        }
+        if (columnBlueprint.isNotnull()) {
+            throw new IllegalArgumentException("Column [" + columnName + "] cannot be null");
+        }
+        this.columnData.put(columnBlueprint.getName(), null);
+        this.encodedLength = -1;
         return this;
     }
 
+    // value of any column type, numbers are boxed
+    public Object getValue(String columnName) {
+        Column columnBlueprint = this.getColumnBlueprint(columnName);
+        if (columnBlueprint == null) {
+            throw new IllegalArgumentException("Column [" + columnName + "] does not exists");
+        }
+        if (this.columnData.get(columnName) == null) {
+            return null;
+        }
+        return switch (columnBlueprint.getType()) {
+            case CHAR -> this.getChar(columnName);
+            case VARCHAR -> this.getVarchar(columnName);
+            case INT -> this.getInt(columnName);
+            case BIGINT -> this.getBigint(columnName);
+            case DOUBLE -> this.getDouble(columnName);
+            case DATE -> this.getDate(columnName);
+        };
+    }
+
+    // sets a value as returned by getValue, an Integer is also taken by a BIGINT column
+    public Record setValue(String columnName, Object value) {
+        Column columnBlueprint = this.getColumnBlueprint(columnName);
+        if (columnBlueprint == null) {
+            throw new IllegalArgumentException("Column [" + columnName + "] does not exists");
+        }
+        if (value == null) {
+            return this.setNull(columnName);
+        }
+        value = columnBlueprint.widen(value);
+        // other numbers could be narrowed without notice
+        if (!columnBlueprint.accepts(value)) {
+            throw new IllegalArgumentException("Value [" + value + "] cannot be stored in column [" + columnName + "]");
+        }
+        return switch (columnBlueprint.getType()) {
+            case CHAR -> this.setChar(columnName, (String) value);
+            case VARCHAR -> this.setVarchar(columnName, (String) value);
+            case INT -> this.setInt(columnName, (Integer) value);
+            case BIGINT -> this.setBigint(columnName, (Long) value);
+            case DOUBLE -> this.setDouble(columnName, (Double) value);
+            case DATE -> this.setDate(columnName, (LocalDate) value);
+        };
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,9 @@
+package MyDBMS;
+
+public record RecordId(int pageIndex, int slot) implements Comparable<RecordId> {
+    @Override
+    public int compareTo(RecordId o) {
+        int result = Integer.compare(this.pageIndex, o.pageIndex);
+        return result != 0 ? result : Integer.compare(this.slot, o.slot);
+    }
+}
@@ -0,0 +1,175 @@
+package MyDBMS;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+// read-only view of a stored record, columns are decoded from the page only when they are asked for
+// one view is moved from slot to slot during a scan, so it must not be kept after the page is released
+public class RecordView {
+    private final Table table;
+    private final Column[] columnBlueprints;
+    // offset of each column header from the start of the record
+    private final int[] columnOffsets;
+    private final int nullBitmapOffset;
+
+    private ByteBuffer page;
+    private int offset;
+    private RecordId recordId;
+
+    public RecordView(Table table) {
+        this.table = table;
+        this.columnBlueprints = table.getColumns();
+        this.columnOffsets = new int[this.columnBlueprints.length];
+        int position = 0;
+        for (int columnIndex = 0; columnIndex < this.columnBlueprints.length; columnIndex++) {
+            this.columnOffsets[columnIndex] = position;
+            Column columnBlueprint = this.columnBlueprints[columnIndex];
+            position += columnBlueprint.getType().isVariableLength() ? 4 : columnBlueprint.getSize();
+        }
+        this.nullBitmapOffset = position;
+    }
+
+    RecordView moveTo(ByteBuffer page, int offset, RecordId recordId) {
+        this.page = page;
+        this.offset = offset;
+        this.recordId = recordId;
+        return this;
+    }
+
+    public RecordId getRecordId() {
+        return this.recordId;
+    }
+
+    public boolean isNull(int columnIndex) {
+        byte nullBits = this.page.get(this.offset + this.nullBitmapOffset + columnIndex / 8);
+        return (nullBits & (1 << (7 - columnIndex % 8))) != 0;
+    }
+
+    private int getDataOffset(int columnIndex) {
+        int header = this.offset + this.columnOffsets[columnIndex];
+        if (this.columnBlueprints[columnIndex].getType().isVariableLength()) {
+            return this.offset + this.page.getShort(header);
+        }
+        return header;
+    }
+
+    private int getDataLength(int columnIndex) {
+        Column columnBlueprint = this.columnBlueprints[columnIndex];
+        if (columnBlueprint.getType().isVariableLength()) {
+            return this.page.getShort(this.offset + this.columnOffsets[columnIndex] + 2);
+        }
+        return columnBlueprint.getSize();
+    }
+
+    // compares the stored bytes without decoding the column, null matches only a null column
+    public boolean equalsBytes(int columnIndex, byte[] value) {
+        if (this.isNull(columnIndex)) {
+            return value == null;
+        }
+        if (value == null || value.length != this.getDataLength(columnIndex)) {
+            return false;
+        }
+        int dataOffset = this.getDataOffset(columnIndex);
+        for (int i = 0; i < value.length; i++) {
+            if (this.page.get(dataOffset + i) != value[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // compares the stored bytes unsigned, like index keys, the column must not be null
+    public int compareBytes(int columnIndex, byte[] value) {
+        int dataOffset = this.getDataOffset(columnIndex);
+        int length = this.getDataLength(columnIndex);
+        for (int i = 0; i < Math.min(length, value.length); i++) {
+            int compare = Byte.compareUnsigned(this.page.get(dataOffset + i), value[i]);
+            if (compare != 0) {
+                return compare;
+            }
+        }
+        return Integer.compare(length, value.length);
+    }
+
+    public byte[] getBytes(int columnIndex) {
+        if (this.isNull(columnIndex)) {
+            return null;
+        }
+        byte[] data = new byte[this.getDataLength(columnIndex)];
+        this.page.get(this.getDataOffset(columnIndex), data);
+        return data;
+    }
+
+    public String getChar(int columnIndex) {
+        this.checkType(columnIndex, Column.DataType.CHAR);
+        byte[] data = this.getBytes(columnIndex);
+        return data == null ? null : new String(data);
+    }
+
+    public String getVarchar(int columnIndex) {
+        this.checkType(columnIndex, Column.DataType.VARCHAR);
+        byte[] data = this.getBytes(columnIndex);
+        return data == null ? null : new String(data);
+    }
+
+    // numeric getters return 0 for null, use isNull to tell them apart
+    public int getInt(int columnIndex) {
+        this.checkType(columnIndex, Column.DataType.INT);
+        return this.isNull(columnIndex) ? 0 : this.page.getInt(this.getDataOffset(columnIndex));
+    }
+
+    public long getBigint(int columnIndex) {
+        this.checkType(columnIndex, Column.DataType.BIGINT);
+        return this.isNull(columnIndex) ? 0 : this.page.getLong(this.getDataOffset(columnIndex));
+    }
+
+    public double getDouble(int columnIndex) {
+        this.checkType(columnIndex, Column.DataType.DOUBLE);
+        return this.isNull(columnIndex) ? 0 : this.page.getDouble(this.getDataOffset(columnIndex));
+    }
+
+    public LocalDate getDate(int columnIndex) {
+        this.checkType(columnIndex, Column.DataType.DATE);
+        return this.isNull(columnIndex) ? null : LocalDate.ofEpochDay(this.getEpochDay(columnIndex));
+    }
+
+    // the date without building a LocalDate
+    public long getEpochDay(int columnIndex) {
+        this.checkType(columnIndex, Column.DataType.DATE);
+        return this.isNull(columnIndex) ? 0 : this.page.getInt(this.getDataOffset(columnIndex));
+    }
+
+    // value of any column type, numbers are boxed
+    public Object getValue(int columnIndex) {
+        if (this.isNull(columnIndex)) {
+            return null;
+        }
+        return switch (this.columnBlueprints[columnIndex].getType()) {
+            case CHAR -> this.getChar(columnIndex);
+            case VARCHAR -> this.getVarchar(columnIndex);
+            case INT -> this.getInt(columnIndex);
+            case BIGINT -> this.getBigint(columnIndex);
+            case DOUBLE -> this.getDouble(columnIndex);
+            case DATE -> this.getDate(columnIndex);
+        };
+    }
+
+    public String getChar(String columnName) {
+        return this.getChar(this.table.getColumnIndex(columnName));
+    }
+
+    public String getVarchar(String columnName) {
+        return this.getVarchar(this.table.getColumnIndex(columnName));
+    }
+
+    private void checkType(int columnIndex, Column.DataType type) {
+        if (this.columnBlueprints[columnIndex].getType() != type) {
+            throw new IllegalArgumentException("Column [" + this.columnBlueprints[columnIndex].getName() + "] is not " + type.getValue() + " type");
+        }
+    }
+
+    // copies the record out of the page
+    public Record toRecord() {
+        return new Record(this.table, this.page.slice(this.offset, this.page.limit() - this.offset)).setRecordId(this.recordId);
+    }
+}
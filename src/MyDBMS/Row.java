@@ -0,0 +1,56 @@
+package MyDBMS;
+
+import java.util.Arrays;
+
+// projected record, holds only the selected columns in the order they were selected
+public class Row {
+    // shared by all rows of a result
+    private final String[] columns;
+    private final Object[] values;
+
+    public Row(String[] columns, Object[] values) {
+        if (columns.length != values.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " values but got " + values.length);
+        }
+        this.columns = columns;
+        this.values = values;
+    }
+
+    public String[] getColumns() {
+        return this.columns.clone();
+    }
+
+    public int size() {
+        return this.values.length;
+    }
+
+    public Object getValue(int index) {
+        return this.values[index];
+    }
+
+    public Object getValue(String column) {
+        for (int i = 0; i < this.columns.length; i++) {
+            if (this.columns[i].equals(column)) {
+                return this.values[i];
+            }
+        }
+        throw new IllegalArgumentException("Column [" + column + "] is not selected");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Row row)) return false;
+        return Arrays.equals(this.columns, row.columns) && Arrays.equals(this.values, row.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(this.columns) + Arrays.hashCode(this.values);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(this.values);
+    }
+}
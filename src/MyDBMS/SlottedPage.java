@@ -2,74 +2,182 @@ package MyDBMS;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 public class SlottedPage {
+    private static final int HEADER_SIZE = 2;
+    private static final int SLOT_SIZE = 4;
+
     private final Table table;
+    private final ByteBuffer page;
+    // records read from the page get record ids when it is known
+    private final int pageIndex;
     private int numberOfEntries;
-    private final List<Record> entries;
+    // records are packed from the end of the page down to this offset
+    private int freeSpaceEndOffset;
+    private int recordBytes;
 
     public SlottedPage(Table table, byte[] payload) {
-        this(table);
-        this.parseBytes(payload);
+        this(table, ByteBuffer.wrap(payload));
     }
 
-    public SlottedPage(Table table) {
+    public SlottedPage(Table table, ByteBuffer payload) {
+        this(table, payload, -1);
+    }
+
+    // records are read and written in place, payload may be a buffered page or a read-only mapped view
+    public SlottedPage(Table table, ByteBuffer payload, int pageIndex) {
         this.table = table;
-        this.numberOfEntries = 0;
-        this.entries = new ArrayList<>();
+        this.pageIndex = pageIndex;
+        this.page = payload.slice(payload.position(), BufferPage.PAGE_SIZE);
+        this.numberOfEntries = this.page.getShort(0);
+        // reused slots can point below later ones, tombstones keep their offset so their bytes are not taken twice
+        this.freeSpaceEndOffset = BufferPage.PAGE_SIZE;
+        this.recordBytes = 0;
+        for (int slot = 0; slot < this.numberOfEntries; slot++) {
+            this.freeSpaceEndOffset = Math.min(this.freeSpaceEndOffset, this.getSlotOffset(slot));
+            this.recordBytes += this.getSlotLength(slot);
+        }
     }
 
-    private void parseBytes(byte[] payload) {
-        ByteBuffer stream = ByteBuffer.wrap(payload);
+    public SlottedPage(Table table) {
+        this(table, ByteBuffer.allocate(BufferPage.PAGE_SIZE));
+    }
 
-        this.numberOfEntries = stream.getShort();
+    private int getSlotLength(int slot) {
+        return this.page.getShort(HEADER_SIZE + slot * SLOT_SIZE);
+    }
 
-        for (int i = 0; i < numberOfEntries; i++) {
-            int recordLength = stream.getShort();
-            int recordStartOffset = stream.getShort();
+    private int getSlotOffset(int slot) {
+        return this.page.getShort(HEADER_SIZE + slot * SLOT_SIZE + 2);
+    }
 
-            Record record = null;
-            if (recordLength > 0) {
-                byte[] recordBytes = new byte[recordLength];
-                stream.slice(recordStartOffset, recordBytes.length).get(recordBytes);
-                record = new Record(this.table, recordBytes);
-            }
-            this.entries.add(record);
-        }
+    private void setSlot(int slot, int length, int offset) {
+        this.page.putShort(HEADER_SIZE + slot * SLOT_SIZE, (short) length);
+        this.page.putShort(HEADER_SIZE + slot * SLOT_SIZE + 2, (short) offset);
     }
 
     public int getFreeSpaceSize() {
         return BufferPage.PAGE_SIZE
-                - 2
-                - this.numberOfEntries * 4
-                - this.getRecords().stream().mapToInt(record -> record.toByteArray().length).sum();
+                - HEADER_SIZE
+                - this.numberOfEntries * SLOT_SIZE
+                - this.recordBytes;
     }
 
-    public void addRecord(Record record) {
+    // returns the slot of the new record, the slot of a removed record is taken first
+    public int addRecord(Record record) {
         if (!this.table.getTableName().equals(record.getTableName())) {
             throw new IllegalArgumentException("Table mismatch");
         }
-        if (this.getFreeSpaceSize() < record.toByteArray().length) {
+        int length = record.getEncodedLength();
+        int slot = this.getFreeSlot();
+        // a new slot takes 4 bytes as well
+        int slotSize = slot < this.numberOfEntries ? 0 : SLOT_SIZE;
+        if (this.getFreeSpaceSize() < length + slotSize) {
             throw new IndexOutOfBoundsException("Page is full");
         }
-        this.numberOfEntries++;
-        this.entries.add(record);
+        if (this.freeSpaceEndOffset - length < HEADER_SIZE + this.numberOfEntries * SLOT_SIZE + slotSize) {
+            // enough space in total, but fragmented by removed records
+            this.compact();
+            slot = this.getFreeSlot();
+        }
+
+        this.freeSpaceEndOffset -= length;
+        record.writeTo(this.page, this.freeSpaceEndOffset);
+        this.setSlot(slot, length, this.freeSpaceEndOffset);
+        this.recordBytes += length;
+        if (slot == this.numberOfEntries) {
+            this.numberOfEntries++;
+            this.page.putShort(0, (short) this.numberOfEntries);
+        }
+        return slot;
+    }
+
+    private int getFreeSlot() {
+        for (int slot = 0; slot < this.numberOfEntries; slot++) {
+            if (this.getSlotLength(slot) == 0) {
+                return slot;
+            }
+        }
+        return this.numberOfEntries;
+    }
+
+    private void compact() {
+        byte[] snapshot = new byte[BufferPage.PAGE_SIZE];
+        this.page.get(0, snapshot);
+
+        int offset = BufferPage.PAGE_SIZE;
+        for (int slot = 0; slot < this.numberOfEntries; slot++) {
+            int length = this.getSlotLength(slot);
+            if (length > 0) {
+                offset -= length;
+                this.page.put(offset, snapshot, this.getSlotOffset(slot), length);
+            }
+            this.setSlot(slot, length, offset);
+        }
+        this.freeSpaceEndOffset = offset;
+        // removed records at the end give their slots back
+        while (this.numberOfEntries > 0 && this.getSlotLength(this.numberOfEntries - 1) == 0) {
+            this.numberOfEntries--;
+        }
+        this.page.putShort(0, (short) this.numberOfEntries);
+    }
+
+    public Record getRecord(int slot) {
+        if (slot < 0 || slot >= this.numberOfEntries) {
+            return null;
+        }
+        int length = this.getSlotLength(slot);
+        if (length == 0) {
+            return null;
+        }
+        Record record = new Record(this.table, this.page.slice(this.getSlotOffset(slot), length));
+        return this.pageIndex < 0 ? record : record.setRecordId(new RecordId(this.pageIndex, slot));
+    }
+
+    // points the view at the record in the slot, false if the slot is empty
+    public boolean readRecord(int slot, RecordView view) {
+        if (slot < 0 || slot >= this.numberOfEntries || this.getSlotLength(slot) == 0) {
+            return false;
+        }
+        view.moveTo(this.page, this.getSlotOffset(slot), this.pageIndex < 0 ? null : new RecordId(this.pageIndex, slot));
+        return true;
+    }
+
+    public boolean removeRecord(int slot) {
+        if (slot < 0 || slot >= this.numberOfEntries) {
+            return false;
+        }
+        int length = this.getSlotLength(slot);
+        if (length == 0) {
+            return false;
+        }
+        // the space is reclaimed by the next compaction
+        this.setSlot(slot, 0, this.getSlotOffset(slot));
+        this.recordBytes -= length;
+        return true;
     }
 
     public boolean removeRecord(Record record) {
-        int index = this.entries.indexOf(record);
-        if (index >= 0) {
-            this.entries.set(index, null);
-            return true;
+        RecordId recordId = record.getRecordId();
+        if (recordId != null && recordId.pageIndex() == this.pageIndex) {
+            return record.equals(this.getRecord(recordId.slot())) && this.removeRecord(recordId.slot());
+        }
+        for (int slot = 0; slot < this.numberOfEntries; slot++) {
+            if (record.equals(this.getRecord(slot))) {
+                return this.removeRecord(slot);
+            }
         }
         return false;
     }
 
     public void removeAll() {
-        Collections.fill(this.entries, null);
+        this.numberOfEntries = 0;
+        this.freeSpaceEndOffset = BufferPage.PAGE_SIZE;
+        this.recordBytes = 0;
+        this.page.putShort(0, (short) 0);
     }
 
     public int getNumberOfEntries() {
@@ -77,22 +185,35 @@ public class SlottedPage {
     }
 
     public List<Record> getRecords() {
-        return this.entries.stream().filter(Objects::nonNull).toList();
+        List<Record> records = new ArrayList<>(this.numberOfEntries);
+        for (int slot = 0; slot < this.numberOfEntries; slot++) {
+            Record record = this.getRecord(slot);
+            if (record != null) {
+                records.add(record);
+            }
+        }
+        return records;
     }
 
-    public byte[] toByteArray() {
-        ByteBuffer stream = ByteBuffer.allocate(BufferPage.PAGE_SIZE);
-        int freeSpaceEndOffset = BufferPage.PAGE_SIZE;
+    // only the records accepted by the filter are copied out of the page
+    public List<Record> getRecords(RecordView view, Predicate<RecordView> filter) {
+        return this.getRecords(view, filter, RecordView::toRecord);
+    }
 
-        stream.putShort((short) this.numberOfEntries);
-        for (Record record : this.entries) {
-            byte[] recordBytes = record == null ? new byte[0] : record.toByteArray();
-            stream.putShort((short) recordBytes.length);
-            freeSpaceEndOffset -= recordBytes.length;
-            stream.putShort((short) freeSpaceEndOffset);
-            stream.put(freeSpaceEndOffset, recordBytes);
+    // the mapper decides what is copied out of the page
+    public <T> List<T> getRecords(RecordView view, Predicate<RecordView> filter, Function<RecordView, T> mapper) {
+        List<T> records = new ArrayList<>();
+        for (int slot = 0; slot < this.numberOfEntries; slot++) {
+            if (this.readRecord(slot, view) && filter.test(view)) {
+                records.add(mapper.apply(view));
+            }
         }
+        return records;
+    }
 
-        return stream.array();
+    public byte[] toByteArray() {
+        byte[] result = new byte[BufferPage.PAGE_SIZE];
+        this.page.get(0, result);
+        return result;
     }
 }
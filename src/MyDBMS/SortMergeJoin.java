@@ -0,0 +1,98 @@
+package MyDBMS;
+
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// equi-join of two inputs sorted on their keys, without NULL keys, see Join for the keys
+// only the rows of one key of the right input are held at a time
+public class SortMergeJoin {
+    private final Join.Input left;
+    private final Join.Input right;
+    private final String[] outputColumns;
+
+    public SortMergeJoin(Join.Input left, Join.Input right) {
+        Join.checkKeys(left, right);
+        this.left = left;
+        this.right = right;
+        this.outputColumns = Join.getOutputColumns(left, right);
+    }
+
+    // closing the result closes both inputs
+    public Stream<Row> join(Stream<Row> left, Stream<Row> right) {
+        Iterator<Row> leftRows = left.iterator();
+        Iterator<Row> rightRows = right.iterator();
+        Iterator<Row> joined = new Iterator<>() {
+            private Row leftRow = leftRows.hasNext() ? leftRows.next() : null;
+            private Row rightRow = rightRows.hasNext() ? rightRows.next() : null;
+            // right rows of the current key and the left row they are joined with
+            private final List<Row> group = new ArrayList<>();
+            private int position = 0;
+            private Row groupLeftRow = null;
+
+            @Override
+            public boolean hasNext() {
+                while (this.groupLeftRow == null || this.position == this.group.size()) {
+                    if (!this.advance()) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public Row next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return Join.combine(SortMergeJoin.this.outputColumns,
+                        SortMergeJoin.this.left, this.groupLeftRow, SortMergeJoin.this.right, this.group.get(this.position++));
+            }
+
+            // moves to the next left row with matching right rows, false at the end of either input
+            private boolean advance() {
+                if (this.groupLeftRow != null) {
+                    // the next left row may have the same key as the group
+                    this.groupLeftRow = null;
+                    if (this.leftRow != null && !this.group.isEmpty()
+                            && Join.compareKeys(Join.getKey(this.leftRow, SortMergeJoin.this.left), Join.getKey(this.group.get(0), SortMergeJoin.this.right)) == 0) {
+                        this.groupLeftRow = this.leftRow;
+                        this.leftRow = leftRows.hasNext() ? leftRows.next() : null;
+                        this.position = 0;
+                        return true;
+                    }
+                    this.group.clear();
+                }
+                while (this.leftRow != null && this.rightRow != null) {
+                    Object leftKey = Join.getKey(this.leftRow, SortMergeJoin.this.left);
+                    Object rightKey = Join.getKey(this.rightRow, SortMergeJoin.this.right);
+                    int compare = Join.compareKeys(leftKey, rightKey);
+                    if (compare < 0) {
+                        this.leftRow = leftRows.hasNext() ? leftRows.next() : null;
+                    }
+                    else if (compare > 0) {
+                        this.rightRow = rightRows.hasNext() ? rightRows.next() : null;
+                    }
+                    else {
+                        while (this.rightRow != null && Join.compareKeys(Join.getKey(this.rightRow, SortMergeJoin.this.right), rightKey) == 0) {
+                            this.group.add(this.rightRow);
+                            this.rightRow = rightRows.hasNext() ? rightRows.next() : null;
+                        }
+                        this.groupLeftRow = this.leftRow;
+                        this.leftRow = leftRows.hasNext() ? leftRows.next() : null;
+                        this.position = 0;
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(joined, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try (left; right) {
+                        // both inputs are closed, even if closing the first one fails
+                    }
+                });
+    }
+}
@@ -0,0 +1,161 @@
+package MyDBMS;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// temporary file of records for operators that run out of memory, written once and then read back in order
+// records are written and read through FilePool a block at a time
+public class SpillFile implements Closeable {
+    public static final String FILE_EXTENSION = ".spill";
+    public static final int BLOCK_SIZE = 4 * BufferPage.PAGE_SIZE;
+    // length, page index and slot of the record id
+    private static final int ENTRY_HEADER_SIZE = 12;
+    private static final AtomicLong sequence = new AtomicLong();
+
+    private final Table table;
+    private final String fileName;
+    private final ByteBuffer block;
+    private long size;
+    private long count;
+
+    public SpillFile(Table table) throws IOException {
+        this.table = table;
+        this.fileName = table.getTableName() + "." + sequence.incrementAndGet() + FILE_EXTENSION;
+        // a file left behind by a crashed query is overwritten, spilled records need no durability
+        DBMS.getInstance().getFilePool().createTemporary(this.fileName);
+        this.block = ByteBuffer.allocate(BLOCK_SIZE);
+        this.size = 0;
+        this.count = 0;
+    }
+
+    public String getFileName() {
+        return this.fileName;
+    }
+
+    public long getCount() {
+        return this.count;
+    }
+
+    public void write(Record record) throws IOException {
+        int length = record.getEncodedLength();
+        if (ENTRY_HEADER_SIZE + length > BLOCK_SIZE) {
+            throw new IllegalArgumentException("Record is too large to spill");
+        }
+        if (this.block.remaining() < ENTRY_HEADER_SIZE + length) {
+            this.flush();
+        }
+        RecordId recordId = record.getRecordId();
+        int position = this.block.position();
+        this.block.putInt(position, length);
+        this.block.putInt(position + 4, recordId == null ? -1 : recordId.pageIndex());
+        this.block.putInt(position + 8, recordId == null ? -1 : recordId.slot());
+        record.writeTo(this.block, position + ENTRY_HEADER_SIZE);
+        this.block.position(position + ENTRY_HEADER_SIZE + length);
+        this.count++;
+    }
+
+    // a row with a value for every column of the table, in column order
+    public void write(Row row) throws IOException {
+        Column[] columns = this.table.getColumns();
+        Record record = new Record(this.table);
+        for (int i = 0; i < columns.length; i++) {
+            record.setValue(columns[i].getName(), row.getValue(i));
+        }
+        this.write(record);
+    }
+
+    // writes the buffered records, the file can be read once everything is flushed
+    public void flush() throws IOException {
+        if (this.block.position() == 0) {
+            return;
+        }
+        this.block.flip();
+        DBMS.getInstance().getFilePool().write(this.fileName, this.size, this.block);
+        this.size += this.block.limit();
+        this.block.clear();
+    }
+
+    // records in the order they were written, reading failures are thrown as UncheckedIOException
+    public Iterator<Record> read() throws IOException {
+        this.flush();
+        return new Iterator<>() {
+            private final ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE).limit(0);
+            private long position = 0;
+            private long remaining = SpillFile.this.count;
+
+            @Override
+            public boolean hasNext() {
+                return this.remaining > 0;
+            }
+
+            @Override
+            public Record next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    this.fill(ENTRY_HEADER_SIZE);
+                    int length = this.block.getInt(this.block.position());
+                    this.fill(ENTRY_HEADER_SIZE + length);
+                    int start = this.block.position();
+                    int pageIndex = this.block.getInt(start + 4);
+                    Record record = new Record(SpillFile.this.table, this.block.slice(start + ENTRY_HEADER_SIZE, length));
+                    if (pageIndex >= 0) {
+                        record.setRecordId(new RecordId(pageIndex, this.block.getInt(start + 8)));
+                    }
+                    this.block.position(start + ENTRY_HEADER_SIZE + length);
+                    this.remaining--;
+                    return record;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            // makes sure the next bytes of the file are in the block
+            private void fill(int bytes) throws IOException {
+                if (this.block.remaining() >= bytes) {
+                    return;
+                }
+                this.block.compact();
+                int length = (int) Math.min(this.block.remaining(), SpillFile.this.size - this.position);
+                this.block.limit(this.block.position() + length);
+                DBMS.getInstance().getFilePool().read(SpillFile.this.fileName, this.position, this.block);
+                this.position += length;
+                this.block.flip();
+            }
+        };
+    }
+
+    // records as rows of every column in column order
+    public Iterator<Row> readRows() throws IOException {
+        String[] columns = Arrays.stream(this.table.getColumns()).map(Column::getName).toArray(String[]::new);
+        Iterator<Record> records = this.read();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return records.hasNext();
+            }
+
+            @Override
+            public Row next() {
+                Record record = records.next();
+                Object[] values = new Object[columns.length];
+                for (int i = 0; i < columns.length; i++) {
+                    values[i] = record.getValue(columns[i]);
+                }
+                return new Row(columns, values);
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        DBMS.getInstance().getFilePool().delete(this.fileName);
+    }
+}
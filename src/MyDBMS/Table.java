@@ -1,15 +1,26 @@
 package MyDBMS;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 public class Table {
     private final String tableName;
     private final HashMap<String, Column> columns;
+    private final Map<String, Integer> columnIndexes;
     private final String primaryColumn;
+    private final FreeSpaceMap freeSpaceMap;
+    private final BTreeIndex primaryIndex;
+    private final Map<String, Index> indexes;
 
     public Table(String tableName, Column[] columns) {
         this(tableName, columns, null);
@@ -30,10 +41,20 @@ public class Table {
                 },
                 LinkedHashMap::new
         ));
+        this.columnIndexes = new HashMap<>();
+        for (Column column : columns) {
+            this.columnIndexes.put(column.getName(), this.columnIndexes.size());
+        }
         if (primaryColumn != null && !this.columns.containsKey(primaryColumn)) {
             throw new IllegalArgumentException("primary column does not exists in columns");
         }
         this.primaryColumn = primaryColumn;
+        this.freeSpaceMap = new FreeSpaceMap(this);
+        // keys longer than an index entry allows are found by scanning
+        this.primaryIndex = primaryColumn != null && this.columns.get(primaryColumn).getSize() <= BTreeIndex.MAX_KEY_SIZE
+                ? new BTreeIndex(this, primaryColumn)
+                : null;
+        this.indexes = new ConcurrentHashMap<>();
     }
 
     public String getTableName() {
@@ -44,58 +65,466 @@ public class Table {
         return this.columns.values().toArray(Column[]::new);
     }
 
+    public Column getColumn(String column) {
+        return this.columns.get(column);
+    }
+
+    // position of the column in the record
+    public int getColumnIndex(String column) {
+        Integer columnIndex = this.columnIndexes.get(column);
+        if (columnIndex == null) {
+            throw new IllegalArgumentException("Column [" + column + "] does not exists");
+        }
+        return columnIndex;
+    }
+
+    // layout of rows with only the given columns, used to spill projected rows, it stores nothing itself
+    public Table project(String[] columns) {
+        Column[] columnBlueprints = new Column[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            columnBlueprints[i] = this.columns.get(columns[i]);
+            if (columnBlueprints[i] == null) {
+                throw new IllegalArgumentException("Column [" + columns[i] + "] does not exists");
+            }
+        }
+        return new Table(this.getTableName(), columnBlueprints);
+    }
+
     public String getPrimaryColumn() {
         return this.primaryColumn;
     }
 
+    public BTreeIndex getPrimaryIndex() {
+        return this.primaryIndex;
+    }
+
+    public void addIndex(Index index) {
+        if (!this.columns.containsKey(index.getColumn())) {
+            throw new IllegalArgumentException("Column [" + index.getColumn() + "] does not exists");
+        }
+        if (this.indexes.putIfAbsent(index.getColumn(), index) != null) {
+            throw new IllegalArgumentException("Index on column [" + index.getColumn() + "] already exists");
+        }
+    }
+
+    public Index removeIndex(String column) {
+        return this.indexes.remove(column);
+    }
+
+    // index used to look up the column, a secondary index is preferred over the primary one
+    public Index getIndex(String column) {
+        Index index = this.indexes.get(column);
+        if (index == null && column.equals(this.getPrimaryColumn())) {
+            return this.primaryIndex;
+        }
+        return index;
+    }
+
+    // true if the column can be read in the order of its values, see streamOrdered
+    public boolean hasOrderedIndex(String column) {
+        return this.indexes.get(column) instanceof BTreeIndex || column.equals(this.getPrimaryColumn()) && this.primaryIndex != null;
+    }
+
+    public Collection<Index> getIndexes() {
+        return Collections.unmodifiableCollection(this.indexes.values());
+    }
+
+    private List<Index> getAllIndexes() {
+        List<Index> indexes = new ArrayList<>(this.indexes.values());
+        if (this.primaryIndex != null) {
+            indexes.add(this.primaryIndex);
+        }
+        return indexes;
+    }
+
     public Stream<Record> getAllRecords() {
         return Stream
                 .iterate(0, n -> n + 1)
-                .map(i -> {
-                    try {
-                        return DBMS.getInstance().getBufferManager().getPage(this.getTableName(), i);
-                    } catch (IOException e) {
-                        return null;
-                    }
-                })
+                .map(this::readRecords)
                 .takeWhile(Objects::nonNull)
-                .flatMap(page -> new SlottedPage(this, page.getPayload()).getRecords().stream());
+                .flatMap(List::stream);
+    }
+
+    private List<Record> readRecords(int index) {
+        return this.readPage(index, SlottedPage::getRecords);
     }
 
-    public boolean addRecord(Record record) {
+    // null if the page does not exist
+    private <T> T readPage(int index, Function<SlottedPage, T> reader) {
+        FilePool filePool = DBMS.getInstance().getFilePool();
+        BufferManager bufferManager = DBMS.getInstance().getBufferManager();
+
+        if (filePool.isMemoryMapped() && !bufferManager.contains(this.getTableName(), index)) {
+            // records are decoded straight from the mapped file, the page is not brought into the buffer
+            try {
+                ByteBuffer mapped = filePool.map(this.getTableName(), (long) index * BufferPage.PAGE_SIZE, BufferPage.PAGE_SIZE);
+                if (mapped != null) {
+                    return reader.apply(new SlottedPage(this, mapped, index));
+                }
+                // past the end of file, the page may exist only in the buffer
+            } catch (IOException e) {
+                // read through the buffer instead
+            }
+        }
+
+        BufferPage page;
+        try {
+            page = bufferManager.getPage(this.getTableName(), index);
+        } catch (IOException e) {
+            return null;
+        }
+        page.readLock();
+        try {
+            return reader.apply(new SlottedPage(this, page.getBuffer(), index));
+        } finally {
+            page.readUnlock();
+            page.unpin();
+        }
+    }
+
+    public synchronized boolean addRecord(Record record) {
         if (this.getPrimaryColumn() != null) {
-            Object primaryKey = switch (this.columns.get(this.getPrimaryColumn()).getType()) {
-                case CHAR -> record.getChar(this.getPrimaryColumn());
-                case VARCHAR -> record.getVarchar(this.getPrimaryColumn());
-            };
-            if (this.find(primaryKey) != null) {
+            if (this.find(record.getValue(this.getPrimaryColumn())) != null) {
                 return false;
             }
         }
 
+        // the new slot takes 4 bytes as well
+        int recordSize = record.getEncodedLength() + 4;
+        if (recordSize > BufferPage.PAGE_SIZE - 2) {
+            // does not fit even in an empty page
+            return false;
+        }
+
+        try {
+            boolean rebuilt = false;
+            while (true) {
+                int index = this.freeSpaceMap.findPage(recordSize);
+                BufferPage bufferPage;
+                if (index >= 0) {
+                    bufferPage = this.getExistingPage(index);
+                } else {
+                    index = this.freeSpaceMap.getPageCount();
+                    bufferPage = this.appendPage(index);
+                }
+                if (bufferPage == null) {
+                    // free space map does not match the table file
+                    if (rebuilt) {
+                        return false;
+                    }
+                    this.freeSpaceMap.rebuild();
+                    rebuilt = true;
+                    continue;
+                }
+
+                bufferPage.writeLock();
+                try {
+                    SlottedPage slottedPage = new SlottedPage(this, bufferPage.getBuffer(), index);
+                    int slot;
+                    try {
+                        slot = slottedPage.addRecord(record);
+                    } catch (IndexOutOfBoundsException e) {
+                        // page full, free space map was out of date
+                        this.freeSpaceMap.update(index, slottedPage.getFreeSpaceSize());
+                        continue;
+                    }
+                    bufferPage.markDirty();
+                    this.freeSpaceMap.update(index, slottedPage.getFreeSpaceSize());
+                    record.setRecordId(new RecordId(index, slot));
+                    try {
+                        this.addToIndexes(record, record.getRecordId());
+                    } catch (IOException e) {
+                        // the record is only added along with all its index entries, readers wait on the page meanwhile
+                        this.removeFromIndexes(record, record.getRecordId());
+                        slottedPage.removeRecord(slot);
+                        this.freeSpaceMap.update(index, slottedPage.getFreeSpaceSize());
+                        record.setRecordId(null);
+                        return false;
+                    }
+                    return true;
+                } finally {
+                    bufferPage.writeUnlock();
+                    bufferPage.unpin();
+                }
+            }
+        } catch (IOException e) {
+            // unknown error
+            return false;
+        }
+    }
+
+    private BufferPage getExistingPage(int index) {
+        try {
+            return DBMS.getInstance().getBufferManager().getPage(this.getTableName(), index);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private BufferPage appendPage(int index) throws IOException {
+        BufferManager bufferManager = DBMS.getInstance().getBufferManager();
+        // pages are contiguous, so the previous page must exist and this one must not
+        if (index > 0) {
+            BufferPage previous = this.getExistingPage(index - 1);
+            if (previous == null) {
+                return null;
+            }
+            previous.unpin();
+        }
+        BufferPage existing = this.getExistingPage(index);
+        if (existing != null) {
+            existing.unpin();
+            return null;
+        }
+        return bufferManager.getEmptyPage(this.getTableName(), index);
+    }
+
+    private void addToIndexes(Record record, RecordId recordId) throws IOException {
+        for (Index index : this.getAllIndexes()) {
+            index.insert(record.getValue(index.getColumn()), recordId);
+        }
+    }
+
+    private void removeFromIndexes(Record record, RecordId recordId) {
+        for (Index index : this.getAllIndexes()) {
+            try {
+                index.delete(record.getValue(index.getColumn()), recordId);
+            } catch (IOException e) {
+                // entries without a record are dropped when they are looked up
+            }
+        }
+    }
+
+    // visits every record with its id, used to build indexes
+    void forEachRecord(BiConsumer<RecordId, Record> consumer) {
+        BufferManager bufferManager = DBMS.getInstance().getBufferManager();
         for (int i = 0; ; i++) {
-            BufferPage bufferPage;
+            BufferPage page;
             try {
-                bufferPage = DBMS.getInstance().getBufferManager().getPage(this.getTableName(), i);
+                page = bufferManager.getPage(this.getTableName(), i);
             } catch (IOException e) {
                 // end of file
-                try {
-                    bufferPage = DBMS.getInstance().getBufferManager().getEmptyPage(this.getTableName(), i);
-                } catch (IOException ex) {
-                    // unknown error
-                    return false;
-                }
+                return;
             }
-            SlottedPage slottedPage = new SlottedPage(this, bufferPage.getPayload());
+            page.readLock();
             try {
-                slottedPage.addRecord(record);
-            } catch (Exception e) {
-                // page full
+                for (Record record : new SlottedPage(this, page.getBuffer(), i).getRecords()) {
+                    consumer.accept(record.getRecordId(), record);
+                }
+            } finally {
+                page.readUnlock();
+                page.unpin();
+            }
+        }
+    }
+
+    // reads only the page holding the record, null if the record does not exist
+    public Record fetch(RecordId recordId) {
+        BufferPage page;
+        try {
+            page = DBMS.getInstance().getBufferManager().getPage(this.getTableName(), recordId.pageIndex());
+        } catch (IOException e) {
+            return null;
+        }
+        page.readLock();
+        try {
+            return new SlottedPage(this, page.getBuffer(), recordId.pageIndex()).getRecord(recordId.slot());
+        } finally {
+            page.readUnlock();
+            page.unpin();
+        }
+    }
+
+    // records with the given ids that pass the matcher, read one page at a time, ids without a record go to missing
+    private <T> SortedMap<RecordId, T> fetch(Collection<RecordId> recordIds, Predicate<RecordView> matcher, Function<RecordView, T> mapper, List<RecordId> missing) {
+        List<RecordId> sorted = new ArrayList<>(recordIds);
+        Collections.sort(sorted);
+        RecordView view = new RecordView(this);
+        SortedMap<RecordId, T> records = new TreeMap<>();
+        int i = 0;
+        while (i < sorted.size()) {
+            int pageIndex = sorted.get(i).pageIndex();
+            int end = i;
+            while (end < sorted.size() && sorted.get(end).pageIndex() == pageIndex) {
+                end++;
+            }
+            BufferPage page = this.getExistingPage(pageIndex);
+            if (page == null) {
+                missing.addAll(sorted.subList(i, end));
+                i = end;
                 continue;
             }
-            bufferPage.setPayload(slottedPage.toByteArray());
-            return true;
+            page.readLock();
+            try {
+                SlottedPage slottedPage = new SlottedPage(this, page.getBuffer(), pageIndex);
+                for (; i < end; i++) {
+                    RecordId recordId = sorted.get(i);
+                    if (!slottedPage.readRecord(recordId.slot(), view)) {
+                        missing.add(recordId);
+                    }
+                    else if (matcher.test(view)) {
+                        records.put(recordId, mapper.apply(view));
+                    }
+                }
+            } finally {
+                page.readUnlock();
+                page.unpin();
+            }
+        }
+        return records;
+    }
+
+    private SortedMap<RecordId, Record> lookup(String column, Object value) {
+        return this.lookup(column, value, false);
+    }
+
+    // records matching the value in record id order, or null if the column has to be scanned
+    private SortedMap<RecordId, Record> lookup(String column, Object value, boolean not) {
+        Index index = this.getIndex(column);
+        if (index == null) {
+            return null;
+        }
+        value = this.columns.get(column).widen(value);
+        try {
+            List<RecordId> recordIds = not ? index.searchNot(value) : index.search(value);
+            if (recordIds == null) {
+                return null;
+            }
+            List<RecordId> missing = new ArrayList<>();
+            SortedMap<RecordId, Record> records = this.fetch(recordIds, this.getMatcher(column, value, not), RecordView::toRecord, missing);
+            if (!not) {
+                // the entries outlived their records
+                for (RecordId recordId : missing) {
+                    index.delete(value, recordId);
+                }
+            }
+            return records;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // record ids that may be in the range, or null if no ordered index covers the column
+    private List<RecordId> searchRange(String column, Object from, boolean fromInclusive, Object to, boolean toInclusive) {
+        // a secondary index on the primary column may not be ordered
+        List<Index> indexes = new ArrayList<>(2);
+        if (this.indexes.containsKey(column)) {
+            indexes.add(this.indexes.get(column));
+        }
+        if (column.equals(this.getPrimaryColumn()) && this.primaryIndex != null) {
+            indexes.add(this.primaryIndex);
+        }
+        if (!indexes.isEmpty()) {
+            from = this.columns.get(column).widen(from);
+            to = this.columns.get(column).widen(to);
         }
+        for (Index index : indexes) {
+            try {
+                List<RecordId> recordIds = index.searchRange(from, fromInclusive, to, toInclusive);
+                if (recordIds != null) {
+                    return recordIds;
+                }
+            } catch (IOException e) {
+                // try the next index or scan
+            }
+        }
+        return null;
+    }
+
+    // records in the range in record id order, or null if the column has to be scanned
+    private SortedMap<RecordId, Record> lookupRange(String column, Object from, boolean fromInclusive, Object to, boolean toInclusive) {
+        List<RecordId> recordIds = this.searchRange(column, from, fromInclusive, to, toInclusive);
+        if (recordIds == null) {
+            return null;
+        }
+        return this.fetch(recordIds, this.getRangeMatcher(column, from, fromInclusive, to, toInclusive), RecordView::toRecord, new ArrayList<>());
+    }
+
+    // record ids that may match the condition, or null if it needs a scan
+    // conjuncts with an index narrow the candidates, a disjunction needs an index for every branch
+    private CompressedBitmap getCandidates(Condition condition) throws IOException {
+        List<RecordId> recordIds = null;
+        if (condition instanceof Condition.Equal equal) {
+            Index index = this.getIndex(equal.column());
+            if (index != null) {
+                Object value = this.columns.get(equal.column()).widen(equal.value());
+                recordIds = equal.not() ? index.searchNot(value) : index.search(value);
+            }
+        }
+        else if (condition instanceof Condition.Range range) {
+            recordIds = this.searchRange(range.column(), range.from(), range.fromInclusive(), range.to(), range.toInclusive());
+        }
+        else if (condition instanceof Condition.And and) {
+            CompressedBitmap candidates = null;
+            for (Condition child : and.conditions()) {
+                CompressedBitmap childCandidates = this.getCandidates(child);
+                if (childCandidates != null) {
+                    candidates = candidates == null ? childCandidates : candidates.and(childCandidates);
+                    if (candidates.isEmpty()) {
+                        return candidates;
+                    }
+                }
+            }
+            return candidates;
+        }
+        else if (condition instanceof Condition.Or or) {
+            CompressedBitmap candidates = new CompressedBitmap();
+            for (Condition child : or.conditions()) {
+                CompressedBitmap childCandidates = this.getCandidates(child);
+                if (childCandidates == null) {
+                    return null;
+                }
+                candidates = candidates.or(childCandidates);
+            }
+            return candidates;
+        }
+
+        if (recordIds == null) {
+            return null;
+        }
+        CompressedBitmap candidates = new CompressedBitmap();
+        for (RecordId recordId : recordIds) {
+            candidates.add(BitmapIndex.getPosition(recordId));
+        }
+        return candidates;
+    }
+
+    private CompressedBitmap findCandidates(Condition condition) {
+        try {
+            return this.getCandidates(condition);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // candidates are fetched a page at a time as the stream is consumed
+    private <T> Stream<T> fetch(CompressedBitmap candidates, Predicate<RecordView> matcher, Function<RecordView, T> mapper) {
+        return IntStream
+                .iterate(candidates.nextValue(0), position -> position >= 0,
+                        position -> candidates.nextValue((position / BitmapIndex.SLOTS_PER_PAGE + 1) * BitmapIndex.SLOTS_PER_PAGE))
+                .mapToObj(first -> {
+                    int end = (first / BitmapIndex.SLOTS_PER_PAGE + 1) * BitmapIndex.SLOTS_PER_PAGE;
+                    List<RecordId> recordIds = new ArrayList<>();
+                    for (int position = first; position >= 0 && position < end; position = candidates.nextValue(position + 1)) {
+                        recordIds.add(BitmapIndex.getRecordId(position));
+                    }
+                    return this.fetch(recordIds, matcher, mapper, new ArrayList<>()).values();
+                })
+                .flatMap(Collection::stream);
+    }
+
+    // matches in record id order, pages are read only as far as the stream is consumed
+    // so a limit stops the query early, a null condition selects every record
+    private <T> Stream<T> query(Condition condition, Function<RecordView, T> mapper) {
+        if (condition == null) {
+            return this.scan(view -> true, mapper);
+        }
+        Predicate<RecordView> matcher = this.compile(condition).predicate();
+        CompressedBitmap candidates = this.findCandidates(condition);
+        if (candidates == null) {
+            return this.scan(matcher, mapper);
+        }
+        return this.fetch(candidates, matcher, mapper);
     }
 
     public Record find(Object value) {
@@ -103,9 +532,14 @@ public class Table {
             return null;
         }
 
-        Record[] records = this.where(this.getPrimaryColumn(), value);
+        SortedMap<RecordId, Record> records = this.lookup(this.getPrimaryColumn(), value);
+        if (records != null) {
+            return records.isEmpty() ? null : records.get(records.firstKey());
+        }
 
-        return records.length > 0 ? records[0] : null;
+        Record[] found = this.where(this.getPrimaryColumn(), value);
+
+        return found.length > 0 ? found[0] : null;
     }
 
     public Record[] where(String column, Object value) {
@@ -121,9 +555,205 @@ public class Table {
             throw new IllegalArgumentException("Column [" + column + "] does not exists");
         }
 
+        SortedMap<RecordId, Record> records = this.lookup(column, value, not);
+        if (records != null) {
+            return records.values().toArray(Record[]::new);
+        }
+
+        return this.scan(this.getMatcher(column, value, not), RecordView::toRecord).toArray(Record[]::new);
+    }
+
+    // records with a value between from and to, a null bound leaves that side open and null values never match
+    public Record[] whereRange(String column, Object from, boolean fromInclusive, Object to, boolean toInclusive) {
+        if (!this.columns.containsKey(column)) {
+            throw new IllegalArgumentException("Column [" + column + "] does not exists");
+        }
+
+        SortedMap<RecordId, Record> records = this.lookupRange(column, from, fromInclusive, to, toInclusive);
+        if (records != null) {
+            return records.values().toArray(Record[]::new);
+        }
+
+        return this.scan(this.getRangeMatcher(column, from, fromInclusive, to, toInclusive), RecordView::toRecord).toArray(Record[]::new);
+    }
+
+    public Record[] where(Condition condition) {
+        return this.stream(condition).toArray(Record[]::new);
+    }
+
+    public Stream<Record> stream(Condition condition) {
+        return this.query(condition, RecordView::toRecord);
+    }
+
+    // only the given columns are decoded, the rest of the record is never copied out of the page
+    // a null condition selects every record
+    public Row[] select(String[] columns, Condition condition) {
+        return this.stream(columns, condition).toArray(Row[]::new);
+    }
+
+    public Stream<Row> stream(String[] columns, Condition condition) {
+        return this.query(condition, this.getProjection(columns));
+    }
+
+    // rows in the order of the column values through its ordered index, or null if it has none
+    // records with a NULL value are left out, each record is read from its page on its own
+    public Stream<Row> streamOrdered(String[] columns, Condition condition, String orderColumn) {
+        if (!this.hasOrderedIndex(orderColumn)) {
+            return null;
+        }
+        Function<RecordView, Row> projection = this.getProjection(columns);
+        List<RecordId> recordIds = this.searchRange(orderColumn, null, false, null, false);
+        if (recordIds == null) {
+            return null;
+        }
+        Predicate<RecordView> matcher = condition == null ? view -> true : this.compile(condition).predicate();
+        RecordView view = new RecordView(this);
+        return recordIds.stream()
+                .map(recordId -> this.readPage(recordId.pageIndex(),
+                        slottedPage -> slottedPage.readRecord(recordId.slot(), view) && matcher.test(view) ? projection.apply(view) : null))
+                .filter(Objects::nonNull);
+    }
+
+    private Function<RecordView, Row> getProjection(String[] columns) {
+        int[] columnIndexes = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            columnIndexes[i] = this.getColumnIndex(columns[i]);
+        }
+        String[] names = columns.clone();
+        return view -> {
+            Object[] values = new Object[columnIndexes.length];
+            for (int i = 0; i < columnIndexes.length; i++) {
+                values[i] = view.getValue(columnIndexes[i]);
+            }
+            return new Row(names, values);
+        };
+    }
+
+    private record Matcher(Predicate<RecordView> predicate, int cost) {
+    }
+
+    // cheaper tests of a conjunction or disjunction run first, so most records are decided early
+    private Matcher compile(Condition condition) {
+        if (condition instanceof Condition.Equal equal) {
+            return new Matcher(this.getMatcher(equal.column(), equal.value(), equal.not()), this.getCost(equal.column(), equal.value() == null));
+        }
+        if (condition instanceof Condition.Range range) {
+            return new Matcher(
+                    this.getRangeMatcher(range.column(), range.from(), range.fromInclusive(), range.to(), range.toInclusive()),
+                    this.getCost(range.column(), false) * (range.from() != null && range.to() != null ? 2 : 1));
+        }
+        if (condition instanceof Condition.Not not) {
+            Matcher matcher = this.compile(not.condition());
+            return new Matcher(matcher.predicate().negate(), matcher.cost());
+        }
+
+        boolean and = condition instanceof Condition.And;
+        List<Matcher> matchers = (and ? ((Condition.And) condition).conditions() : ((Condition.Or) condition).conditions())
+                .stream()
+                .map(this::compile)
+                .sorted(Comparator.comparingInt(Matcher::cost))
+                .toList();
+        if (matchers.isEmpty()) {
+            // empty conjunction is true, empty disjunction is false
+            return new Matcher(view -> and, 0);
+        }
+        Predicate<RecordView> predicate = matchers.get(0).predicate();
+        int cost = matchers.get(0).cost();
+        for (Matcher matcher : matchers.subList(1, matchers.size())) {
+            predicate = and ? predicate.and(matcher.predicate()) : predicate.or(matcher.predicate());
+            cost += matcher.cost();
+        }
+        return new Matcher(predicate, cost);
+    }
+
+    // rough cost of testing a column, a null test reads only the null bitmap
+    private int getCost(String column, boolean nullTest) {
+        Column columnBlueprint = this.columns.get(column);
+        if (columnBlueprint == null) {
+            throw new IllegalArgumentException("Column [" + column + "] does not exists");
+        }
+        if (nullTest) {
+            return 1;
+        }
+        Column.DataType type = columnBlueprint.getType();
+        return type == Column.DataType.CHAR || type == Column.DataType.VARCHAR ? 2 + columnBlueprint.getSize() / 16 : 2;
+    }
+
+    // rows are tested in place, only matching ones are copied out of the page
+    private <T> Stream<T> scan(Predicate<RecordView> matcher, Function<RecordView, T> mapper) {
+        RecordView view = new RecordView(this);
+        return Stream
+                .iterate(0, n -> n + 1)
+                .map(index -> this.readPage(index, slottedPage -> slottedPage.getRecords(view, matcher, mapper)))
+                .takeWhile(Objects::nonNull)
+                .flatMap(List::stream);
+    }
+
+    private Predicate<RecordView> getMatcher(String column, Object value, boolean not) {
+        int columnIndex = this.getColumnIndex(column);
+        Predicate<RecordView> matcher;
+        if (value == null) {
+            matcher = view -> view.isNull(columnIndex);
+        }
+        else {
+            ToIntFunction<RecordView> comparator = this.getComparator(column, value);
+            matcher = comparator == null
+                    ? view -> false
+                    : view -> !view.isNull(columnIndex) && comparator.applyAsInt(view) == 0;
+        }
+        return not ? matcher.negate() : matcher;
+    }
+
+    private Predicate<RecordView> getRangeMatcher(String column, Object from, boolean fromInclusive, Object to, boolean toInclusive) {
+        int columnIndex = this.getColumnIndex(column);
+        ToIntFunction<RecordView> lower = from == null ? view -> 1 : this.getComparator(column, from);
+        ToIntFunction<RecordView> upper = to == null ? view -> -1 : this.getComparator(column, to);
+        if (lower == null || upper == null) {
+            return view -> false;
+        }
+        return view -> {
+            if (view.isNull(columnIndex)) {
+                return false;
+            }
+            int compare = lower.applyAsInt(view);
+            if (compare < 0 || compare == 0 && !fromInclusive) {
+                return false;
+            }
+            compare = upper.applyAsInt(view);
+            return compare < 0 || compare == 0 && toInclusive;
+        };
+    }
+
+    // compares the column of a non-null record with the value in the order of the index keys
+    // null if the value is of another type, such values never match
+    private ToIntFunction<RecordView> getComparator(String column, Object value) {
+        int columnIndex = this.getColumnIndex(column);
+        value = this.columns.get(column).widen(value);
+        if (!this.columns.get(column).accepts(value)) {
+            return null;
+        }
         return switch (this.columns.get(column).getType()) {
-            case CHAR -> this.getAllRecords().filter(record -> not ^ Objects.equals(record.getChar(column), value)).toArray(Record[]::new);
-            case VARCHAR -> this.getAllRecords().filter(record -> not ^ Objects.equals(record.getVarchar(column), value)).toArray(Record[]::new);
+            case CHAR, VARCHAR -> {
+                byte[] bytes = ((String) value).getBytes();
+                yield view -> view.compareBytes(columnIndex, bytes);
+            }
+            case INT -> {
+                int expected = (Integer) value;
+                yield view -> Integer.compare(view.getInt(columnIndex), expected);
+            }
+            case BIGINT -> {
+                long expected = (Long) value;
+                yield view -> Long.compare(view.getBigint(columnIndex), expected);
+            }
+            case DOUBLE -> {
+                // same as Double.equals for equality, NaN matches itself
+                double expected = (Double) value;
+                yield view -> Double.compare(view.getDouble(columnIndex), expected);
+            }
+            case DATE -> {
+                long expected = ((LocalDate) value).toEpochDay();
+                yield view -> Long.compare(view.getEpochDay(columnIndex), expected);
+            }
         };
     }
 
@@ -135,6 +765,31 @@ public class Table {
         return this.delete(this.getPrimaryColumn(), primaryKey) > 0;
     }
 
+    public synchronized boolean delete(RecordId recordId) {
+        BufferPage bufferPage;
+        try {
+            bufferPage = DBMS.getInstance().getBufferManager().getPage(this.getTableName(), recordId.pageIndex());
+        } catch (IOException e) {
+            return false;
+        }
+        bufferPage.writeLock();
+        try {
+            SlottedPage slottedPage = new SlottedPage(this, bufferPage.getBuffer(), recordId.pageIndex());
+            Record record = slottedPage.getRecord(recordId.slot());
+            if (record == null) {
+                return false;
+            }
+            slottedPage.removeRecord(recordId.slot());
+            bufferPage.markDirty();
+            this.updateFreeSpace(recordId.pageIndex(), slottedPage);
+            this.removeFromIndexes(record, recordId);
+            return true;
+        } finally {
+            bufferPage.writeUnlock();
+            bufferPage.unpin();
+        }
+    }
+
     public int delete(String column, Object value) {
         return this.delete(column, value, false);
     }
@@ -143,11 +798,55 @@ public class Table {
         return this.delete(column, value, true);
     }
 
-    private int delete(String column, Object value, boolean not) {
+    private synchronized int delete(String column, Object value, boolean not) {
         if (!this.columns.containsKey(column)) {
             throw new IllegalArgumentException("Column [" + column + "] does not exists");
         }
 
+        SortedMap<RecordId, Record> records = this.lookup(column, value, not);
+        if (records != null) {
+            return this.delete(records.keySet());
+        }
+
+        return this.delete(this.getMatcher(column, value, not));
+    }
+
+    public synchronized int deleteRange(String column, Object from, boolean fromInclusive, Object to, boolean toInclusive) {
+        if (!this.columns.containsKey(column)) {
+            throw new IllegalArgumentException("Column [" + column + "] does not exists");
+        }
+
+        SortedMap<RecordId, Record> records = this.lookupRange(column, from, fromInclusive, to, toInclusive);
+        if (records != null) {
+            return this.delete(records.keySet());
+        }
+
+        return this.delete(this.getRangeMatcher(column, from, fromInclusive, to, toInclusive));
+    }
+
+    public synchronized int delete(Condition condition) {
+        Predicate<RecordView> matcher = this.compile(condition).predicate();
+        CompressedBitmap candidates = this.findCandidates(condition);
+        if (candidates != null) {
+            // every match is found before the first one is deleted
+            return this.delete(this.fetch(candidates, matcher, RecordView::getRecordId).toList());
+        }
+
+        return this.delete(matcher);
+    }
+
+    private int delete(Collection<RecordId> recordIds) {
+        int deleted = 0;
+        for (RecordId recordId : recordIds) {
+            if (this.delete(recordId)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private int delete(Predicate<RecordView> matcher) {
+        RecordView view = new RecordView(this);
         int deleted = 0;
         for (int i = 0; ; i++) {
             BufferPage bufferPage;
@@ -157,22 +856,38 @@ public class Table {
                 // end of file
                 return deleted;
             }
-            SlottedPage slottedPage = new SlottedPage(this, bufferPage.getPayload());
-            for (Record record : slottedPage.getRecords()) {
-                Object columnValue = switch (this.columns.get(column).getType()) {
-                    case CHAR -> record.getChar(column);
-                    case VARCHAR -> record.getVarchar(column);
-                };
-                if (not ^ Objects.equals(columnValue, value)) {
-                    slottedPage.removeRecord(record);
-                    bufferPage.setPayload(slottedPage.toByteArray());
-                    deleted++;
+            bufferPage.writeLock();
+            try {
+                SlottedPage slottedPage = new SlottedPage(this, bufferPage.getBuffer(), i);
+                int removed = 0;
+                for (int slot = 0; slot < slottedPage.getNumberOfEntries(); slot++) {
+                    if (slottedPage.readRecord(slot, view) && matcher.test(view)) {
+                        Record record = view.toRecord();
+                        slottedPage.removeRecord(slot);
+                        this.removeFromIndexes(record, record.getRecordId());
+                        removed++;
+                    }
+                }
+                if (removed > 0) {
+                    bufferPage.markDirty();
+                    this.updateFreeSpace(i, slottedPage);
+                    deleted += removed;
                 }
+            } finally {
+                bufferPage.writeUnlock();
+                bufferPage.unpin();
             }
         }
     }
 
-    public boolean truncate() {
+    public synchronized boolean truncate() {
+        for (Index index : this.getAllIndexes()) {
+            try {
+                index.clear();
+            } catch (IOException e) {
+                return false;
+            }
+        }
         for (int i = 0; ; i++) {
             BufferPage bufferPage;
             try {
@@ -181,18 +896,45 @@ public class Table {
                 // end of file
                 return true;
             }
-            SlottedPage slottedPage = new SlottedPage(this, bufferPage.getPayload());
-            slottedPage.removeAll();
-            bufferPage.setPayload(slottedPage.toByteArray());
+            bufferPage.writeLock();
+            try {
+                SlottedPage slottedPage = new SlottedPage(this, bufferPage.getBuffer());
+                slottedPage.removeAll();
+                bufferPage.markDirty();
+                this.updateFreeSpace(i, slottedPage);
+            } finally {
+                bufferPage.writeUnlock();
+                bufferPage.unpin();
+            }
+        }
+    }
+
+    private void updateFreeSpace(int index, SlottedPage slottedPage) {
+        try {
+            this.freeSpaceMap.update(index, slottedPage.getFreeSpaceSize());
+        } catch (IOException e) {
+            // map is rebuilt once it turns out to be out of date
         }
     }
 
+    public FreeSpaceMap getFreeSpaceMap() {
+        return this.freeSpaceMap;
+    }
+
     public void flush() throws IOException {
         DBMS.getInstance().getBufferManager().flush(this.getTableName());
+        this.freeSpaceMap.flush();
+        for (Index index : this.getAllIndexes()) {
+            index.flush();
+        }
     }
 
     public void forceFlush() {
         DBMS.getInstance().getBufferManager().forceFlush(this.getTableName());
+        this.freeSpaceMap.forceFlush();
+        for (Index index : this.getAllIndexes()) {
+            index.forceFlush();
+        }
     }
 
     @Override
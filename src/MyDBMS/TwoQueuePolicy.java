@@ -0,0 +1,84 @@
+package MyDBMS;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.function.Predicate;
+
+public class TwoQueuePolicy implements EvictionPolicy {
+    private final int inCapacity;
+    private final int outCapacity;
+    // pages seen once, evicted in FIFO order
+    private final PageList in;
+    // pages recently evicted from the FIFO queue, without payload
+    private final LinkedHashSet<PageId> out;
+    // pages seen again while remembered, evicted in LRU order
+    private final PageList main;
+
+    public TwoQueuePolicy(int capacity) {
+        this.inCapacity = Math.max(1, capacity / 4);
+        this.outCapacity = Math.max(1, capacity / 2);
+        this.in = new PageList();
+        this.out = new LinkedHashSet<>();
+        this.main = new PageList();
+    }
+
+    @Override
+    public void onLoad(PageId pageId) {
+        if (this.in.contains(pageId) || this.main.contains(pageId)) {
+            this.onAccess(pageId);
+        } else if (this.out.remove(pageId)) {
+            this.main.addFirst(pageId);
+        } else {
+            this.in.addFirst(pageId);
+        }
+    }
+
+    @Override
+    public void onAccess(PageId pageId) {
+        // a second access while in the FIFO queue is considered correlated and ignored
+        if (this.main.contains(pageId)) {
+            this.main.addFirst(pageId);
+        }
+    }
+
+    @Override
+    public void onRemove(PageId pageId) {
+        if (!this.in.remove(pageId)) {
+            this.main.remove(pageId);
+        }
+    }
+
+    @Override
+    public PageId evict(Predicate<PageId> evictable) {
+        boolean preferIn = this.in.size() > this.inCapacity || this.main.isEmpty();
+        if (preferIn) {
+            PageId pageId = this.evictIn(evictable);
+            return pageId != null ? pageId : this.evictFrom(this.main, evictable);
+        }
+        PageId pageId = this.evictFrom(this.main, evictable);
+        return pageId != null ? pageId : this.evictIn(evictable);
+    }
+
+    private PageId evictIn(Predicate<PageId> evictable) {
+        PageId pageId = this.evictFrom(this.in, evictable);
+        if (pageId != null) {
+            this.out.add(pageId);
+            if (this.out.size() > this.outCapacity) {
+                this.out.remove(this.out.iterator().next());
+            }
+        }
+        return pageId;
+    }
+
+    private PageId evictFrom(PageList queue, Predicate<PageId> evictable) {
+        Iterator<PageId> iterator = queue.descendingIterator();
+        while (iterator.hasNext()) {
+            PageId pageId = iterator.next();
+            if (evictable.test(pageId)) {
+                queue.remove(pageId);
+                return pageId;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,71 @@
+import MyDBMS.BufferPage;
+import MyDBMS.FilePool;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class DurabilityBenchmark {
+    private static final String FILE_NAME = "durability_benchmark";
+    private static final int PAGES_PER_THREAD = 500;
+
+    public static void main(String[] args) {
+        int[] threadCounts = {1, 4, 16};
+
+        System.out.format("| %-12s | %-7s | %-10s | %-13s |%n", "durability", "threads", "pages/s", "syncs/page");
+        for (FilePool.Durability durability : FilePool.Durability.values()) {
+            for (int threads : threadCounts) {
+                try (FilePool filePool = new FilePool(durability)) {
+                    filePool.delete(FILE_NAME);
+
+                    long start = System.nanoTime();
+                    writePages(filePool, threads);
+                    if (durability == FilePool.Durability.BUFFERED) {
+                        filePool.sync();
+                    }
+                    long elapsed = System.nanoTime() - start;
+
+                    int pages = threads * PAGES_PER_THREAD;
+                    String syncsPerPage = switch (durability) {
+                        case SYNC -> "1";
+                        case GROUP_COMMIT -> String.format("%.3f", (double) filePool.getGroupCommitSyncCount() / pages);
+                        case BUFFERED -> String.format("%.3f", 1.0 / pages);
+                    };
+                    System.out.format("| %-12s | %7d | %10.0f | %13s |%n",
+                            durability.getValue(), threads, pages / (elapsed / 1e9), syncsPerPage);
+
+                    filePool.delete(FILE_NAME);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private static void writePages(FilePool filePool, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                byte[] page = new byte[BufferPage.PAGE_SIZE];
+                for (int i = 0; i < PAGES_PER_THREAD; i++) {
+                    page[0] = (byte) i;
+                    filePool.write(FILE_NAME, (long) (thread * PAGES_PER_THREAD + i) * BufferPage.PAGE_SIZE, page);
+                }
+                return null;
+            }));
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.MINUTES)) {
+            throw new IOException("Benchmark timed out");
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package MyDBMS;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AggregateTest {
+
+    @Test
+    void testToString() {
+        assertEquals("COUNT(*)", Aggregate.count().toString());
+        assertEquals("COUNT(budget)", Aggregate.count("budget").toString());
+        assertEquals("MIN(tot_cred)", Aggregate.min("tot_cred").toString());
+        assertEquals("AVG(budget)", Aggregate.avg("budget").toString());
+    }
+
+    @Test
+    void testMissingColumn() {
+        assertThrows(IllegalArgumentException.class, () -> new Aggregate(Aggregate.Function.SUM, null));
+        assertThrows(IllegalArgumentException.class, () -> new Aggregate(null, "budget"));
+    }
+}
@@ -0,0 +1,212 @@
+package MyDBMS;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BTreeIndexTest {
+
+    private static final String TABLE_NAME = "btree_index_test";
+
+    private Table table;
+
+    @BeforeEach
+    void BeforeEach() {
+        TestFiles.deleteFiles(TABLE_NAME);
+        this.table = new Table(TABLE_NAME, new Column[]{
+                new Column(Column.DataType.VARCHAR, "key", 255, true),
+                new Column(Column.DataType.CHAR, "value", 100)
+        }, "key");
+    }
+
+    @AfterEach
+    void AfterEach() {
+        TestFiles.deleteFiles(TABLE_NAME);
+    }
+
+    private Record newRecord(String key) {
+        return new Record(this.table).setVarchar("key", key).setChar("value", "value of " + key);
+    }
+
+    @Test
+    void testEmptyIndex() throws IOException {
+        assertTrue(this.table.getPrimaryIndex().search("key").isEmpty());
+    }
+
+    @Test
+    void testInsertAndSearch() throws IOException {
+        BTreeIndex index = this.table.getPrimaryIndex();
+        index.insertKey("b".getBytes(), new RecordId(0, 1));
+        index.insertKey("a".getBytes(), new RecordId(0, 0));
+        index.insertKey("c".getBytes(), new RecordId(1, 0));
+
+        assertEquals(List.of(new RecordId(0, 0)), index.searchKey("a".getBytes()));
+        assertEquals(List.of(new RecordId(0, 1)), index.searchKey("b".getBytes()));
+        assertEquals(List.of(new RecordId(1, 0)), index.searchKey("c".getBytes()));
+        assertTrue(index.searchKey("d".getBytes()).isEmpty());
+    }
+
+    @Test
+    void testDuplicateKeys() throws IOException {
+        BTreeIndex index = this.table.getPrimaryIndex();
+        index.insertKey("a".getBytes(), new RecordId(3, 0));
+        index.insertKey("a".getBytes(), new RecordId(1, 2));
+        index.insertKey("a".getBytes(), new RecordId(1, 2));
+
+        assertEquals(List.of(new RecordId(1, 2), new RecordId(3, 0)), index.searchKey("a".getBytes()));
+        assertTrue(index.deleteKey("a".getBytes(), new RecordId(1, 2)));
+        assertFalse(index.deleteKey("a".getBytes(), new RecordId(1, 2)));
+        assertEquals(List.of(new RecordId(3, 0)), index.searchKey("a".getBytes()));
+    }
+
+    @Test
+    void testSplits() throws IOException {
+        BTreeIndex index = this.table.getPrimaryIndex();
+        for (int i = 0; i < 5000; i++) {
+            index.insertKey(String.format("key%05d", (i * 7919) % 5000).getBytes(), new RecordId(i, 0));
+        }
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(1, index.searchKey(String.format("key%05d", (i * 7919) % 5000).getBytes()).size());
+        }
+        for (int i = 0; i < 5000; i += 2) {
+            assertTrue(index.deleteKey(String.format("key%05d", (i * 7919) % 5000).getBytes(), new RecordId(i, 0)));
+        }
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i % 2 == 0 ? 0 : 1, index.searchKey(String.format("key%05d", (i * 7919) % 5000).getBytes()).size());
+        }
+    }
+
+    @Test
+    void testTableUsesIndex() {
+        for (int i = 0; i < 200; i++) {
+            assertTrue(this.table.addRecord(this.newRecord("key" + i)));
+        }
+
+        assertFalse(this.table.addRecord(this.newRecord("key42")));
+        assertEquals(this.newRecord("key42"), this.table.find("key42"));
+        assertNull(this.table.find("key200"));
+
+        assertTrue(this.table.destroy("key42"));
+        assertFalse(this.table.destroy("key42"));
+        assertNull(this.table.find("key42"));
+        assertTrue(this.table.addRecord(this.newRecord("key42")));
+        assertEquals(200L, this.table.getAllRecords().count());
+    }
+
+    @Test
+    void testDeleteAndTruncateUpdateIndex() {
+        for (int i = 0; i < 10; i++) {
+            this.table.addRecord(this.newRecord("key" + i));
+        }
+
+        assertEquals(1, this.table.delete("value", this.newRecord("key3").getChar("value")));
+        assertNull(this.table.find("key3"));
+        assertNotNull(this.table.find("key4"));
+
+        this.table.truncate();
+        assertNull(this.table.find("key4"));
+        assertTrue(this.table.addRecord(this.newRecord("key4")));
+    }
+
+    @Test
+    void testRebuildWhenIndexIsMissing() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            this.table.addRecord(this.newRecord("key" + i));
+        }
+        this.table.flush();
+        DBMS.getInstance().getBufferManager().forceFlush();
+        DBMS.getInstance().getFilePool().delete(TABLE_NAME + BTreeIndex.FILE_EXTENSION);
+
+        assertEquals(this.newRecord("key7"), this.table.find("key7"));
+        assertFalse(this.table.addRecord(this.newRecord("key7")));
+    }
+
+    @Test
+    void testStaleEntriesAreDropped() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            this.table.addRecord(this.newRecord("key" + i));
+        }
+        this.table.flush();
+        DBMS.getInstance().getBufferManager().forceFlush();
+        // the index still points at records of the deleted table file
+        DBMS.getInstance().getFilePool().delete(TABLE_NAME);
+
+        assertNull(this.table.find("key7"));
+        assertTrue(this.table.getPrimaryIndex().search("key7").isEmpty());
+        assertTrue(this.table.addRecord(this.newRecord("key7")));
+        assertEquals(this.newRecord("key7"), this.table.find("key7"));
+    }
+
+    @Test
+    void testKeyEncodingOrder() {
+        Object[][] ordered = {
+                {Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE},
+                {Long.MIN_VALUE, -1L, 0L, 1L, Long.MAX_VALUE},
+                {Double.NEGATIVE_INFINITY, -2.5, -0.0, 0.0, 1e-300, 2.5, Double.POSITIVE_INFINITY},
+                {LocalDate.of(1900, 1, 1), LocalDate.of(1970, 1, 1), LocalDate.of(2024, 2, 29)},
+                {"", "a", "ab", "b"}
+        };
+        for (Object[] values : ordered) {
+            for (int i = 1; i < values.length; i++) {
+                assertTrue(Arrays.compareUnsigned(Index.encodeKey(values[i - 1]), Index.encodeKey(values[i])) < 0,
+                        values[i - 1] + " < " + values[i]);
+            }
+        }
+        assertNull(Index.encodeKey(new Object()));
+    }
+
+    @Test
+    void testNumericKeys() throws IOException {
+        Table table = new Table(TABLE_NAME, new Column[]{
+                new Column(Column.DataType.INT, "key", 0, true)
+        }, "key");
+        for (int i = -50; i < 50; i++) {
+            assertTrue(table.addRecord(new Record(table).setInt("key", i)));
+        }
+
+        assertEquals(1, table.getPrimaryIndex().search(-7).size());
+        assertEquals(-7, table.find(-7).getInt("key"));
+        assertFalse(table.addRecord(new Record(table).setInt("key", 49)));
+        assertNull(table.find(50));
+    }
+
+    @Test
+    void testRangeSearch() throws IOException {
+        BTreeIndex index = this.table.getPrimaryIndex();
+        for (int i = 0; i < 3000; i++) {
+            index.insertKey(String.format("key%04d", (i * 7919) % 3000).getBytes(), new RecordId(i, 0));
+        }
+
+        List<RecordId> range = index.searchKeyRange("key0100".getBytes(), true, "key0200".getBytes(), false);
+        assertEquals(100, range.size());
+        assertEquals(new RecordId(index.searchKey("key0100".getBytes()).get(0).pageIndex(), 0), range.get(0));
+
+        assertEquals(99, index.searchKeyRange("key0100".getBytes(), false, "key0200".getBytes(), false).size());
+        assertEquals(101, index.searchKeyRange("key0100".getBytes(), true, "key0200".getBytes(), true).size());
+        assertEquals(10, index.searchKeyRange(null, false, "key0010".getBytes(), false).size());
+        assertEquals(5, index.searchKeyRange("key2995".getBytes(), true, null, false).size());
+        assertEquals(3000, index.searchKeyRange(null, false, null, false).size());
+        assertTrue(index.searchKeyRange("key0200".getBytes(), true, "key0100".getBytes(), true).isEmpty());
+    }
+
+    @Test
+    void testNumericRange() throws IOException {
+        Table table = new Table(TABLE_NAME, new Column[]{
+                new Column(Column.DataType.INT, "key", 0, true)
+        }, "key");
+        for (int i = -50; i < 50; i++) {
+            table.addRecord(new Record(table).setInt("key", i));
+        }
+
+        assertEquals(11, table.getPrimaryIndex().searchRange(-5, true, 5, true).size());
+        assertEquals(50, table.getPrimaryIndex().searchRange(null, false, 0, false).size());
+        assertNull(table.getPrimaryIndex().searchRange(new Object(), true, null, false));
+    }
+}
@@ -0,0 +1,149 @@
+package MyDBMS;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitmapIndexTest {
+
+    private static final String TABLE_NAME = "bitmap_index_test";
+
+    private Table table;
+    private BitmapIndex index;
+
+    @BeforeEach
+    void BeforeEach() {
+        TestFiles.deleteFiles(TABLE_NAME);
+        this.table = new Table(TABLE_NAME, new Column[]{
+                new Column(Column.DataType.VARCHAR, "name", 32),
+                new Column(Column.DataType.VARCHAR, "dept", 8)
+        });
+        this.index = new BitmapIndex(this.table, "dept");
+        this.table.addIndex(this.index);
+    }
+
+    @AfterEach
+    void AfterEach() {
+        TestFiles.deleteFiles(TABLE_NAME);
+    }
+
+    private Record newRecord(String name, String dept) {
+        return new Record(this.table).setVarchar("name", name).setVarchar("dept", dept);
+    }
+
+    @Test
+    void testTooLongColumn() {
+        Table table = new Table(TABLE_NAME, new Column[]{
+                new Column(Column.DataType.CHAR, "long", BitmapIndex.MAX_VALUE_SIZE + 1)
+        });
+
+        assertThrows(IllegalArgumentException.class, () -> new BitmapIndex(table, "long"));
+    }
+
+    @Test
+    void testInsertAndSearch() throws IOException {
+        this.index.insert("a", new RecordId(0, 0));
+        this.index.insert("b", new RecordId(0, 1));
+        this.index.insert("a", new RecordId(2, 3));
+        this.index.insert(null, new RecordId(3, 0));
+
+        assertEquals(List.of(new RecordId(0, 0), new RecordId(2, 3)), this.index.search("a"));
+        assertEquals(List.of(new RecordId(3, 0)), this.index.search(null));
+        assertTrue(this.index.search("c").isEmpty());
+        assertEquals(List.of(new RecordId(0, 1), new RecordId(3, 0)), this.index.searchNot("a"));
+        assertEquals(CompressedBitmap.of(0, 1, 2 * BitmapIndex.SLOTS_PER_PAGE + 3, 3 * BitmapIndex.SLOTS_PER_PAGE), this.index.getAllBitmap());
+
+        assertTrue(this.index.delete("a", new RecordId(0, 0)));
+        assertFalse(this.index.delete("a", new RecordId(0, 0)));
+        assertFalse(this.index.delete("c", new RecordId(0, 0)));
+        assertEquals(List.of(new RecordId(2, 3)), this.index.search("a"));
+    }
+
+    @Test
+    void testManyValuesAndPages() throws IOException {
+        // enough values to fill more than one value page, and pages far apart
+        for (int i = 0; i < 1000; i++) {
+            this.index.insert("value" + i, new RecordId(i * 37, i % 10));
+        }
+        this.index.insert("value0", new RecordId(5000 * 16, 0));
+
+        for (int i = 1; i < 1000; i++) {
+            assertEquals(List.of(new RecordId(i * 37, i % 10)), this.index.search("value" + i));
+        }
+        assertEquals(List.of(new RecordId(0, 0), new RecordId(5000 * 16, 0)), this.index.search("value0"));
+        assertEquals(1001, this.index.getAllBitmap().getCardinality());
+    }
+
+    @Test
+    void testChunksSharePages() throws IOException {
+        String[] depts = {"d0", "d1", "d2", "d3", "d4", "d5", "d6", "d7", "d8", "d9"};
+        for (int i = 0; i < 20000; i++) {
+            this.table.addRecord(this.newRecord("name" + i, depts[i % depts.length]));
+        }
+        this.table.flush();
+        this.index.rebuild();
+        this.index.flush();
+
+        assertEquals(2000, this.index.search("d0").size());
+        assertEquals(20000, this.index.getAllBitmap().getCardinality());
+        // sparse chunks of a value do not take a page each
+        long tableSize = Files.size(Path.of(TABLE_NAME));
+        long indexSize = Files.size(Path.of(this.index.getFileName()));
+        assertTrue(indexSize * 3 < tableSize);
+    }
+
+    @Test
+    void testBitmapOperations() throws IOException {
+        BitmapIndex dept = this.index;
+        dept.insert("dev", new RecordId(0, 0));
+        dept.insert("ops", new RecordId(0, 1));
+        dept.insert("dev", new RecordId(0, 2));
+
+        CompressedBitmap devOrOps = dept.getBitmap("dev").or(dept.getBitmap("ops"));
+        assertEquals(CompressedBitmap.of(0, 1, 2), devOrOps);
+        assertEquals(CompressedBitmap.of(1), dept.getAllBitmap().andNot(dept.getBitmap("dev")));
+        assertNull(dept.getBitmap(1));
+    }
+
+    @Test
+    void testTableUsesIndex() {
+        this.table.addRecord(this.newRecord("alice", "dev"));
+        this.table.addRecord(this.newRecord("bob", "ops"));
+        this.table.addRecord(this.newRecord("carol", "dev"));
+        this.table.addRecord(this.newRecord("dave", null));
+
+        assertArrayEquals(new Record[]{
+                this.newRecord("alice", "dev"),
+                this.newRecord("carol", "dev")
+        }, this.table.where("dept", "dev"));
+        assertArrayEquals(new Record[]{
+                this.newRecord("bob", "ops"),
+                this.newRecord("dave", null)
+        }, this.table.whereNot("dept", "dev"));
+        assertArrayEquals(new Record[]{this.newRecord("dave", null)}, this.table.where("dept", null));
+        assertEquals(3, this.table.whereNot("dept", null).length);
+
+        assertEquals(2, this.table.deleteNot("dept", "dev"));
+        assertEquals(2L, this.table.getAllRecords().count());
+        assertEquals(0, this.table.whereNot("dept", "dev").length);
+    }
+
+    @Test
+    void testRebuildWhenIndexIsMissing() throws IOException {
+        this.table.addRecord(this.newRecord("alice", "dev"));
+        this.table.addRecord(this.newRecord("bob", null));
+        this.table.flush();
+        DBMS.getInstance().getBufferManager().forceFlush();
+        DBMS.getInstance().getFilePool().delete(this.index.getFileName());
+
+        assertArrayEquals(new Record[]{this.newRecord("bob", null)}, this.table.where("dept", null));
+        assertArrayEquals(new Record[]{this.newRecord("alice", "dev")}, this.table.whereNot("dept", null));
+    }
+}
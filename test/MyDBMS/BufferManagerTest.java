@@ -0,0 +1,308 @@
+package MyDBMS;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferManagerTest {
+    private static final String FILE_NAME = "buffer_test";
+
+    @AfterEach
+    void AfterEach() {
+        try {
+            DBMS.getInstance().getFilePool().delete(FILE_NAME);
+        } catch (IOException e) {
+            // e.printStackTrace();
+        }
+    }
+
+    @Test
+    void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new BufferManager(0));
+    }
+
+    @Test
+    void testSamePageReturnedOnHit() {
+        BufferManager bufferManager = new BufferManager(4);
+
+        assertDoesNotThrow(() -> {
+            BufferPage page = bufferManager.getEmptyPage(FILE_NAME, 3);
+
+            assertSame(page, bufferManager.getPage(FILE_NAME, 3));
+            assertSame(page, bufferManager.getEmptyPage(FILE_NAME, 3));
+            assertTrue(bufferManager.contains(FILE_NAME, 3));
+            assertFalse(bufferManager.contains(FILE_NAME, 2));
+            assertFalse(bufferManager.contains("another_file", 3));
+            assertEquals(1, bufferManager.getSize());
+        });
+    }
+
+    @Test
+    void testCapacityIsNotExceeded() {
+        BufferManager bufferManager = new BufferManager(4);
+
+        assertDoesNotThrow(() -> {
+            for (int i = 0; i < 10; i++) {
+                BufferPage page = bufferManager.getEmptyPage(FILE_NAME, i);
+                page.setPayload(new byte[]{(byte) i});
+                page.unpin();
+            }
+        });
+
+        assertEquals(4, bufferManager.getSize());
+    }
+
+    @Test
+    void testEvictedPageIsWrittenBack() {
+        BufferManager bufferManager = new BufferManager(1);
+
+        assertDoesNotThrow(() -> {
+            BufferPage page = bufferManager.getEmptyPage(FILE_NAME, 0);
+            page.setPayload(new byte[]{42});
+            page.unpin();
+            bufferManager.getEmptyPage(FILE_NAME, 1).unpin();
+
+            assertFalse(bufferManager.contains(FILE_NAME, 0));
+            assertEquals(1, bufferManager.getDirtyEvictionCount());
+            assertEquals(42, bufferManager.getPage(FILE_NAME, 0).getPayload()[0]);
+        });
+    }
+
+    @Test
+    void testCleanPageIsNotWrittenBack() {
+        BufferManager bufferManager = new BufferManager(1);
+
+        assertDoesNotThrow(() -> {
+            bufferManager.getEmptyPage(FILE_NAME, 0).unpin();
+            bufferManager.getEmptyPage(FILE_NAME, 1).unpin();
+        });
+
+        assertThrows(IOException.class, () -> bufferManager.getPage(FILE_NAME, 0));
+        // reading past the end of file does not evict anything
+        assertTrue(bufferManager.contains(FILE_NAME, 1));
+        assertEquals(1, bufferManager.getCleanEvictionCount());
+        assertEquals(0, bufferManager.getDirtyEvictionCount());
+    }
+
+    @Test
+    void testDirtyFlagClearedAfterFlush() {
+        BufferManager bufferManager = new BufferManager(4);
+
+        assertDoesNotThrow(() -> {
+            BufferPage page = bufferManager.getEmptyPage(FILE_NAME, 0);
+            page.setPayload(new byte[]{1});
+            bufferManager.getEmptyPage(FILE_NAME, 1);
+
+            assertEquals(1, bufferManager.getDirtyPageCount());
+
+            bufferManager.flush();
+
+            assertFalse(page.isDirty());
+            assertEquals(1, bufferManager.getPage(FILE_NAME, 0).getPayload()[0]);
+            assertThrows(IOException.class, () -> bufferManager.getPage(FILE_NAME, 1));
+        });
+    }
+
+    @Test
+    void testFlushSinglePage() {
+        BufferManager bufferManager = new BufferManager(4);
+
+        assertDoesNotThrow(() -> {
+            bufferManager.getEmptyPage(FILE_NAME, 0).unpin();
+            bufferManager.getEmptyPage(FILE_NAME, 1).unpin();
+            bufferManager.flush(FILE_NAME, 0);
+        });
+
+        assertFalse(bufferManager.contains(FILE_NAME, 0));
+        assertTrue(bufferManager.contains(FILE_NAME, 1));
+        assertEquals(1, bufferManager.getSize());
+    }
+
+    @Test
+    void testPinnedPageIsNotEvicted() {
+        BufferManager bufferManager = new BufferManager(2, EvictionPolicy.Type.LRU);
+
+        assertDoesNotThrow(() -> {
+            BufferPage pinned = bufferManager.getEmptyPage(FILE_NAME, 0);
+            bufferManager.getEmptyPage(FILE_NAME, 1).unpin();
+            bufferManager.getEmptyPage(FILE_NAME, 2).unpin();
+
+            assertTrue(pinned.isPinned());
+            assertTrue(bufferManager.contains(FILE_NAME, 0));
+            assertFalse(bufferManager.contains(FILE_NAME, 1));
+
+            pinned.unpin();
+            bufferManager.getEmptyPage(FILE_NAME, 3).unpin();
+
+            assertFalse(bufferManager.contains(FILE_NAME, 0));
+        });
+    }
+
+    @Test
+    void testPinCount() {
+        BufferManager bufferManager = new BufferManager(2);
+
+        assertDoesNotThrow(() -> {
+            BufferPage page = bufferManager.getEmptyPage(FILE_NAME, 0);
+            bufferManager.getPage(FILE_NAME, 0);
+
+            assertEquals(2, page.getPinCount());
+
+            page.unpin();
+            page.unpin();
+            page.unpin();
+
+            assertEquals(0, page.getPinCount());
+            assertFalse(page.isPinned());
+        });
+    }
+
+    @Test
+    void testAllPagesPinned() {
+        BufferManager bufferManager = new BufferManager(2);
+
+        assertDoesNotThrow(() -> {
+            bufferManager.getEmptyPage(FILE_NAME, 0);
+            bufferManager.getEmptyPage(FILE_NAME, 1);
+        });
+
+        assertThrows(IllegalStateException.class, () -> bufferManager.getEmptyPage(FILE_NAME, 2));
+        assertEquals(2, bufferManager.getSize());
+    }
+
+    @Test
+    void testConcurrentAccess() throws Exception {
+        final int pages = 64;
+        final int threads = 8;
+        final int iterations = 2000;
+        BufferManager bufferManager = new BufferManager(16, EvictionPolicy.Type.CLOCK);
+
+        for (int i = 0; i < pages; i++) {
+            DBMS.getInstance().getFilePool().write(FILE_NAME, (long) i * BufferPage.PAGE_SIZE, new byte[BufferPage.PAGE_SIZE]);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final long seed = t;
+            futures.add(executor.submit(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < iterations; i++) {
+                    BufferPage page = bufferManager.getPage(FILE_NAME, random.nextInt(pages));
+                    try {
+                        if (random.nextBoolean()) {
+                            page.writeLock();
+                            try {
+                                // every byte of the page holds the number of updates it has seen
+                                ByteBuffer payload = ByteBuffer.wrap(page.getPayload());
+                                int counter = payload.getInt(0) + 1;
+                                for (int offset = 0; offset < BufferPage.PAGE_SIZE; offset += 4) {
+                                    payload.putInt(offset, counter);
+                                }
+                                page.markDirty();
+                            } finally {
+                                page.writeUnlock();
+                            }
+                        } else {
+                            page.readLock();
+                            try {
+                                assertConsistent(page.getPayload());
+                            } finally {
+                                page.readUnlock();
+                            }
+                        }
+                    } finally {
+                        page.unpin();
+                    }
+                }
+                return null;
+            }));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        long expectedUpdates = 0;
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(t);
+            for (int i = 0; i < iterations; i++) {
+                random.nextInt(pages);
+                if (random.nextBoolean()) {
+                    expectedUpdates++;
+                }
+            }
+        }
+
+        bufferManager.flush();
+
+        long updates = 0;
+        for (int i = 0; i < pages; i++) {
+            byte[] payload = DBMS.getInstance().getFilePool().read(FILE_NAME, (long) i * BufferPage.PAGE_SIZE, BufferPage.PAGE_SIZE);
+            assertConsistent(payload);
+            updates += ByteBuffer.wrap(payload).getInt(0);
+        }
+        assertEquals(expectedUpdates, updates);
+        assertEquals(0, bufferManager.getSize());
+    }
+
+    private static void assertConsistent(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        int counter = buffer.getInt(0);
+        for (int offset = 0; offset < BufferPage.PAGE_SIZE; offset += 4) {
+            assertEquals(counter, buffer.getInt(offset));
+        }
+    }
+
+    @Test
+    void testForceFlushByFile() {
+        BufferManager bufferManager = new BufferManager(4);
+
+        assertDoesNotThrow(() -> {
+            bufferManager.getEmptyPage(FILE_NAME, 0);
+            bufferManager.getEmptyPage("another_file", 0);
+        });
+        bufferManager.forceFlush(FILE_NAME);
+
+        assertFalse(bufferManager.contains(FILE_NAME, 0));
+        assertTrue(bufferManager.contains("another_file", 0));
+        assertEquals(1, bufferManager.getSize());
+    }
+
+    @Test
+    void testForceFlushSkipsEvictingPage() {
+        BufferManager bufferManager = new BufferManager(4);
+
+        assertDoesNotThrow(() -> {
+            BufferPage evicting = bufferManager.getEmptyPage(FILE_NAME, 0);
+            evicting.unpin();
+            bufferManager.getEmptyPage(FILE_NAME, 1).unpin();
+            assertTrue(evicting.tryEvict());
+
+            // the eviction in progress owns the page and its frame
+            bufferManager.forceFlush(FILE_NAME);
+            assertTrue(bufferManager.contains(FILE_NAME, 0));
+            assertFalse(bufferManager.contains(FILE_NAME, 1));
+            bufferManager.forceFlush();
+            assertTrue(bufferManager.contains(FILE_NAME, 0));
+            assertEquals(1, bufferManager.getSize());
+
+            evicting.cancelEvict();
+            bufferManager.forceFlush();
+            assertEquals(0, bufferManager.getSize());
+        });
+    }
+}
@@ -31,6 +31,21 @@ class BufferPageTest {
         });
     }
 
+    @Test
+    void testMarkDirtyAndClean() {
+        BufferPage page = new BufferPage("test_table", 0);
+
+        assertFalse(page.isDirty());
+
+        page.markDirty();
+
+        assertTrue(page.isDirty());
+
+        page.markClean();
+
+        assertFalse(page.isDirty());
+    }
+
     @Test
     void testIndexOutOfFileBound() {
         assertThrows(IOException.class, () -> DBMS.getInstance().getBufferManager().getPage("test_table", 0));
@@ -0,0 +1,146 @@
+package MyDBMS;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedBitmapTest {
+
+    private static BitSet toBitSet(CompressedBitmap bitmap) {
+        BitSet bitSet = new BitSet();
+        bitmap.forEach(bitSet::set);
+        return bitSet;
+    }
+
+    private static CompressedBitmap random(Random random, int size, int count) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int i = 0; i < count; i++) {
+            bitmap.add(random.nextInt(size));
+        }
+        return bitmap;
+    }
+
+    @Test
+    void testEmptyBitmap() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+
+        assertTrue(bitmap.isEmpty());
+        assertEquals(0, bitmap.getCardinality());
+        assertFalse(bitmap.contains(0));
+        assertArrayEquals(new int[0], bitmap.toArray());
+    }
+
+    @Test
+    void testAddAndRemove() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+
+        assertTrue(bitmap.add(3));
+        assertFalse(bitmap.add(3));
+        assertTrue(bitmap.add(CompressedBitmap.CHUNK_SIZE + 1));
+        assertTrue(bitmap.add(1));
+
+        assertArrayEquals(new int[]{1, 3, CompressedBitmap.CHUNK_SIZE + 1}, bitmap.toArray());
+        assertTrue(bitmap.contains(3));
+        assertFalse(bitmap.contains(2));
+
+        assertTrue(bitmap.remove(3));
+        assertFalse(bitmap.remove(3));
+        assertTrue(bitmap.remove(CompressedBitmap.CHUNK_SIZE + 1));
+        assertArrayEquals(new int[]{1}, bitmap.toArray());
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1));
+    }
+
+    @Test
+    void testDenseChunk() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int i = 0; i < CompressedBitmap.CHUNK_SIZE; i += 2) {
+            bitmap.add(i);
+        }
+
+        assertEquals(CompressedBitmap.CHUNK_SIZE / 2, bitmap.getCardinality());
+        assertTrue(bitmap.contains(100));
+        assertFalse(bitmap.contains(101));
+
+        for (int i = 0; i < CompressedBitmap.CHUNK_SIZE; i += 4) {
+            bitmap.remove(i);
+        }
+        assertEquals(CompressedBitmap.CHUNK_SIZE / 4, bitmap.getCardinality());
+        assertFalse(bitmap.contains(100));
+        assertTrue(bitmap.contains(102));
+    }
+
+    @Test
+    void testSetOperations() {
+        Random random = new Random(42);
+        int size = 5 * CompressedBitmap.CHUNK_SIZE;
+        for (int count : new int[]{100, 3000, 40000}) {
+            CompressedBitmap a = random(random, size, count);
+            CompressedBitmap b = random(random, size, count / 2);
+
+            BitSet and = toBitSet(a);
+            and.and(toBitSet(b));
+            BitSet or = toBitSet(a);
+            or.or(toBitSet(b));
+            BitSet andNot = toBitSet(a);
+            andNot.andNot(toBitSet(b));
+            BitSet not = toBitSet(a);
+            not.flip(0, size);
+
+            assertEquals(and, toBitSet(a.and(b)));
+            assertEquals(or, toBitSet(a.or(b)));
+            assertEquals(andNot, toBitSet(a.andNot(b)));
+            assertEquals(not, toBitSet(a.not(size)));
+            assertEquals(and.cardinality(), a.and(b).getCardinality());
+        }
+    }
+
+    @Test
+    void testOperationsLeaveOperandsUntouched() {
+        CompressedBitmap a = CompressedBitmap.of(1, 2, 3);
+        CompressedBitmap b = CompressedBitmap.of(3, 4);
+
+        a.or(b).add(10);
+        a.andNot(b).add(11);
+
+        assertEquals(CompressedBitmap.of(1, 2, 3), a);
+        assertEquals(CompressedBitmap.of(3, 4), b);
+    }
+
+    @Test
+    void testChunkReadWrite() {
+        ByteBuffer buffer = ByteBuffer.allocate(CompressedBitmap.CHUNK_BYTES);
+        for (int count : new int[]{0, 10, CompressedBitmap.ARRAY_LIMIT, CompressedBitmap.ARRAY_LIMIT + 1, 5000}) {
+            CompressedBitmap.Chunk chunk = new CompressedBitmap.Chunk();
+            for (int i = 0; i < count; i++) {
+                chunk.add(i * 3 % CompressedBitmap.CHUNK_SIZE);
+            }
+            chunk.write(buffer, 0);
+
+            CompressedBitmap.Chunk read = CompressedBitmap.Chunk.read(buffer, 0);
+            assertEquals(chunk.getCardinality(), read.getCardinality());
+            for (int i = 0; i < count; i++) {
+                assertTrue(read.contains(i * 3 % CompressedBitmap.CHUNK_SIZE));
+            }
+        }
+    }
+
+    @Test
+    void testNextValue() {
+        Random random = new Random(7);
+        // a sparse chunk, a dense chunk and an empty chunk in between
+        CompressedBitmap bitmap = random(random, CompressedBitmap.CHUNK_SIZE, 100);
+        for (int i = 0; i < CompressedBitmap.CHUNK_SIZE; i += 3) {
+            bitmap.add(2 * CompressedBitmap.CHUNK_SIZE + i);
+        }
+        BitSet bitSet = toBitSet(bitmap);
+
+        for (int from = 0; from < 3 * CompressedBitmap.CHUNK_SIZE + 10; from++) {
+            assertEquals(bitSet.nextSetBit(from), bitmap.nextValue(from));
+        }
+        assertEquals(-1, new CompressedBitmap().nextValue(0));
+    }
+}
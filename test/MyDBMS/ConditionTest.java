@@ -0,0 +1,39 @@
+package MyDBMS;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConditionTest {
+
+    @Test
+    void testComparisons() {
+        assertEquals("name = 'Brown'", Condition.equal("name", "Brown").toString());
+        assertEquals("name != 'O\\'Hara'", Condition.notEqual("name", "O'Hara").toString());
+        assertEquals("budget IS NULL", Condition.isNull("budget").toString());
+        assertEquals("budget IS NOT NULL", Condition.isNotNull("budget").toString());
+        assertEquals("tot_cred < 30", Condition.lessThan("tot_cred", 30).toString());
+        assertEquals("tot_cred >= 30", Condition.greaterThanOrEqual("tot_cred", 30).toString());
+        assertEquals("created BETWEEN '2021-01-01' AND '2021-12-31'",
+                Condition.between("created", LocalDate.of(2021, 1, 1), LocalDate.of(2021, 12, 31)).toString());
+        assertEquals("amount > 1.5 AND amount <= 3.0", new Condition.Range("amount", 1.5, false, 3.0, true).toString());
+    }
+
+    @Test
+    void testNullBound() {
+        assertThrows(IllegalArgumentException.class, () -> Condition.lessThan("tot_cred", null));
+        assertThrows(IllegalArgumentException.class, () -> Condition.between("tot_cred", 1, null));
+    }
+
+    @Test
+    void testCompound() {
+        Condition condition = Condition.and(
+                Condition.equal("dept_name", "Physics"),
+                Condition.or(Condition.lessThan("tot_cred", 30), Condition.isNull("tot_cred")),
+                Condition.not(Condition.equal("name", "Snow")));
+
+        assertEquals("dept_name = 'Physics' AND (tot_cred < 30 OR tot_cred IS NULL) AND NOT (name = 'Snow')", condition.toString());
+    }
+}
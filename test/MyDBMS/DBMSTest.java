@@ -5,6 +5,10 @@ import org.junit.jupiter.api.*;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -26,6 +30,11 @@ class DBMSTest {
         }
     }
 
+    @AfterEach
+    void afterEach() {
+        TestFiles.flushAndDeleteFiles("numeric_table", "numeric_item");
+    }
+
     @AfterAll
     static void afterAll() {
         try {
@@ -33,6 +42,7 @@ class DBMSTest {
         } catch (IOException e) {
             // e.printStackTrace();
         }
+        TestFiles.flushAndDeleteFiles("test_table");
     }
 
     @Test
@@ -118,6 +128,17 @@ class DBMSTest {
         assertEquals("key1", records[0].getVarchar("primary_key"));
     }
 
+    @Test
+    @Order(5)
+    void testSelectWhereWithIndex() {
+        assertTrue(DBMS.getInstance().createIndex("test_table", "column1"));
+        assertFalse(DBMS.getInstance().createIndex("test_table", "column1"));
+
+        Record[] records = DBMS.getInstance().queryTable("test_table").where("column1", "varchar").get();
+        assertEquals(1, records.length);
+        assertEquals("key1", records[0].getVarchar("primary_key"));
+    }
+
     @Test
     @Order(6)
     void testDeleteRecord() {
@@ -136,4 +157,113 @@ class DBMSTest {
 
         assertThrows(IllegalArgumentException.class, () -> DBMS.getInstance().queryTable("test_table").get());
     }
+
+    @Test
+    @Order(8)
+    void testNumericColumns() {
+        DBMS.TableBuilder builder = DBMS.getInstance()
+                .createTable("numeric_table")
+                .addPrimaryColumn("id", "INT", 0)
+                .addColumn("amount", "DOUBLE")
+                .addColumn("created", "DATE");
+        assertEquals("CREATE TABLE numeric_table (\n  id INT PRIMARY KEY,\n  amount DOUBLE,\n  created DATE\n)", builder.toString());
+        assertTrue(builder.persist());
+
+        assertTrue(DBMS.getInstance().queryTable("numeric_table").insert(1, 10.5, LocalDate.of(2021, 1, 1)));
+        assertTrue(DBMS.getInstance().queryTable("numeric_table").insert(2, null, null));
+        assertFalse(DBMS.getInstance().queryTable("numeric_table").insert(1));
+
+        Record[] records = DBMS.getInstance().queryTable("numeric_table").where("amount", 10.5).get();
+        assertEquals(1, records.length);
+        assertEquals(1, records[0].getInt("id"));
+        assertEquals(LocalDate.of(2021, 1, 1), records[0].getDate("created"));
+        assertEquals(2, DBMS.getInstance().queryTable("numeric_table").find(2).get()[0].getInt("id"));
+        assertEquals("SELECT * FROM numeric_table WHERE id = 2", DBMS.getInstance().queryTable("numeric_table").find(2).toString());
+
+        assertTrue(DBMS.getInstance().queryTable("numeric_table").insert(3, 30.0, LocalDate.of(2021, 3, 1)));
+        assertEquals(2, DBMS.getInstance().queryTable("numeric_table").whereGreaterThan("id", 1).get().length);
+        assertEquals(1, DBMS.getInstance().queryTable("numeric_table").whereLessThan("id", 2).get().length);
+        assertEquals(2, DBMS.getInstance().queryTable("numeric_table").whereBetween("amount", 10.5, 30.0).get().length);
+        assertEquals(1, DBMS.getInstance().queryTable("numeric_table").whereGreaterThanOrEqual("created", LocalDate.of(2021, 2, 1)).get().length);
+        assertEquals("SELECT * FROM numeric_table WHERE amount BETWEEN 10.5 AND 30.0",
+                DBMS.getInstance().queryTable("numeric_table").whereBetween("amount", 10.5, 30.0).toString());
+        assertThrows(IllegalArgumentException.class, () -> DBMS.getInstance().queryTable("numeric_table").whereLessThan("id", null));
+
+        DBMS.QueryBuilder query = DBMS.getInstance().queryTable("numeric_table")
+                .whereGreaterThan("id", 1)
+                .where(Condition.or(Condition.isNull("amount"), Condition.greaterThan("amount", 20.0)));
+        assertEquals("SELECT * FROM numeric_table WHERE id > 1 AND (amount IS NULL OR amount > 20.0)", query.toString());
+        assertEquals(2, query.get().length);
+        assertEquals(1, DBMS.getInstance().queryTable("numeric_table").whereGreaterThan("id", 1).whereNull("amount").get().length);
+
+        DBMS.QueryBuilder projection = DBMS.getInstance().queryTable("numeric_table").select("created", "id").whereGreaterThan("id", 1);
+        assertEquals("SELECT created, id FROM numeric_table WHERE id > 1", projection.toString());
+        Row[] rows = projection.getRows();
+        assertEquals(2, rows.length);
+        assertArrayEquals(new String[]{"created", "id"}, rows[0].getColumns());
+        assertNull(rows[0].getValue("created"));
+        assertEquals(3, rows[1].getValue("id"));
+        assertEquals(3, DBMS.getInstance().queryTable("numeric_table").getRows()[0].size());
+
+        DBMS.QueryBuilder page = DBMS.getInstance().queryTable("numeric_table").whereGreaterThan("id", 0).limit(1).offset(1);
+        assertEquals("SELECT * FROM numeric_table WHERE id > 0 LIMIT 1 OFFSET 1", page.toString());
+        assertEquals(1, page.get().length);
+        assertEquals(2, page.get()[0].getInt("id"));
+        assertEquals(1, page.select("id").getRows()[0].size());
+        assertEquals(2, page.limit(5).stream().count());
+        assertEquals(1, DBMS.getInstance().queryTable("numeric_table").cursor().next().getInt("id"));
+        assertThrows(IllegalStateException.class, page::delete);
+        assertThrows(IllegalArgumentException.class, () -> DBMS.getInstance().queryTable("numeric_table").limit(-1));
+
+        DBMS.QueryBuilder ordered = DBMS.getInstance().queryTable("numeric_table").orderBy("amount", false).orderBy("id");
+        assertEquals("SELECT * FROM numeric_table ORDER BY amount DESC, id", ordered.toString());
+        assertArrayEquals(new Object[]{3, 1, 2}, Arrays.stream(ordered.get()).map(record -> record.getValue("id")).toArray());
+        assertArrayEquals(new Object[]{2, 1}, Arrays.stream(DBMS.getInstance().queryTable("numeric_table")
+                .orderBy("amount").limit(2).select("id").getRows()).map(row -> row.getValue(0)).toArray());
+        assertEquals(1, DBMS.getInstance().queryTable("numeric_table").orderBy("created", false).offset(1).limit(1).get()[0].getInt("id"));
+        assertThrows(IllegalArgumentException.class, () -> DBMS.getInstance().queryTable("numeric_table").orderBy("non_existent_column").get());
+
+        assertEquals(3, DBMS.getInstance().queryTable("numeric_table").count());
+        assertEquals(2, DBMS.getInstance().queryTable("numeric_table").whereNotNull("amount").count());
+        assertEquals(1, DBMS.getInstance().queryTable("numeric_table").whereNotNull("amount").limit(1).count());
+        Row[] totals = DBMS.getInstance().queryTable("numeric_table").aggregate(Aggregate.count(), Aggregate.sum("amount"), Aggregate.max("created"));
+        assertArrayEquals(new Object[]{3L, 40.5, LocalDate.of(2021, 3, 1)}, new Object[]{totals[0].getValue(0), totals[0].getValue(1), totals[0].getValue(2)});
+        DBMS.QueryBuilder grouped = DBMS.getInstance().queryTable("numeric_table").whereGreaterThan("id", 1).groupBy("created").orderBy("created", false);
+        assertEquals("SELECT * FROM numeric_table WHERE id > 1 GROUP BY created ORDER BY created DESC", grouped.toString());
+        Row[] groups = grouped.aggregate(Aggregate.count(), Aggregate.avg("amount"));
+        assertEquals(2, groups.length);
+        assertEquals(new Row(new String[]{"created", "COUNT(*)", "AVG(amount)"}, new Object[]{LocalDate.of(2021, 3, 1), 1L, 30.0}), groups[0]);
+        assertNull(groups[1].getValue("created"));
+        assertThrows(IllegalArgumentException.class, () -> DBMS.getInstance().queryTable("numeric_table").groupBy("id").orderBy("amount").aggregate(Aggregate.count()));
+
+        assertTrue(DBMS.getInstance()
+                .createTable("numeric_item")
+                .addColumn("owner", "BIGINT")
+                .addColumn("name", "VARCHAR", 10)
+                .persist());
+        assertTrue(DBMS.getInstance().queryTable("numeric_item").insert(1L, "pen"));
+        assertTrue(DBMS.getInstance().queryTable("numeric_item").insert(3L, "book"));
+        assertTrue(DBMS.getInstance().queryTable("numeric_item").insert(3L, "cup"));
+        assertTrue(DBMS.getInstance().queryTable("numeric_item").insert(null, "box"));
+        try (Stream<Row> joined = DBMS.getInstance().queryTable("numeric_table").select("amount")
+                .join(DBMS.getInstance().queryTable("numeric_item").whereNot("name", "cup"), "id", "owner")) {
+            assertEquals(List.of("[10.5, 1, pen]", "[30.0, 3, book]"), joined.map(Row::toString).sorted().toList());
+        }
+        Row joined = DBMS.getInstance().queryTable("numeric_table").whereLessThan("id", 2)
+                .join(DBMS.getInstance().queryTable("numeric_item"), "id", "owner").findFirst().orElseThrow();
+        assertEquals("pen", joined.getValue("numeric_item.name"));
+        assertEquals(1, joined.getValue("numeric_table.id"));
+        for (Join.Strategy strategy : Join.Strategy.values()) {
+            try (Stream<Row> strategyRows = DBMS.getInstance().queryTable("numeric_table").select("amount")
+                    .join(DBMS.getInstance().queryTable("numeric_item").select("name"), "id", "owner", strategy)) {
+                assertEquals(List.of("[10.5, pen]", "[30.0, book]", "[30.0, cup]"), strategyRows.map(Row::toString).sorted().toList());
+            }
+        }
+        DBMS.getInstance().deleteTable("numeric_item");
+
+        assertTrue(DBMS.getInstance().queryTable("numeric_table").whereLessThanOrEqual("id", 2).delete());
+        assertEquals(1, DBMS.getInstance().queryTable("numeric_table").get().length);
+
+        DBMS.getInstance().deleteTable("numeric_table");
+    }
 }
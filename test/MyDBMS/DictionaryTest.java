@@ -1,5 +1,6 @@
 package MyDBMS;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -13,6 +14,11 @@ class DictionaryTest {
         DBMS.getInstance().getDictionary().reload();
     }
 
+    @AfterEach
+    void AfterEach() {
+        TestFiles.deleteFiles("test_table");
+    }
+
     @Test
     void testNotExistentTable() {
         assertNull(DBMS.getInstance().getDictionary().getTable("non_existent_table"));
@@ -54,4 +60,42 @@ class DictionaryTest {
         assertNull(DBMS.getInstance().getDictionary().getTable(Dictionary.TABLE_DICTIONARY).find("test_table"));
         assertEquals(0, DBMS.getInstance().getDictionary().getTable(Dictionary.ATTRIBUTE_DICTIONARY).where("table", "test_table").length);
     }
+
+    @Test
+    void testCreateIndex() {
+        DBMS.getInstance().getDictionary().createTable("test_table", new Column[]{
+                new Column(Column.DataType.CHAR, "column", 16)
+        }, null);
+
+        Index index = DBMS.getInstance().getDictionary().createIndex("test_table", "column", Index.Type.HASH);
+
+        assertSame(index, DBMS.getInstance().getDictionary().getTable("test_table").getIndex("column"));
+        assertThrows(IllegalArgumentException.class, () -> DBMS.getInstance().getDictionary().createIndex("test_table", "column", Index.Type.HASH));
+        assertThrows(IllegalArgumentException.class, () -> DBMS.getInstance().getDictionary().createIndex("test_table", "non_existent_column", Index.Type.HASH));
+        assertThrows(IllegalArgumentException.class, () -> DBMS.getInstance().getDictionary().createIndex("non_existent_table", "column", Index.Type.HASH));
+
+        DBMS.getInstance().getDictionary().reload();
+        assertInstanceOf(HashIndex.class, DBMS.getInstance().getDictionary().getTable("test_table").getIndex("column"));
+
+        DBMS.getInstance().getDictionary().deleteTable("test_table");
+        assertEquals(0, DBMS.getInstance().getDictionary().getTable(Dictionary.INDEX_DICTIONARY).where("table", "test_table").length);
+    }
+
+    @Test
+    void testReloadColumns() {
+        Column[] columns = {
+                new Column(Column.DataType.VARCHAR, "varchar_column", 255, true),
+                new Column(Column.DataType.CHAR, "char_column", 1000),
+                new Column(Column.DataType.INT, "int_column"),
+                new Column(Column.DataType.BIGINT, "bigint_column"),
+                new Column(Column.DataType.DOUBLE, "double_column"),
+                new Column(Column.DataType.DATE, "date_column", 0, true)
+        };
+        DBMS.getInstance().getDictionary().createTable("test_table", columns, "varchar_column");
+
+        DBMS.getInstance().getDictionary().reload();
+        assertEquals(new Table("test_table", columns, "varchar_column"), DBMS.getInstance().getDictionary().getTable("test_table"));
+
+        DBMS.getInstance().getDictionary().deleteTable("test_table");
+    }
 }
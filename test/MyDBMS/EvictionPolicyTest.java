@@ -0,0 +1,143 @@
+package MyDBMS;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvictionPolicyTest {
+    private static final PageId A = new PageId("test_table", 0);
+    private static final PageId B = new PageId("test_table", 1);
+    private static final PageId C = new PageId("test_table", 2);
+    private static final PageId D = new PageId("test_table", 3);
+
+    @Test
+    void testEmptyPolicy() {
+        for (EvictionPolicy.Type type : EvictionPolicy.Type.values()) {
+            assertNull(type.create(4).evict(), type.getValue());
+        }
+    }
+
+    @Test
+    void testRemovedPageIsNotEvicted() {
+        for (EvictionPolicy.Type type : EvictionPolicy.Type.values()) {
+            EvictionPolicy policy = type.create(4);
+            policy.onLoad(A);
+            policy.onLoad(B);
+            policy.onRemove(A);
+
+            assertEquals(B, policy.evict(), type.getValue());
+            assertNull(policy.evict(), type.getValue());
+        }
+    }
+
+    @Test
+    void testMru() {
+        EvictionPolicy policy = new MruPolicy();
+        policy.onLoad(A);
+        policy.onLoad(B);
+        policy.onLoad(C);
+        policy.onAccess(A);
+
+        assertEquals(A, policy.evict());
+        assertEquals(C, policy.evict());
+    }
+
+    @Test
+    void testLru() {
+        EvictionPolicy policy = new LruPolicy();
+        policy.onLoad(A);
+        policy.onLoad(B);
+        policy.onLoad(C);
+        policy.onAccess(A);
+
+        assertEquals(B, policy.evict());
+        assertEquals(C, policy.evict());
+        assertEquals(A, policy.evict());
+    }
+
+    @Test
+    void testClock() {
+        EvictionPolicy policy = new ClockPolicy(4);
+        policy.onLoad(A);
+        policy.onLoad(B);
+        policy.onLoad(C);
+
+        assertEquals(A, policy.evict());
+
+        policy.onAccess(B);
+        policy.onLoad(D);
+
+        assertEquals(C, policy.evict());
+    }
+
+    @Test
+    void testLruK() {
+        EvictionPolicy policy = new LruKPolicy(2, 4);
+        policy.onLoad(A);
+        policy.onLoad(B);
+        policy.onLoad(C);
+        policy.onAccess(A);
+        policy.onAccess(C);
+        policy.onAccess(A);
+
+        // B has been referenced only once
+        assertEquals(B, policy.evict());
+        // second most recent reference of C is older than the one of A
+        assertEquals(C, policy.evict());
+    }
+
+    @Test
+    void testLruKRetainsHistoryOfEvictedPage() {
+        EvictionPolicy policy = new LruKPolicy(2, 4);
+        policy.onLoad(A);
+        policy.onLoad(B);
+        assertEquals(A, policy.evict());
+
+        policy.onLoad(A);
+        policy.onLoad(C);
+
+        assertEquals(B, policy.evict());
+        assertEquals(C, policy.evict());
+    }
+
+    @Test
+    void testTwoQueueIsScanResistant() {
+        EvictionPolicy policy = new TwoQueuePolicy(4);
+        policy.onLoad(A);
+        assertEquals(A, policy.evict());
+        // A is remembered and promoted to the main queue
+        policy.onLoad(A);
+
+        for (int i = 10; i < 20; i++) {
+            policy.onLoad(new PageId("test_table", i));
+            policy.onLoad(new PageId("test_table", i + 100));
+            assertNotEquals(A, policy.evict());
+        }
+    }
+
+    @Test
+    void testBufferManagerStatistics() {
+        BufferManager bufferManager = new BufferManager(2, EvictionPolicy.Type.LRU);
+        String fileName = "eviction_policy_test";
+
+        assertDoesNotThrow(() -> {
+            bufferManager.getEmptyPage(fileName, 0).unpin();
+            bufferManager.getEmptyPage(fileName, 1).unpin();
+            bufferManager.getPage(fileName, 0).unpin();
+            bufferManager.getEmptyPage(fileName, 2).unpin();
+        });
+
+        assertEquals(1, bufferManager.getHitCount());
+        assertEquals(3, bufferManager.getMissCount());
+        assertEquals(0.25, bufferManager.getHitRatio());
+        assertTrue(bufferManager.contains(fileName, 0));
+        assertFalse(bufferManager.contains(fileName, 1));
+
+        bufferManager.resetStatistics();
+
+        assertEquals(0, bufferManager.getHitCount());
+        assertEquals(0, bufferManager.getMissCount());
+
+        assertDoesNotThrow(() -> DBMS.getInstance().getFilePool().delete(fileName));
+    }
+}
@@ -0,0 +1,101 @@
+package MyDBMS;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalSorterTest {
+    private static final Table table = new Table("sort_table", new Column[]{
+            new Column(Column.DataType.INT, "key"),
+            new Column(Column.DataType.INT, "sequence"),
+            new Column(Column.DataType.VARCHAR, "payload", 256)
+    });
+    private static final Comparator<Record> byKey = Comparator.comparingInt(record -> record.getInt("key"));
+
+    private static List<Record> randomRecords(int count) {
+        Random random = new Random(count);
+        List<Record> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            records.add(new Record(table)
+                    .setInt("key", random.nextInt(count / 4))
+                    .setInt("sequence", i)
+                    .setVarchar("payload", "x".repeat(random.nextInt(200))));
+        }
+        return records;
+    }
+
+    private static long countSpillFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of("."))) {
+            return files.filter(path -> path.getFileName().toString().startsWith("sort_table.")).count();
+        }
+    }
+
+    @AfterEach
+    void afterEach() {
+        assertDoesNotThrow(() -> assertEquals(0, countSpillFiles()));
+    }
+
+    @Test
+    void testSortInMemory() {
+        List<Record> records = randomRecords(100);
+        List<Record> expected = new ArrayList<>(records);
+        expected.sort(byKey);
+
+        assertDoesNotThrow(() -> {
+            try (Stream<Record> sorted = new ExternalSorter(table, byKey, 1 << 20).sort(records.stream())) {
+                assertEquals(expected, sorted.toList());
+            }
+        });
+    }
+
+    @Test
+    void testSortWithSpill() {
+        List<Record> records = randomRecords(5000);
+        List<Record> expected = new ArrayList<>(records);
+        // a stable sort keeps equal keys in input order
+        expected.sort(byKey);
+
+        assertDoesNotThrow(() -> {
+            // small runs and a fan in of 2 force several merge passes
+            ExternalSorter sorter = new ExternalSorter(table, byKey, 2 * SpillFile.BLOCK_SIZE);
+            try (Stream<Record> sorted = sorter.sort(records.stream())) {
+                assertTrue(countSpillFiles() > 0);
+                assertEquals(expected, sorted.toList());
+            }
+        });
+    }
+
+    @Test
+    void testCloseBeforeEnd() {
+        assertDoesNotThrow(() -> {
+            try (Stream<Record> sorted = new ExternalSorter(table, byKey, SpillFile.BLOCK_SIZE).sort(randomRecords(2000).stream())) {
+                assertEquals(10, sorted.limit(10).count());
+            }
+        });
+    }
+
+    @Test
+    void testTop() {
+        List<Record> records = randomRecords(1000);
+        List<Record> expected = new ArrayList<>(records);
+        expected.sort(byKey.reversed());
+
+        ExternalSorter sorter = new ExternalSorter(table, byKey.reversed(), 1 << 20);
+        assertEquals(expected.subList(0, 25), sorter.top(records.stream(), 25));
+        assertEquals(expected, sorter.top(records.stream(), 2000));
+        assertEquals(List.of(), sorter.top(records.stream(), 0));
+        assertDoesNotThrow(() -> assertEquals(expected.subList(0, 25), sorter.sort(records.stream(), 25).toList()));
+    }
+
+    @Test
+    void testInvalidBudget() {
+        assertThrows(IllegalArgumentException.class, () -> new ExternalSorter(table, byKey, 0));
+    }
+}
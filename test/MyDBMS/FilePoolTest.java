@@ -4,6 +4,13 @@ import org.junit.jupiter.api.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -51,6 +58,37 @@ class FilePoolTest {
         assertThrows(IOException.class, () -> assertNull(DBMS.getInstance().getFilePool().read(TABLE_NAME, 12, 4)));
     }
 
+    @Test
+    @Order(5)
+    void testReadIntoBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(6);
+        buffer.position(2);
+
+        assertDoesNotThrow(() -> DBMS.getInstance().getFilePool().read(TABLE_NAME, 8, buffer));
+
+        assertFalse(buffer.hasRemaining());
+        byte[] payload = new byte[4];
+        buffer.get(2, payload);
+        assertArrayEquals(new byte[]{4, 5, 6, 7}, payload);
+    }
+
+    @Test
+    @Order(5)
+    void testFileSize() {
+        assertDoesNotThrow(() -> assertEquals(12, DBMS.getInstance().getFilePool().getFileSize(TABLE_NAME)));
+    }
+
+    @Test
+    @Order(6)
+    void testWriteFromBuffer() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{9, 9, 1, 2, 3});
+        buffer.position(2);
+
+        assertDoesNotThrow(() -> DBMS.getInstance().getFilePool().write(TABLE_NAME, 12, buffer));
+        assertDoesNotThrow(() -> assertArrayEquals(new byte[]{1, 2, 3}, DBMS.getInstance().getFilePool().read(TABLE_NAME, 12, 3)));
+        assertDoesNotThrow(() -> assertEquals(15, DBMS.getInstance().getFilePool().getFileSize(TABLE_NAME)));
+    }
+
     @Test
     @Order(6)
     void testSize() {
@@ -67,4 +105,125 @@ class FilePoolTest {
 
         assertFalse(file.exists());
     }
+
+    @Test
+    @Order(8)
+    void testBufferedDurability() {
+        assertDoesNotThrow(() -> {
+            try (FilePool filePool = new FilePool(FilePool.Durability.BUFFERED)) {
+                filePool.write(TABLE_NAME, 0, new byte[]{1, 2, 3, 4});
+                filePool.sync();
+
+                assertArrayEquals(new byte[]{1, 2, 3, 4}, filePool.read(TABLE_NAME, 0, 4));
+                assertEquals(0, filePool.getGroupCommitSyncCount());
+
+                filePool.delete(TABLE_NAME);
+            }
+        });
+    }
+
+    @Test
+    @Order(8)
+    void testGroupCommitSharesSync() {
+        final int threads = 8;
+        final int writes = 50;
+
+        assertDoesNotThrow(() -> {
+            try (FilePool filePool = new FilePool(FilePool.Durability.GROUP_COMMIT, TimeUnit.MILLISECONDS.toNanos(1), threads)) {
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    final int thread = t;
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < writes; i++) {
+                            filePool.write(TABLE_NAME, (long) (thread * writes + i) * 4, ByteBuffer.allocate(4).putInt(0, thread * writes + i));
+                        }
+                        return null;
+                    }));
+                }
+                executor.shutdown();
+                assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+
+                for (int i = 0; i < threads * writes; i++) {
+                    assertEquals(i, ByteBuffer.wrap(filePool.read(TABLE_NAME, i * 4L, 4)).getInt());
+                }
+                assertTrue(filePool.getGroupCommitSyncCount() > 0);
+                assertTrue(filePool.getGroupCommitSyncCount() < threads * writes);
+
+                filePool.delete(TABLE_NAME);
+            }
+        });
+    }
+
+    @Test
+    @Order(8)
+    void testChangeDurability() {
+        assertDoesNotThrow(() -> {
+            try (FilePool filePool = new FilePool()) {
+                assertEquals(FilePool.Durability.SYNC, filePool.getDurability());
+
+                filePool.write(TABLE_NAME, 0, new byte[]{1});
+                filePool.setDurability(FilePool.Durability.GROUP_COMMIT);
+
+                assertEquals(0, filePool.size());
+
+                filePool.write(TABLE_NAME, 1, new byte[]{2});
+
+                assertArrayEquals(new byte[]{1, 2}, filePool.read(TABLE_NAME, 0, 2));
+                assertEquals(1, filePool.getGroupCommitSyncCount());
+
+                filePool.delete(TABLE_NAME);
+            }
+        });
+    }
+
+    @Test
+    @Order(8)
+    void testTemporaryFile() {
+        assertDoesNotThrow(() -> {
+            try (FilePool filePool = new FilePool(FilePool.Durability.GROUP_COMMIT)) {
+                filePool.createTemporary(TABLE_NAME);
+                assertTrue(filePool.isTemporary(TABLE_NAME));
+
+                filePool.write(TABLE_NAME, 0, new byte[]{1, 2, 3, 4});
+                assertArrayEquals(new byte[]{1, 2, 3, 4}, filePool.read(TABLE_NAME, 0, 4));
+                assertEquals(0, filePool.getGroupCommitSyncCount());
+
+                filePool.delete(TABLE_NAME);
+                assertFalse(filePool.isTemporary(TABLE_NAME));
+                assertFalse(new File(TABLE_NAME).exists());
+            }
+        });
+    }
+
+    @Test
+    @Order(8)
+    void testMemoryMappedRead() {
+        assertDoesNotThrow(() -> {
+            try (FilePool filePool = new FilePool()) {
+                assertThrows(IllegalStateException.class, () -> filePool.map(TABLE_NAME, 0, 4));
+
+                filePool.setMemoryMapped(true);
+                filePool.write(TABLE_NAME, 0, new byte[]{1, 2, 3, 4});
+
+                ByteBuffer mapped = filePool.map(TABLE_NAME, 0, 4);
+                assertTrue(mapped.isReadOnly());
+                assertEquals(3, mapped.get(2));
+                assertNull(filePool.map(TABLE_NAME, 4, 4));
+
+                // file grows after it has been mapped
+                filePool.write(TABLE_NAME, 4, new byte[]{5, 6, 7, 8});
+                assertEquals(8, filePool.map(TABLE_NAME, 4, 4).get(3));
+
+                // writes through the pool are visible in the mapped region
+                filePool.write(TABLE_NAME, 0, new byte[]{9});
+                assertEquals(9, mapped.get(0));
+
+                filePool.delete(TABLE_NAME);
+            }
+        });
+    }
 }
@@ -0,0 +1,106 @@
+package MyDBMS;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FreeSpaceMapTest {
+
+    private static final String TABLE_NAME = "free_space_map_test";
+
+    private Table table;
+
+    @BeforeEach
+    void BeforeEach() {
+        TestFiles.deleteFiles(TABLE_NAME);
+        this.table = new Table(TABLE_NAME, new Column[]{
+                new Column(Column.DataType.CHAR, "char_column", 1000)
+        });
+    }
+
+    @AfterEach
+    void AfterEach() {
+        TestFiles.deleteFiles(TABLE_NAME);
+    }
+
+    private Record newRecord(String value) {
+        return new Record(this.table).setChar("char_column", value);
+    }
+
+    @Test
+    void testEmptyTable() throws IOException {
+        FreeSpaceMap freeSpaceMap = this.table.getFreeSpaceMap();
+
+        assertEquals(0, freeSpaceMap.getPageCount());
+        assertEquals(-1, freeSpaceMap.findPage(100));
+    }
+
+    @Test
+    void testUpdateAndFind() throws IOException {
+        FreeSpaceMap freeSpaceMap = new FreeSpaceMap(this.table);
+        freeSpaceMap.update(0, 10);
+        freeSpaceMap.update(1, 500);
+        freeSpaceMap.update(2, 4000);
+
+        assertEquals(3, freeSpaceMap.getPageCount());
+        assertEquals(1, freeSpaceMap.findPage(100));
+        assertEquals(2, freeSpaceMap.findPage(1000));
+        assertEquals(-1, freeSpaceMap.findPage(4090));
+    }
+
+    @Test
+    void testAddRecordFillsPages() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(this.table.addRecord(this.newRecord("row" + i)));
+        }
+
+        // four 1000 byte records fit in a page
+        assertEquals(3, this.table.getFreeSpaceMap().getPageCount());
+        assertEquals(10L, this.table.getAllRecords().count());
+    }
+
+    @Test
+    void testDeletedSpaceIsReused() throws IOException {
+        for (int i = 0; i < 8; i++) {
+            this.table.addRecord(this.newRecord("row" + i));
+        }
+        assertEquals(1, this.table.delete("char_column", this.newRecord("row1").getChar("char_column")));
+
+        assertEquals(0, this.table.getFreeSpaceMap().findPage(1004));
+        assertTrue(this.table.addRecord(this.newRecord("row8")));
+        assertEquals(2, this.table.getFreeSpaceMap().getPageCount());
+        assertEquals(8L, this.table.getAllRecords().count());
+    }
+
+    @Test
+    void testRebuildWhenMapIsMissing() throws IOException {
+        for (int i = 0; i < 6; i++) {
+            this.table.addRecord(this.newRecord("row" + i));
+        }
+        this.table.flush();
+        DBMS.getInstance().getBufferManager().forceFlush();
+        DBMS.getInstance().getFilePool().delete(TABLE_NAME + FreeSpaceMap.FILE_EXTENSION);
+
+        assertEquals(2, this.table.getFreeSpaceMap().getPageCount());
+        assertEquals(1, this.table.getFreeSpaceMap().findPage(1004));
+    }
+
+    @Test
+    void testStaleMapIsRebuilt() throws IOException {
+        for (int i = 0; i < 6; i++) {
+            this.table.addRecord(this.newRecord("row" + i));
+        }
+        this.table.flush();
+        DBMS.getInstance().getBufferManager().forceFlush();
+        // table file is gone but the map still describes two pages
+        DBMS.getInstance().getFilePool().delete(TABLE_NAME);
+
+        assertTrue(this.table.addRecord(this.newRecord("row6")));
+        assertEquals(1, this.table.getFreeSpaceMap().getPageCount());
+        assertEquals(1L, this.table.getAllRecords().count());
+    }
+}
@@ -0,0 +1,118 @@
+package MyDBMS;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashAggregatorTest {
+    private static final Table table = new Table("aggregate_table", new Column[]{
+            new Column(Column.DataType.VARCHAR, "dept_name", 20),
+            new Column(Column.DataType.INT, "tot_cred"),
+            new Column(Column.DataType.DOUBLE, "budget")
+    });
+
+    private static Row row(String deptName, Integer totCred, Double budget) {
+        return new Row(new String[]{"dept_name", "tot_cred", "budget"}, new Object[]{deptName, totCred, budget});
+    }
+
+    private static long countSpillFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of("."))) {
+            return files.filter(path -> path.getFileName().toString().startsWith("aggregate_table.")).count();
+        }
+    }
+
+    @AfterEach
+    void afterEach() {
+        assertDoesNotThrow(() -> assertEquals(0, countSpillFiles()));
+    }
+
+    @Test
+    void testGroupBy() {
+        HashAggregator aggregator = new HashAggregator(table, new String[]{"dept_name"}, new Aggregate[]{
+                Aggregate.count(), Aggregate.count("tot_cred"), Aggregate.min("tot_cred"), Aggregate.max("tot_cred"),
+                Aggregate.sum("tot_cred"), Aggregate.avg("budget")
+        }, 1 << 20);
+        assertArrayEquals(new String[]{"dept_name", "tot_cred", "budget"}, aggregator.getInputColumns());
+
+        List<Row> rows = List.of(
+                row("Comp. Sci.", 102, 100.0),
+                row("History", 32, null),
+                row("Comp. Sci.", 54, 200.0),
+                row(null, null, null),
+                row("Comp. Sci.", null, 300.0));
+        String[] columns = {"dept_name", "COUNT(*)", "COUNT(tot_cred)", "MIN(tot_cred)", "MAX(tot_cred)", "SUM(tot_cred)", "AVG(budget)"};
+        assertDoesNotThrow(() -> assertEquals(List.of(
+                new Row(columns, new Object[]{"Comp. Sci.", 3L, 2L, 54, 102, 156L, 200.0}),
+                new Row(columns, new Object[]{"History", 1L, 1L, 32, 32, 32L, null}),
+                new Row(columns, new Object[]{null, 1L, 0L, null, null, null, null})
+        ), aggregator.aggregate(rows.iterator())));
+    }
+
+    @Test
+    void testWithoutGroups() {
+        HashAggregator aggregator = new HashAggregator(table, new String[0], new Aggregate[]{Aggregate.count(), Aggregate.sum("budget")}, 1 << 20);
+        assertArrayEquals(new String[]{"budget"}, aggregator.getInputColumns());
+
+        assertDoesNotThrow(() -> {
+            assertEquals(List.of(new Row(new String[]{"COUNT(*)", "SUM(budget)"}, new Object[]{0L, null})),
+                    aggregator.aggregate(Collections.emptyIterator()));
+            assertEquals(List.of(new Row(new String[]{"COUNT(*)", "SUM(budget)"}, new Object[]{2L, 3.5})),
+                    aggregator.aggregate(List.of(
+                            new Row(new String[]{"budget"}, new Object[]{1.0}),
+                            new Row(new String[]{"budget"}, new Object[]{2.5})).iterator()));
+        });
+    }
+
+    @Test
+    void testSpill() {
+        Random random = new Random(23);
+        List<Row> rows = new ArrayList<>();
+        Map<String, Long> counts = new HashMap<>();
+        Map<String, Integer> maximums = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            String deptName = "dept" + random.nextInt(3000);
+            int totCred = random.nextInt(1000);
+            rows.add(row(deptName, totCred, null));
+            counts.merge(deptName, 1L, Long::sum);
+            maximums.merge(deptName, totCred, Math::max);
+        }
+
+        // only a few groups fit at once
+        HashAggregator aggregator = new HashAggregator(table, new String[]{"dept_name"}, new Aggregate[]{Aggregate.count(), Aggregate.max("tot_cred")}, 4096);
+        assertDoesNotThrow(() -> {
+            List<Row> groups = aggregator.aggregate(rows.iterator());
+            assertEquals(counts.size(), groups.size());
+            for (Row group : groups) {
+                assertEquals(counts.get((String) group.getValue(0)), group.getValue(1));
+                assertEquals(maximums.get((String) group.getValue(0)), group.getValue(2));
+            }
+        });
+    }
+
+    @Test
+    void testPartition() {
+        // levels split on different bits of the hash
+        Set<Integer> partitions = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            List<Object> key = List.of("dept" + i);
+            if (HashAggregator.getPartition(key, 0) == 0) {
+                partitions.add(HashAggregator.getPartition(key, 1));
+            }
+        }
+        assertTrue(partitions.size() > 1);
+    }
+
+    @Test
+    void testInvalidColumns() {
+        assertThrows(IllegalArgumentException.class, () -> new HashAggregator(table, new String[]{"non_existent_column"}, new Aggregate[0], 1 << 20));
+        assertThrows(IllegalArgumentException.class, () -> new HashAggregator(table, new String[0], new Aggregate[]{Aggregate.sum("dept_name")}, 1 << 20));
+        assertDoesNotThrow(() -> new HashAggregator(table, new String[0], new Aggregate[]{Aggregate.max("dept_name")}, 1 << 20));
+    }
+}
@@ -0,0 +1,154 @@
+package MyDBMS;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashIndexTest {
+
+    private static final String TABLE_NAME = "hash_index_test";
+
+    private Table table;
+    private HashIndex index;
+
+    @BeforeEach
+    void BeforeEach() {
+        TestFiles.deleteFiles(TABLE_NAME);
+        this.table = new Table(TABLE_NAME, new Column[]{
+                new Column(Column.DataType.VARCHAR, "name", 32),
+                new Column(Column.DataType.CHAR, "dept", 8)
+        });
+        this.index = new HashIndex(this.table, "dept");
+        this.table.addIndex(this.index);
+        assertDoesNotThrow(() -> this.index.open());
+    }
+
+    @AfterEach
+    void AfterEach() {
+        TestFiles.deleteFiles(TABLE_NAME);
+    }
+
+    private Record newRecord(String name, String dept) {
+        return new Record(this.table).setVarchar("name", name).setChar("dept", dept);
+    }
+
+    @Test
+    void testFileName() {
+        assertEquals(TABLE_NAME + ".dept.hash", this.index.getFileName());
+    }
+
+    @Test
+    void testInsertAndSearch() throws IOException {
+        this.index.insert("a", new RecordId(0, 0));
+        this.index.insert("b", new RecordId(0, 1));
+        this.index.insert("a", new RecordId(2, 3));
+
+        assertEquals(Set.of(new RecordId(0, 0), new RecordId(2, 3)), new HashSet<>(this.index.search("a")));
+        assertEquals(List.of(new RecordId(0, 1)), this.index.search("b"));
+        assertTrue(this.index.search("c").isEmpty());
+
+        assertTrue(this.index.delete("a", new RecordId(0, 0)));
+        assertFalse(this.index.delete("a", new RecordId(0, 0)));
+        assertEquals(List.of(new RecordId(2, 3)), this.index.search("a"));
+    }
+
+    @Test
+    void testSplitsAndOverflow() throws IOException {
+        // many entries for one value end up in overflow pages
+        for (int i = 0; i < 3 * HashIndex.ENTRIES_PER_PAGE; i++) {
+            this.index.insert("same", new RecordId(i, 0));
+        }
+        for (int i = 0; i < 20000; i++) {
+            this.index.insert("value" + i, new RecordId(i, 1));
+        }
+
+        assertEquals(3 * HashIndex.ENTRIES_PER_PAGE, this.index.search("same").size());
+        for (int i = 0; i < 20000; i++) {
+            assertTrue(this.index.search("value" + i).contains(new RecordId(i, 1)));
+        }
+        for (int i = 0; i < 20000; i += 2) {
+            assertTrue(this.index.delete("value" + i, new RecordId(i, 1)));
+        }
+        for (int i = 0; i < 20000; i++) {
+            assertEquals(i % 2 == 1, this.index.search("value" + i).contains(new RecordId(i, 1)));
+        }
+    }
+
+    @Test
+    void testNullValues() throws IOException {
+        this.index.insert(null, new RecordId(0, 0));
+
+        assertEquals(List.of(new RecordId(0, 0)), this.index.search(null));
+    }
+
+    @Test
+    void testTableUsesIndex() throws IOException {
+        this.table.addRecord(this.newRecord("alice", "dev"));
+        this.table.addRecord(this.newRecord("bob", "ops"));
+        this.table.addRecord(this.newRecord("carol", "dev"));
+        this.table.addRecord(this.newRecord("dave", null));
+
+        String dev = this.newRecord("", "dev").getChar("dept");
+        assertEquals(2, this.index.search(dev).size());
+        assertArrayEquals(new Record[]{
+                this.newRecord("alice", "dev"),
+                this.newRecord("carol", "dev")
+        }, this.table.where("dept", dev));
+        assertArrayEquals(new Record[]{this.newRecord("dave", null)}, this.table.where("dept", null));
+
+        assertEquals(1, this.table.delete("dept", dev.replace("dev", "ops")));
+        assertEquals(0, this.table.where("dept", dev.replace("dev", "ops")).length);
+        assertEquals(1, this.table.delete("name", "alice"));
+        assertEquals(1, this.index.search(dev).size());
+
+        this.table.truncate();
+        assertTrue(this.index.search(dev).isEmpty());
+    }
+
+    @Test
+    void testRebuild() throws IOException {
+        this.table.removeIndex("dept");
+        this.table.addRecord(this.newRecord("alice", "dev"));
+        this.table.addRecord(this.newRecord("bob", "ops"));
+
+        this.index.rebuild();
+        this.table.addIndex(this.index);
+
+        String dev = this.newRecord("", "dev").getChar("dept");
+        assertEquals(1, this.index.search(dev).size());
+        assertEquals(1, this.table.where("dept", dev).length);
+    }
+
+    @Test
+    void testRebuildWhenIndexIsMissing() throws IOException {
+        this.table.addRecord(this.newRecord("alice", "dev"));
+        this.table.flush();
+        DBMS.getInstance().getBufferManager().forceFlush();
+        DBMS.getInstance().getFilePool().delete(this.index.getFileName());
+
+        String dev = this.newRecord("", "dev").getChar("dept");
+        assertArrayEquals(new Record[]{this.newRecord("alice", "dev")}, this.table.where("dept", dev));
+    }
+
+    @Test
+    void testInsertNeedsOpenIndex() throws IOException {
+        HashIndex index = new HashIndex(this.table, "name");
+        try {
+            assertThrows(IOException.class, () -> index.insert("alice", new RecordId(0, 0)));
+
+            index.open();
+            index.insert("alice", new RecordId(0, 0));
+            assertEquals(List.of(new RecordId(0, 0)), index.search("alice"));
+        } finally {
+            index.forceFlush();
+            DBMS.getInstance().getFilePool().delete(index.getFileName());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package MyDBMS;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashJoinTest {
+    private static final Table student = new Table("join_student", new Column[]{
+            new Column(Column.DataType.INT, "id"),
+            new Column(Column.DataType.VARCHAR, "dept_name", 20)
+    });
+    private static final Table department = new Table("join_department", new Column[]{
+            new Column(Column.DataType.CHAR, "dept_name", 20),
+            new Column(Column.DataType.BIGINT, "budget")
+    });
+    private static final Join.Input studentInput = new Join.Input(student, 1, 2);
+    private static final Join.Input departmentInput = new Join.Input(department, 0, 2);
+
+    private static Row studentRow(int id, String deptName) {
+        return new Row(new String[]{"id", "dept_name"}, new Object[]{id, deptName});
+    }
+
+    private static Row departmentRow(String deptName, Long budget) {
+        return new Row(new String[]{"dept_name", "budget"}, new Object[]{deptName == null ? null : String.format("%-20s", deptName), budget});
+    }
+
+    private static long countSpillFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of("."))) {
+            return files.filter(path -> path.getFileName().toString().startsWith("join_")).count();
+        }
+    }
+
+    private static List<String> sorted(Stream<Row> rows) {
+        try (rows) {
+            return rows.map(Row::toString).sorted().toList();
+        }
+    }
+
+    @AfterEach
+    void afterEach() {
+        assertDoesNotThrow(() -> assertEquals(0, countSpillFiles()));
+    }
+
+    @Test
+    void testJoin() {
+        List<Row> students = List.of(studentRow(1, "Comp. Sci."), studentRow(2, "History"), studentRow(3, null), studentRow(4, "Comp. Sci."));
+        List<Row> departments = List.of(departmentRow("Comp. Sci.", 100L), departmentRow("Physics", 200L), departmentRow(null, 300L));
+        HashJoin join = new HashJoin(studentInput, departmentInput, 1 << 20);
+
+        assertArrayEquals(new String[]{"join_student.id", "join_student.dept_name", "join_department.dept_name", "join_department.budget"}, join.getOutputColumns());
+        assertDoesNotThrow(() -> {
+            List<Row> joined = join.join(students.stream(), departments.stream(), false).toList();
+            assertEquals(2, joined.size());
+            assertEquals(1, joined.get(0).getValue("join_student.id"));
+            assertEquals(100L, joined.get(0).getValue("join_department.budget"));
+            assertEquals(4, joined.get(1).getValue(0));
+            assertEquals(sorted(joined.stream()), sorted(join.join(students.stream(), departments.stream(), true)));
+        });
+    }
+
+    @Test
+    void testIncompatibleKeys() {
+        assertThrows(IllegalArgumentException.class, () -> new HashJoin(new Join.Input(student, 0, 2), departmentInput, 1 << 20));
+        assertDoesNotThrow(() -> new HashJoin(new Join.Input(student, 0, 2), new Join.Input(department, 1, 2), 1 << 20));
+    }
+
+    @Test
+    void testPartitionedJoin() {
+        Random random = new Random(24);
+        List<Row> students = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            students.add(studentRow(i, "dept" + random.nextInt(2000)));
+        }
+        List<Row> departments = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            departments.add(departmentRow("dept" + i, (long) i));
+        }
+
+        assertDoesNotThrow(() -> {
+            List<String> expected = sorted(new HashJoin(studentInput, departmentInput, 1 << 30).join(students.stream(), departments.stream(), false));
+            assertEquals(5000, expected.size());
+            // the build side is far larger than the budget
+            HashJoin join = new HashJoin(studentInput, departmentInput, 4096);
+            assertEquals(expected, sorted(join.join(students.stream(), departments.stream(), false)));
+            assertEquals(expected, sorted(join.join(students.stream(), departments.stream(), true)));
+
+            try (Stream<Row> joined = join.join(students.stream(), departments.stream(), true)) {
+                assertEquals(10, joined.limit(10).count());
+            }
+        });
+    }
+
+    @Test
+    void testPartition() {
+        Set<Integer> partitions = new HashSet<>();
+        for (long i = 0; i < 1000; i++) {
+            if (HashJoin.getPartition(i, 0) == 0) {
+                partitions.add(HashJoin.getPartition(i, 1));
+            }
+        }
+        assertTrue(partitions.size() > 1);
+    }
+}
@@ -0,0 +1,92 @@
+package MyDBMS;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexNestedLoopJoinTest {
+    private static final Table order = new Table("probe_order", new Column[]{
+            new Column(Column.DataType.VARCHAR, "item", 20),
+            new Column(Column.DataType.BIGINT, "quantity")
+    });
+    private static final Join.Input orderByItem = new Join.Input(order, 0, 2);
+    private static final Join.Input orderByQuantity = new Join.Input(order, 1, 2);
+
+    private Table item;
+    private Join.Input itemByName;
+    private Join.Input itemByPrice;
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        this.item = new Table("probe_item", new Column[]{
+                new Column(Column.DataType.CHAR, "name", 8),
+                new Column(Column.DataType.INT, "price")
+        });
+        this.itemByName = new Join.Input(this.item, 0, 2);
+        this.itemByPrice = new Join.Input(this.item, 1, 2);
+        this.item.addIndex(Index.Type.HASH.create(this.item, "name"));
+        this.item.addIndex(Index.Type.BTREE.create(this.item, "price"));
+        for (Index index : this.item.getIndexes()) {
+            index.rebuild();
+        }
+        this.item.addRecord(new Record(this.item).setChar("name", "pen").setInt("price", 1));
+        this.item.addRecord(new Record(this.item).setChar("name", "cup").setInt("price", 2));
+        this.item.addRecord(new Record(this.item).setChar("name", "pen").setInt("price", 3));
+        this.item.addRecord(new Record(this.item).setChar("name", "box").setInt("price", 4));
+        this.item.addRecord(new Record(this.item).setChar("name", null).setInt("price", 5));
+    }
+
+    @AfterEach
+    void afterEach() {
+        TestFiles.deleteFilesWithPrefix("probe_");
+    }
+
+    private static Row orderRow(String item, Long quantity) {
+        return new Row(new String[]{"item", "quantity"}, new Object[]{item, quantity});
+    }
+
+    private static List<String> sorted(Stream<Row> rows) {
+        try (rows) {
+            return rows.map(Row::toString).sorted().toList();
+        }
+    }
+
+    @Test
+    void testJoin() {
+        List<Row> orders = List.of(orderRow("pen", 10L), orderRow("cup ", 20L), orderRow(null, 30L), orderRow("fountain pen", 40L), orderRow("box", 50L));
+        IndexNestedLoopJoin join = new IndexNestedLoopJoin(orderByItem, this.item, this.itemByName, null, true);
+
+        assertEquals(List.of("[box, 50, box     , 4]", "[pen, 10, pen     , 1]", "[pen, 10, pen     , 3]"), sorted(join.join(orders.stream())));
+        assertEquals(List.of("[box     , 4, box, 50]", "[pen     , 3, pen, 10]"),
+                sorted(new IndexNestedLoopJoin(orderByItem, this.item, this.itemByName, Condition.greaterThan("price", 1), false).join(orders.stream())));
+        assertDoesNotThrow(() -> assertEquals(
+                sorted(new HashJoin(orderByItem, this.itemByName, 1 << 20).join(orders.stream(), this.item.stream(new String[]{"name", "price"}, null), false)),
+                sorted(join.join(orders.stream()))));
+    }
+
+    @Test
+    void testIntegerKeys() {
+        List<Row> orders = List.of(orderRow("cup", 2L), orderRow("pen", 1L << 40), orderRow("box", null));
+        IndexNestedLoopJoin join = new IndexNestedLoopJoin(orderByQuantity, this.item, this.itemByPrice, null, true);
+
+        assertEquals(List.of("[cup, 2, cup     , 2]"), sorted(join.join(orders.stream())));
+        assertThrows(IllegalArgumentException.class, () -> new IndexNestedLoopJoin(orderByQuantity, this.item, this.itemByName, null, true));
+    }
+
+    @Test
+    void testToColumnValue() {
+        Column name = this.item.getColumn("name");
+        assertEquals("pen     ", IndexNestedLoopJoin.toColumnValue("pen", name));
+        assertNull(IndexNestedLoopJoin.toColumnValue("pen ", name));
+        assertNull(IndexNestedLoopJoin.toColumnValue("fountain pen", name));
+        assertEquals(7, IndexNestedLoopJoin.toColumnValue(7L, this.item.getColumn("price")));
+        assertNull(IndexNestedLoopJoin.toColumnValue((long) Integer.MAX_VALUE + 1, this.item.getColumn("price")));
+        assertNull(IndexNestedLoopJoin.toColumnValue(null, name));
+    }
+}
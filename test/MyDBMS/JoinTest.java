@@ -0,0 +1,120 @@
+package MyDBMS;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JoinTest {
+    private static final String[] departments = {"Biology", "Comp. Sci.", "History", "Physics"};
+
+    private Table course;
+    private Table enrollment;
+    private Table department;
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        this.course = new Table("plan_course", new Column[]{
+                new Column(Column.DataType.INT, "id"),
+                new Column(Column.DataType.CHAR, "dept_name", 10),
+                new Column(Column.DataType.VARCHAR, "title", 30)
+        }, "id");
+        this.enrollment = new Table("plan_enrollment", new Column[]{
+                new Column(Column.DataType.BIGINT, "course_id"),
+                new Column(Column.DataType.INT, "student")
+        });
+        this.department = new Table("plan_department", new Column[]{
+                new Column(Column.DataType.VARCHAR, "dept_name", 10),
+                new Column(Column.DataType.VARCHAR, "building", 10)
+        });
+        this.enrollment.addIndex(Index.Type.BTREE.create(this.enrollment, "course_id"));
+        this.enrollment.getIndex("course_id").rebuild();
+
+        Random random = new Random(25);
+        for (int i = 0; i < 2000; i++) {
+            this.course.addRecord(new Record(this.course).setInt("id", i).setChar("dept_name", departments[i % 4]).setVarchar("title", "Course " + i));
+        }
+        for (int i = 0; i < 6000; i++) {
+            Record record = new Record(this.enrollment).setInt("student", i % 1000);
+            if (i % 50 != 0) {
+                record.setBigint("course_id", (long) random.nextInt(2200));
+            }
+            this.enrollment.addRecord(record);
+        }
+        this.department.addRecord(new Record(this.department).setVarchar("dept_name", "Comp. Sci.").setVarchar("building", "Taylor"));
+        this.department.addRecord(new Record(this.department).setVarchar("dept_name", "History").setVarchar("building", "Painter"));
+    }
+
+    @AfterEach
+    void afterEach() {
+        TestFiles.deleteFilesWithPrefix("plan_");
+    }
+
+    private static Join.Side side(Table table, String column, Condition condition) {
+        String[] columns = Arrays.stream(table.getColumns()).map(Column::getName).toArray(String[]::new);
+        return new Join.Side(table, columns, column, condition, 0, -1);
+    }
+
+    private static List<String> sorted(Stream<Row> rows) {
+        try (rows) {
+            return rows.map(Row::toString).sorted().toList();
+        }
+    }
+
+    private static void assertStrategies(Join join, Join.Strategy... strategies) {
+        List<String> expected = sorted(join.stream(Join.Strategy.HASH));
+        for (Join.Strategy strategy : strategies) {
+            assertEquals(expected, sorted(join.stream(strategy)), strategy.toString());
+        }
+        assertEquals(expected, sorted(join.stream(null)));
+    }
+
+    @Test
+    void testIndexNestedLoop() {
+        Join join = new Join(side(this.course, "id", Condition.lessThan("id", 5)), side(this.enrollment, "course_id", null), 1 << 20);
+        assertEquals(Join.Strategy.INDEX_NESTED_LOOP, join.select());
+        assertStrategies(join, Join.Strategy.INDEX_NESTED_LOOP, Join.Strategy.SORT_MERGE);
+
+        // the smaller table is probed when the larger one matches few records
+        join = new Join(side(this.enrollment, "course_id", Condition.equal("student", 7)), side(this.course, "id", null), 1 << 20);
+        assertEquals(Join.Strategy.INDEX_NESTED_LOOP, join.select());
+        assertStrategies(join, Join.Strategy.INDEX_NESTED_LOOP, Join.Strategy.SORT_MERGE);
+        assertEquals(List.of("plan_enrollment.course_id", "plan_enrollment.student", "plan_course.id", "plan_course.dept_name", "plan_course.title"),
+                List.of(join.getOutputColumns()));
+    }
+
+    @Test
+    void testSortMerge() {
+        Join join = new Join(side(this.course, "id", Condition.greaterThanOrEqual("id", 500)), side(this.enrollment, "course_id", null), 1 << 20);
+        assertEquals(Join.Strategy.SORT_MERGE, join.select());
+        assertStrategies(join, Join.Strategy.INDEX_NESTED_LOOP, Join.Strategy.SORT_MERGE);
+        // NULL and missing course ids do not match
+        assertEquals(this.enrollment.stream(Condition.between("course_id", 500L, 1999L)).count(), join.stream(null).count());
+
+        // a paged query is not read through its index
+        join = new Join(new Join.Side(this.course, new String[]{"title"}, "id", null, 10, 100), side(this.enrollment, "course_id", null), 1 << 20);
+        assertEquals(Join.Strategy.HASH, join.select());
+        assertStrategies(join, Join.Strategy.INDEX_NESTED_LOOP, Join.Strategy.SORT_MERGE);
+    }
+
+    @Test
+    void testHash() {
+        Join join = new Join(side(this.course, "dept_name", null), side(this.department, "dept_name", null), 1 << 20);
+        assertEquals(Join.Strategy.HASH, join.select());
+        assertStrategies(join, Join.Strategy.SORT_MERGE);
+        assertEquals(1000, join.stream(null).count());
+        assertThrows(IllegalStateException.class, () -> join.stream(Join.Strategy.INDEX_NESTED_LOOP));
+    }
+
+    @Test
+    void testIncompatibleKeys() {
+        assertThrows(IllegalArgumentException.class, () -> new Join(side(this.course, "title", null), side(this.enrollment, "course_id", null), 1 << 20));
+    }
+}
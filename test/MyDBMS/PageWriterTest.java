@@ -0,0 +1,130 @@
+package MyDBMS;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageWriterTest {
+    private static final String FILE_NAME = "page_writer_test";
+
+    @AfterEach
+    void AfterEach() {
+        try {
+            DBMS.getInstance().getFilePool().delete(FILE_NAME);
+        } catch (IOException e) {
+            // e.printStackTrace();
+        }
+    }
+
+    private static void dirtyPages(BufferManager bufferManager, int from, int to) throws IOException {
+        for (int i = from; i < to; i++) {
+            BufferPage page = bufferManager.getEmptyPage(FILE_NAME, i);
+            page.setPayload(new byte[]{(byte) i});
+            page.unpin();
+        }
+    }
+
+    @Test
+    void testInvalidDirtyRatio() {
+        assertThrows(IllegalArgumentException.class, () -> new PageWriter(new BufferManager(8), 1.5, 1, 1, 0));
+    }
+
+    @Test
+    void testWriteRoundBelowThreshold() {
+        BufferManager bufferManager = new BufferManager(8);
+        PageWriter pageWriter = new PageWriter(bufferManager, 0.25, 16, 100, 0);
+
+        assertDoesNotThrow(() -> {
+            dirtyPages(bufferManager, 0, 2);
+
+            assertEquals(0, pageWriter.writeRound());
+            assertEquals(2, bufferManager.getDirtyPageCount());
+        });
+    }
+
+    @Test
+    void testWriteRoundAboveThreshold() {
+        BufferManager bufferManager = new BufferManager(8);
+        PageWriter pageWriter = new PageWriter(bufferManager, 0.25, 16, 100, 0);
+
+        assertDoesNotThrow(() -> {
+            dirtyPages(bufferManager, 0, 6);
+
+            assertEquals(4, pageWriter.writeRound());
+            assertEquals(2, bufferManager.getDirtyPageCount());
+            assertEquals(6, bufferManager.getSize());
+            assertEquals(4, pageWriter.getWrittenPageCount());
+        });
+    }
+
+    @Test
+    void testWriteRoundSkipsPinnedPages() {
+        BufferManager bufferManager = new BufferManager(4);
+        PageWriter pageWriter = new PageWriter(bufferManager, 0, 16, 100, 0);
+
+        assertDoesNotThrow(() -> {
+            BufferPage pinned = bufferManager.getEmptyPage(FILE_NAME, 0);
+            pinned.setPayload(new byte[]{1});
+            dirtyPages(bufferManager, 1, 3);
+
+            assertEquals(2, pageWriter.writeRound());
+            assertTrue(pinned.isDirty());
+        });
+    }
+
+    @Test
+    void testCheckpoint() {
+        BufferManager bufferManager = new BufferManager(8);
+        PageWriter pageWriter = new PageWriter(bufferManager, 0.5, 16, 100, 0);
+
+        assertDoesNotThrow(() -> {
+            dirtyPages(bufferManager, 0, 3);
+
+            assertEquals(3, pageWriter.checkpoint());
+            assertEquals(0, bufferManager.getDirtyPageCount());
+            assertEquals(3, bufferManager.getSize());
+            assertEquals(1, pageWriter.getCheckpointCount());
+        });
+    }
+
+    @Test
+    void testEvictionAfterWriteRoundIsClean() {
+        BufferManager bufferManager = new BufferManager(8);
+        PageWriter pageWriter = new PageWriter(bufferManager, 0, 16, 100, 0);
+
+        assertDoesNotThrow(() -> {
+            dirtyPages(bufferManager, 0, 8);
+            pageWriter.writeRound();
+            for (int i = 8; i < 16; i++) {
+                bufferManager.getEmptyPage(FILE_NAME, i).unpin();
+            }
+
+            assertEquals(8, bufferManager.getCleanEvictionCount());
+            assertEquals(0, bufferManager.getDirtyEvictionCount());
+        });
+    }
+
+    @Test
+    void testBackgroundWriter() {
+        BufferManager bufferManager = new BufferManager(8);
+
+        assertDoesNotThrow(() -> {
+            try (PageWriter pageWriter = new PageWriter(bufferManager, 0, 16, 10, 0).start()) {
+                assertTrue(pageWriter.isRunning());
+
+                dirtyPages(bufferManager, 0, 8);
+
+                long deadline = System.currentTimeMillis() + 5000;
+                while (bufferManager.getDirtyPageCount() > 0 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+
+                assertEquals(0, bufferManager.getDirtyPageCount());
+                assertEquals(8, pageWriter.getWrittenPageCount());
+            }
+        });
+    }
+}
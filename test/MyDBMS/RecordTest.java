@@ -2,6 +2,9 @@ package MyDBMS;
 
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class RecordTest {
@@ -183,4 +186,124 @@ class RecordTest {
         assertEquals(record1, record2);
         assertNotEquals(record1, record3);
     }
+
+    @Test
+    void testEncodedLength() {
+        Record record = new Record(new Table("test_table", new Column[]{
+                new Column(Column.DataType.CHAR, "char_column", 16),
+                new Column(Column.DataType.VARCHAR, "varchar_column", 16)
+        }));
+
+        assertEquals(16 + 4 + 1, record.getEncodedLength());
+        record.setVarchar("varchar_column", "hello world");
+        assertEquals(16 + 4 + 1 + 11, record.getEncodedLength());
+        assertEquals(record.toByteArray().length, record.getEncodedLength());
+        record.setVarchar("varchar_column", null);
+        assertEquals(16 + 4 + 1, record.getEncodedLength());
+    }
+
+    @Test
+    void testWriteToOffset() {
+        Table table = new Table("test_table", new Column[]{
+                new Column(Column.DataType.VARCHAR, "first", 16),
+                new Column(Column.DataType.CHAR, "second", 8),
+                new Column(Column.DataType.VARCHAR, "third", 16)
+        });
+        Record record = new Record(table).setVarchar("first", "hello").setVarchar("third", "world");
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.put(10, new byte[]{-1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1});
+
+        assertEquals(record.getEncodedLength(), record.writeTo(buffer, 10));
+        assertEquals(0, buffer.position());
+        byte[] written = new byte[record.getEncodedLength()];
+        buffer.get(10, written);
+        assertArrayEquals(record.toByteArray(), written);
+        assertEquals(record, new Record(table, buffer.slice(10, record.getEncodedLength())));
+    }
+
+    @Test
+    void testNumericColumns() {
+        Record record = new Record(new Table("test_table", new Column[]{
+                new Column(Column.DataType.INT, "int_column"),
+                new Column(Column.DataType.BIGINT, "bigint_column"),
+                new Column(Column.DataType.DOUBLE, "double_column"),
+                new Column(Column.DataType.DATE, "date_column")
+        }));
+
+        assertTrue(record.isNull("int_column"));
+        assertEquals(0, record.getInt("int_column"));
+        assertNull(record.getDate("date_column"));
+
+        record.setInt("int_column", -42)
+                .setBigint("bigint_column", Long.MAX_VALUE)
+                .setDouble("double_column", 3.5)
+                .setDate("date_column", LocalDate.of(2021, 6, 1));
+
+        assertFalse(record.isNull("int_column"));
+        assertEquals(-42, record.getInt("int_column"));
+        assertEquals(Long.MAX_VALUE, record.getBigint("bigint_column"));
+        assertEquals(3.5, record.getDouble("double_column"));
+        assertEquals(LocalDate.of(2021, 6, 1), record.getDate("date_column"));
+        assertEquals(4 + 8 + 8 + 4 + 1, record.getEncodedLength());
+
+        record.setNull("bigint_column");
+        assertTrue(record.isNull("bigint_column"));
+    }
+
+    @Test
+    void testNumericColumnsFromBytes() {
+        Table table = new Table("test_table", new Column[]{
+                new Column(Column.DataType.INT, "int_column"),
+                new Column(Column.DataType.VARCHAR, "varchar_column", 16),
+                new Column(Column.DataType.DOUBLE, "double_column"),
+                new Column(Column.DataType.DATE, "date_column")
+        });
+        Record record = new Record(table)
+                .setInt("int_column", 7)
+                .setVarchar("varchar_column", "hello")
+                .setDate("date_column", LocalDate.of(1969, 12, 31));
+
+        Record parsed = new Record(table, record.toByteArray());
+
+        assertEquals(record, parsed);
+        assertEquals(7, parsed.getInt("int_column"));
+        assertEquals("hello", parsed.getVarchar("varchar_column"));
+        assertTrue(parsed.isNull("double_column"));
+        assertEquals(LocalDate.of(1969, 12, 31), parsed.getDate("date_column"));
+    }
+
+    @Test
+    void testNumericColumnType() {
+        Record record = new Record(new Table("test_table", new Column[]{
+                new Column(Column.DataType.INT, "int_column"),
+                new Column(Column.DataType.CHAR, "char_column", 4, true)
+        }));
+
+        Throwable throwable = assertThrows(IllegalArgumentException.class, () -> record.getBigint("int_column"));
+        assertEquals("Column [int_column] is not BIGINT type", throwable.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> record.setInt("char_column", 1));
+        assertThrows(IllegalArgumentException.class, () -> record.setNull("char_column"));
+    }
+
+    @Test
+    void testGetAndSetValue() {
+        Record record = new Record(new Table("test_table", new Column[]{
+                new Column(Column.DataType.CHAR, "char_column", 4),
+                new Column(Column.DataType.INT, "int_column"),
+                new Column(Column.DataType.BIGINT, "bigint_column"),
+                new Column(Column.DataType.DATE, "date_column")
+        }));
+
+        record.setValue("char_column", "abcd").setValue("int_column", 5).setValue("bigint_column", 5).setValue("date_column", null);
+
+        assertEquals("abcd", record.getValue("char_column"));
+        assertEquals(5, record.getValue("int_column"));
+        assertEquals(5L, record.getValue("bigint_column"));
+        assertNull(record.getValue("date_column"));
+
+        assertThrows(IllegalArgumentException.class, () -> record.setValue("int_column", 3_000_000_000L));
+        assertThrows(IllegalArgumentException.class, () -> record.setValue("bigint_column", 1.9));
+        assertThrows(IllegalArgumentException.class, () -> record.setValue("char_column", 5));
+        assertEquals(5, record.getValue("int_column"));
+    }
 }
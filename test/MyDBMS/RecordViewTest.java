@@ -0,0 +1,113 @@
+package MyDBMS;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordViewTest {
+
+    private final Table table = new Table("test_table", new Column[]{
+            new Column(Column.DataType.CHAR, "char_column", 8),
+            new Column(Column.DataType.VARCHAR, "varchar_column", 16),
+            new Column(Column.DataType.VARCHAR, "null_column", 16)
+    });
+
+    private SlottedPage createPage(Record... records) {
+        SlottedPage page = new SlottedPage(this.table);
+        for (Record record : records) {
+            page.addRecord(record);
+        }
+        return new SlottedPage(this.table, ByteBuffer.wrap(page.toByteArray()), 3);
+    }
+
+    @Test
+    void testReadColumns() {
+        SlottedPage page = this.createPage(new Record(this.table).setChar("char_column", "char").setVarchar("varchar_column", "varchar"));
+        RecordView view = new RecordView(this.table);
+
+        assertTrue(page.readRecord(0, view));
+        assertEquals("char    ", view.getChar(0));
+        assertEquals("varchar", view.getVarchar("varchar_column"));
+        assertFalse(view.isNull(1));
+        assertTrue(view.isNull(2));
+        assertNull(view.getVarchar("null_column"));
+        assertEquals(new RecordId(3, 0), view.getRecordId());
+    }
+
+    @Test
+    void testEqualsBytes() {
+        SlottedPage page = this.createPage(new Record(this.table).setChar("char_column", "char").setVarchar("varchar_column", "varchar"));
+        RecordView view = new RecordView(this.table);
+        page.readRecord(0, view);
+
+        assertTrue(view.equalsBytes(0, "char    ".getBytes()));
+        assertFalse(view.equalsBytes(0, "char".getBytes()));
+        assertTrue(view.equalsBytes(1, "varchar".getBytes()));
+        assertFalse(view.equalsBytes(1, "varchaR".getBytes()));
+        assertFalse(view.equalsBytes(1, null));
+        assertTrue(view.equalsBytes(2, null));
+        assertFalse(view.equalsBytes(2, new byte[0]));
+    }
+
+    @Test
+    void testMoveBetweenSlots() {
+        Record record1 = new Record(this.table).setChar("char_column", "char1").setVarchar("varchar_column", "varchar1");
+        Record record2 = new Record(this.table).setChar("char_column", "char2").setVarchar("null_column", "not null");
+        SlottedPage page = this.createPage(record1, record2);
+        page.removeRecord(0);
+        RecordView view = new RecordView(this.table);
+
+        assertFalse(page.readRecord(0, view));
+        assertTrue(page.readRecord(1, view));
+        assertEquals("char2   ", view.getChar("char_column"));
+        assertNull(view.getVarchar("varchar_column"));
+        assertEquals("not null", view.getVarchar("null_column"));
+        assertFalse(page.readRecord(2, view));
+    }
+
+    @Test
+    void testToRecord() {
+        Record record = new Record(this.table).setChar("char_column", "char").setVarchar("varchar_column", "varchar");
+        SlottedPage page = this.createPage(new Record(this.table), record);
+        RecordView view = new RecordView(this.table);
+        page.readRecord(1, view);
+
+        Record copy = view.toRecord();
+        assertEquals(record, copy);
+        assertEquals(new RecordId(3, 1), copy.getRecordId());
+    }
+
+    @Test
+    void testWrongColumnType() {
+        SlottedPage page = this.createPage(new Record(this.table));
+        RecordView view = new RecordView(this.table);
+        page.readRecord(0, view);
+
+        assertThrows(IllegalArgumentException.class, () -> view.getChar("varchar_column"));
+        assertThrows(IllegalArgumentException.class, () -> view.getVarchar("non_existent_column"));
+    }
+
+    @Test
+    void testNumericColumns() {
+        Table table = new Table("test_table", new Column[]{
+                new Column(Column.DataType.INT, "int_column"),
+                new Column(Column.DataType.BIGINT, "bigint_column"),
+                new Column(Column.DataType.DOUBLE, "double_column"),
+                new Column(Column.DataType.DATE, "date_column")
+        });
+        SlottedPage page = new SlottedPage(table);
+        page.addRecord(new Record(table).setInt("int_column", -1).setDouble("double_column", 0.25).setDate("date_column", LocalDate.of(2000, 2, 29)));
+        RecordView view = new RecordView(table);
+        page.readRecord(0, view);
+
+        assertEquals(-1, view.getInt(0));
+        assertTrue(view.isNull(1));
+        assertEquals(0, view.getBigint(1));
+        assertEquals(0.25, view.getDouble(2));
+        assertEquals(LocalDate.of(2000, 2, 29), view.getDate(3));
+        assertThrows(IllegalArgumentException.class, () -> view.getInt(1));
+    }
+}
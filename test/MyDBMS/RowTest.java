@@ -0,0 +1,34 @@
+package MyDBMS;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowTest {
+
+    @Test
+    void testGetValue() {
+        Row row = new Row(new String[]{"name", "tot_cred"}, new Object[]{"Brown", null});
+        assertEquals(2, row.size());
+        assertEquals("Brown", row.getValue(0));
+        assertEquals("Brown", row.getValue("name"));
+        assertNull(row.getValue("tot_cred"));
+        assertThrows(IllegalArgumentException.class, () -> row.getValue("dept_name"));
+        assertArrayEquals(new String[]{"name", "tot_cred"}, row.getColumns());
+        assertEquals("[Brown, null]", row.toString());
+    }
+
+    @Test
+    void testEquals() {
+        String[] columns = {"id", "name"};
+        assertEquals(new Row(columns, new Object[]{1, "Brown"}), new Row(columns.clone(), new Object[]{1, "Brown"}));
+        assertNotEquals(new Row(columns, new Object[]{1, "Brown"}), new Row(columns, new Object[]{2, "Brown"}));
+        assertNotEquals(new Row(columns, new Object[]{1, "Brown"}), new Row(new String[]{"id", "dept_name"}, new Object[]{1, "Brown"}));
+        assertEquals(new Row(columns, new Object[]{1, null}).hashCode(), new Row(columns, new Object[]{1, null}).hashCode());
+    }
+
+    @Test
+    void testLengthMismatch() {
+        assertThrows(IllegalArgumentException.class, () -> new Row(new String[]{"id"}, new Object[]{1, "Brown"}));
+    }
+}
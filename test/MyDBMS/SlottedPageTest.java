@@ -151,4 +151,114 @@ class SlottedPageTest {
 
         assertTrue(page.getRecords().isEmpty());
     }
+
+    @Test
+    void testAddRecordWritesInPlace() {
+        Table table = new Table("test_table", new Column[]{
+                new Column(Column.DataType.CHAR, "test", 16)
+        });
+        byte[] payload = new byte[BufferPage.PAGE_SIZE];
+        SlottedPage page = new SlottedPage(table, payload);
+
+        Record record = new Record(table).setChar("test", "hello world");
+
+        assertEquals(0, page.addRecord(record));
+        assertArrayEquals(payload, page.toByteArray());
+        assertEquals(record, new SlottedPage(table, payload).getRecord(0));
+    }
+
+    @Test
+    void testRemoveRecordBySlot() {
+        Table table = new Table("test_table", new Column[]{
+                new Column(Column.DataType.CHAR, "test", 16)
+        });
+        SlottedPage page = new SlottedPage(table);
+
+        Record record1 = new Record(table).setChar("test", "hello world1");
+        Record record2 = new Record(table).setChar("test", "hello world2");
+
+        page.addRecord(record1);
+        page.addRecord(record2);
+
+        assertTrue(page.removeRecord(0));
+        assertFalse(page.removeRecord(0));
+        assertFalse(page.removeRecord(2));
+        assertNull(page.getRecord(0));
+        assertEquals(record2, page.getRecord(1));
+
+        // slots keep their numbers after parsing
+        page = new SlottedPage(table, page.toByteArray());
+        assertEquals(2, page.getNumberOfEntries());
+        assertNull(page.getRecord(0));
+        assertEquals(record2, page.getRecord(1));
+    }
+
+    @Test
+    void testCompaction() {
+        Table table = new Table("test_table", new Column[]{
+                new Column(Column.DataType.CHAR, "test", 1000)
+        });
+        SlottedPage page = new SlottedPage(table);
+
+        for (int i = 0; i < 4; i++) {
+            page.addRecord(new Record(table).setChar("test", "record" + i));
+        }
+        Record record = new Record(table).setChar("test", "record4");
+        assertThrows(IndexOutOfBoundsException.class, () -> page.addRecord(record));
+
+        page.removeRecord(1);
+        page.removeRecord(2);
+
+        // the first removed slot is reused
+        assertEquals(1, page.addRecord(record));
+        assertEquals(3, page.getRecords().size());
+        assertEquals(new Record(table).setChar("test", "record0"), page.getRecord(0));
+        assertEquals(new Record(table).setChar("test", "record3"), page.getRecord(3));
+        assertEquals(record, page.getRecord(1));
+
+        SlottedPage parsed = new SlottedPage(table, page.toByteArray());
+        assertEquals(record, parsed.getRecord(1));
+        assertEquals(BufferPage.PAGE_SIZE - 2 - 4 * 4 - 3 * 1001, parsed.getFreeSpaceSize());
+    }
+
+    @Test
+    void testReuseSlots() {
+        Table table = new Table("test_table", new Column[]{
+                new Column(Column.DataType.INT, "test")
+        });
+        byte[] payload = new byte[BufferPage.PAGE_SIZE];
+        SlottedPage page = new SlottedPage(table, payload);
+        int freeSpace = page.getFreeSpaceSize();
+
+        // far more records than fit in the page at once
+        for (int i = 0; i < 3000; i++) {
+            int slot = page.addRecord(new Record(table).setInt("test", i));
+            assertEquals(0, slot);
+            assertTrue(page.removeRecord(slot));
+            page = new SlottedPage(table, payload);
+        }
+        assertEquals(1, page.getNumberOfEntries());
+        assertEquals(freeSpace - 4, page.getFreeSpaceSize());
+
+        // trailing removed slots are dropped by a compaction
+        Record large = new Record(table).setInt("test", -1);
+        int count = 0;
+        while (page.getFreeSpaceSize() >= large.getEncodedLength() + 4) {
+            page.addRecord(large);
+            count++;
+        }
+        for (int slot = count / 2; slot < count; slot++) {
+            assertTrue(page.removeRecord(slot));
+        }
+        for (int i = 0; i < 3 * count; i++) {
+            int slot = page.addRecord(new Record(table).setInt("test", i));
+            assertTrue(slot < count);
+            assertTrue(page.removeRecord(slot));
+        }
+        assertEquals(count / 2, page.getRecords().size());
+        assertTrue(page.getNumberOfEntries() <= count);
+        for (int slot = 0; slot < count / 2; slot++) {
+            assertEquals(large, page.getRecord(slot));
+        }
+    }
 }
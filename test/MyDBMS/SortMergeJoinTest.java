@@ -0,0 +1,91 @@
+package MyDBMS;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortMergeJoinTest {
+    private static final Table student = new Table("merge_student", new Column[]{
+            new Column(Column.DataType.INT, "id"),
+            new Column(Column.DataType.VARCHAR, "dept_name", 20)
+    });
+    private static final Table department = new Table("merge_department", new Column[]{
+            new Column(Column.DataType.CHAR, "dept_name", 20),
+            new Column(Column.DataType.BIGINT, "budget")
+    });
+    private static final Join.Input studentInput = new Join.Input(student, 1, 2);
+    private static final Join.Input departmentInput = new Join.Input(department, 0, 2);
+
+    private static Row studentRow(int id, String deptName) {
+        return new Row(new String[]{"id", "dept_name"}, new Object[]{id, deptName});
+    }
+
+    private static Row departmentRow(String deptName, Long budget) {
+        return new Row(new String[]{"dept_name", "budget"}, new Object[]{String.format("%-20s", deptName), budget});
+    }
+
+    private static List<String> sorted(Stream<Row> rows) {
+        try (rows) {
+            return rows.map(Row::toString).sorted().toList();
+        }
+    }
+
+    @Test
+    void testJoin() {
+        List<Row> students = List.of(studentRow(4, "Biology"), studentRow(1, "Comp. Sci."), studentRow(3, "Comp. Sci."), studentRow(2, "History"));
+        List<Row> departments = List.of(departmentRow("Comp. Sci.", 100L), departmentRow("Comp. Sci.", 150L), departmentRow("Physics", 200L));
+        SortMergeJoin join = new SortMergeJoin(studentInput, departmentInput);
+
+        List<Row> joined = join.join(students.stream(), departments.stream()).toList();
+        assertEquals(4, joined.size());
+        assertEquals("[1, Comp. Sci., Comp. Sci.          , 100]", joined.get(0).toString());
+        assertEquals("[1, Comp. Sci., Comp. Sci.          , 150]", joined.get(1).toString());
+        assertEquals(3, joined.get(2).getValue("merge_student.id"));
+        assertEquals(150L, joined.get(3).getValue("merge_department.budget"));
+        assertEquals(0, join.join(students.stream(), Stream.empty()).count());
+    }
+
+    @Test
+    void testIncompatibleKeys() {
+        assertThrows(IllegalArgumentException.class, () -> new SortMergeJoin(new Join.Input(student, 0, 2), departmentInput));
+    }
+
+    @Test
+    void testJoinLikeHashJoin() {
+        Random random = new Random(25);
+        List<Row> students = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            students.add(studentRow(i, "dept" + random.nextInt(500)));
+        }
+        List<Row> departments = new ArrayList<>();
+        for (int i = 0; i < 600; i += 1 + random.nextInt(2)) {
+            departments.add(departmentRow("dept" + i, (long) i));
+            departments.add(departmentRow("dept" + i, (long) -i));
+        }
+        Comparator<Row> byStudentKey = (a, b) -> Join.compareKeys(Join.getKey(a, studentInput), Join.getKey(b, studentInput));
+        Comparator<Row> byDepartmentKey = (a, b) -> Join.compareKeys(Join.getKey(a, departmentInput), Join.getKey(b, departmentInput));
+
+        assertDoesNotThrow(() -> {
+            List<String> expected = sorted(new HashJoin(studentInput, departmentInput, 1 << 20).join(students.stream(), departments.stream(), false));
+            List<String> joined = sorted(new SortMergeJoin(studentInput, departmentInput)
+                    .join(students.stream().sorted(byStudentKey), departments.stream().sorted(byDepartmentKey)));
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, joined);
+        });
+    }
+
+    @Test
+    void testClose() {
+        AtomicInteger closed = new AtomicInteger();
+        Stream<Row> students = Stream.of(studentRow(1, "Comp. Sci.")).onClose(closed::incrementAndGet);
+        Stream<Row> departments = Stream.of(departmentRow("Comp. Sci.", 100L)).onClose(closed::incrementAndGet);
+        try (Stream<Row> joined = new SortMergeJoin(studentInput, departmentInput).join(students, departments)) {
+            assertEquals(1, joined.count());
+        }
+        assertEquals(2, closed.get());
+    }
+}
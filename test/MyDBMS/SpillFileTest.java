@@ -0,0 +1,80 @@
+package MyDBMS;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillFileTest {
+    private static final Table table = new Table("spill_table", new Column[]{
+            new Column(Column.DataType.INT, "int_column"),
+            new Column(Column.DataType.VARCHAR, "varchar_column", 512)
+    });
+
+    @Test
+    void testWriteAndRead() {
+        assertDoesNotThrow(() -> {
+            try (SpillFile file = new SpillFile(table)) {
+                // enough records to fill several blocks
+                for (int i = 0; i < 1000; i++) {
+                    file.write(new Record(table).setInt("int_column", i).setVarchar("varchar_column", i % 5 == 0 ? null : "value".repeat(i % 50)));
+                }
+                assertEquals(1000, file.getCount());
+
+                Iterator<Record> records = file.read();
+                for (int i = 0; i < 1000; i++) {
+                    assertTrue(records.hasNext());
+                    assertEquals(new Record(table).setInt("int_column", i).setVarchar("varchar_column", i % 5 == 0 ? null : "value".repeat(i % 50)), records.next());
+                }
+                assertFalse(records.hasNext());
+                assertThrows(NoSuchElementException.class, records::next);
+            }
+        });
+    }
+
+    @Test
+    void testRecordId() {
+        assertDoesNotThrow(() -> {
+            try (SpillFile file = new SpillFile(table)) {
+                file.write(new Record(table).setInt("int_column", 1).setRecordId(new RecordId(3, 7)));
+                file.write(new Record(table).setInt("int_column", 2));
+
+                Iterator<Record> records = file.read();
+                assertEquals(new RecordId(3, 7), records.next().getRecordId());
+                assertNull(records.next().getRecordId());
+            }
+        });
+    }
+
+    @Test
+    void testClose() {
+        assertDoesNotThrow(() -> {
+            SpillFile file = new SpillFile(table);
+            file.write(new Record(table).setInt("int_column", 1));
+            file.flush();
+            assertTrue(Files.exists(Path.of(file.getFileName())));
+            file.close();
+            assertFalse(Files.exists(Path.of(file.getFileName())));
+        });
+    }
+
+    @Test
+    void testRows() {
+        Table schema = table.project(new String[]{"varchar_column", "int_column"});
+        assertDoesNotThrow(() -> {
+            try (SpillFile file = new SpillFile(schema)) {
+                file.write(new Row(new String[]{"varchar_column", "int_column"}, new Object[]{"value", 1}));
+                file.write(new Row(new String[]{"varchar_column", "int_column"}, new Object[]{null, 2}));
+
+                Iterator<Row> rows = file.readRows();
+                assertEquals(new Row(new String[]{"varchar_column", "int_column"}, new Object[]{"value", 1}), rows.next());
+                assertEquals(new Row(new String[]{"varchar_column", "int_column"}, new Object[]{null, 2}), rows.next());
+                assertFalse(rows.hasNext());
+            }
+        });
+    }
+}
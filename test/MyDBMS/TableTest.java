@@ -1,5 +1,6 @@
 package MyDBMS;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -7,6 +8,8 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -29,6 +32,11 @@ class TableTest {
         DBMS.getInstance().getBufferManager().forceFlush();
     }
 
+    @AfterEach
+    void AfterEach() {
+        TestFiles.deleteFiles("test_table", "mapped_table");
+    }
+
     @Test
     void testGetTableName() {
         Table table = new Table("test_table", new Column[0]);
@@ -56,6 +64,18 @@ class TableTest {
         assertEquals("primary_key", table.getPrimaryColumn());
     }
 
+    @Test
+    void testGetColumnIndex() {
+        Table table = new Table("test_table", new Column[]{
+                new Column(Column.DataType.CHAR, "first", 16),
+                new Column(Column.DataType.VARCHAR, "second", 16)
+        });
+
+        assertEquals(0, table.getColumnIndex("first"));
+        assertEquals(1, table.getColumnIndex("second"));
+        assertThrows(IllegalArgumentException.class, () -> table.getColumnIndex("third"));
+    }
+
     @Test
     void testInvalidPrimaryColumn() {
         assertThrows(IllegalArgumentException.class, () -> new Table("test_table", new Column[]{
@@ -368,4 +388,444 @@ class TableTest {
 
         assertEquals(0, table.getAllRecords().count());
     }
+
+    @Test
+    void testFetchByRecordId() {
+        Table table = new Table("test_table", new Column[]{
+                new Column(Column.DataType.CHAR, "char_column", 16),
+                new Column(Column.DataType.VARCHAR, "varchar_column", 16)
+        });
+        Record record1 = new Record(table).setChar("char_column", "char1").setVarchar("varchar_column", "varchar1");
+        Record record2 = new Record(table).setChar("char_column", "char2").setVarchar("varchar_column", "varchar2");
+
+        table.addRecord(record1);
+        table.addRecord(record2);
+
+        assertNotNull(record1.getRecordId());
+        assertNotEquals(record1.getRecordId(), record2.getRecordId());
+        for (Record record : table.getAllRecords().toArray(Record[]::new)) {
+            assertNotNull(record.getRecordId());
+            assertEquals(record, table.fetch(record.getRecordId()));
+        }
+        assertEquals(record2, table.fetch(record2.getRecordId()));
+        assertNull(table.fetch(new RecordId(record2.getRecordId().pageIndex(), record2.getRecordId().slot() + 1)));
+    }
+
+    @Test
+    void testDeleteByRecordId() {
+        Table table = new Table("test_table", new Column[]{
+                new Column(Column.DataType.CHAR, "char_column", 16),
+                new Column(Column.DataType.VARCHAR, "varchar_column", 16)
+        });
+        Record record1 = new Record(table).setChar("char_column", "same").setVarchar("varchar_column", "varchar");
+        Record record2 = new Record(table).setChar("char_column", "same").setVarchar("varchar_column", "varchar");
+
+        table.addRecord(record1);
+        table.addRecord(record2);
+
+        // equal records are told apart by their record ids
+        assertTrue(table.delete(record1.getRecordId()));
+        assertFalse(table.delete(record1.getRecordId()));
+        assertNull(table.fetch(record1.getRecordId()));
+        assertEquals(record2, table.fetch(record2.getRecordId()));
+        assertEquals(1, table.getAllRecords().count());
+    }
+
+    @Test
+    void testMemoryMappedScan() {
+        Table table = new Table("mapped_table", new Column[]{
+                new Column(Column.DataType.CHAR, "char_column", 16),
+                new Column(Column.DataType.VARCHAR, "varchar_column", 255)
+        });
+        for (int i = 0; i < 200; i++) {
+            table.addRecord(new Record(table).setChar("char_column", "char" + i).setVarchar("varchar_column", "varchar".repeat(i % 10)));
+        }
+        Record[] records = table.getAllRecords().toArray(Record[]::new);
+
+        assertDoesNotThrow(() -> {
+            FilePool filePool = DBMS.getInstance().getFilePool();
+            try {
+                table.flush();
+                filePool.setMemoryMapped(true);
+
+                assertArrayEquals(records, table.getAllRecords().toArray(Record[]::new));
+                assertFalse(DBMS.getInstance().getBufferManager().contains("mapped_table", 0));
+
+                // pages that exist only in the buffer are still read through it
+                Record record = new Record(table).setChar("char_column", "buffered");
+                table.addRecord(record);
+                assertEquals(record, table.getAllRecords().reduce((first, second) -> second).orElseThrow());
+            } finally {
+                filePool.setMemoryMapped(false);
+                table.forceFlush();
+                filePool.delete("mapped_table");
+            }
+        });
+    }
+
+    @Test
+    void testWhereNumeric() {
+        Table table = new Table("test_table", new Column[]{
+                new Column(Column.DataType.INT, "int_column"),
+                new Column(Column.DataType.DOUBLE, "double_column"),
+                new Column(Column.DataType.DATE, "date_column")
+        });
+        Record record1 = new Record(table).setInt("int_column", 1).setDouble("double_column", 1.5).setDate("date_column", LocalDate.of(2020, 1, 1));
+        Record record2 = new Record(table).setInt("int_column", 2);
+
+        table.addRecord(record1);
+        table.addRecord(record2);
+
+        assertArrayEquals(new Record[]{record2}, table.where("int_column", 2));
+        assertArrayEquals(new Record[]{record1}, table.where("double_column", 1.5));
+        assertArrayEquals(new Record[]{record1}, table.where("date_column", LocalDate.of(2020, 1, 1)));
+        assertArrayEquals(new Record[]{record2}, table.where("date_column", null));
+        assertArrayEquals(new Record[]{record2}, table.whereNot("int_column", 1));
+        // values are not converted between types
+        assertEquals(0, table.where("int_column", 2L).length);
+        assertEquals(0, table.where("int_column", "2").length);
+
+        assertEquals(1, table.delete("int_column", 1));
+        assertArrayEquals(new Record[]{record2}, table.getAllRecords().toArray(Record[]::new));
+    }
+
+    @Test
+    void testWhereRange() {
+        Table table = new Table("test_table", new Column[]{
+                new Column(Column.DataType.INT, "int_column"),
+                new Column(Column.DataType.VARCHAR, "varchar_column", 16)
+        });
+        Record[] records = new Record[10];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = new Record(table).setInt("int_column", i).setVarchar("varchar_column", "value" + i);
+            table.addRecord(records[i]);
+        }
+        table.addRecord(new Record(table));
+
+        assertArrayEquals(new Record[]{records[3], records[4], records[5]}, table.whereRange("int_column", 3, true, 5, true));
+        assertArrayEquals(new Record[]{records[4]}, table.whereRange("int_column", 3, false, 5, false));
+        assertArrayEquals(new Record[]{records[0], records[1]}, table.whereRange("int_column", null, false, 2, false));
+        assertArrayEquals(new Record[]{records[8], records[9]}, table.whereRange("varchar_column", "value8", true, null, false));
+        assertEquals(10, table.whereRange("int_column", null, false, null, false).length);
+        assertEquals(0, table.whereRange("int_column", 3L, true, null, false).length);
+
+        assertEquals(3, table.deleteRange("int_column", 7, true, null, false));
+        assertEquals(8, table.getAllRecords().count());
+    }
+
+    @Test
+    void testWhereBigintWithInteger() {
+        Table table = new Table("test_table", new Column[]{
+                new Column(Column.DataType.BIGINT, "btree_column"),
+                new Column(Column.DataType.BIGINT, "hash_column"),
+                new Column(Column.DataType.BIGINT, "bitmap_column")
+        });
+        for (long i = 0; i < 100; i++) {
+            table.addRecord(new Record(table).setBigint("btree_column", i).setBigint("hash_column", i).setBigint("bitmap_column", i % 10));
+        }
+
+        // an Integer is widened like in setValue, with and without an index
+        Runnable assertWidened = () -> {
+            assertEquals(1, table.where("btree_column", 5).length);
+            assertEquals(99, table.whereNot("btree_column", 5).length);
+            assertEquals(1, table.where("hash_column", 5).length);
+            assertEquals(99, table.whereNot("hash_column", 5).length);
+            assertEquals(10, table.where("bitmap_column", 5).length);
+            assertEquals(90, table.whereNot("bitmap_column", 5).length);
+            assertEquals(10, table.whereRange("btree_column", 10, true, 20, false).length);
+            assertEquals(10, table.where(Condition.and(Condition.equal("bitmap_column", 3), Condition.between("btree_column", 0, 99))).length);
+        };
+        assertWidened.run();
+        assertDoesNotThrow(() -> {
+            table.addIndex(Index.Type.BTREE.create(table, "btree_column"));
+            table.addIndex(Index.Type.HASH.create(table, "hash_column"));
+            table.addIndex(Index.Type.BITMAP.create(table, "bitmap_column"));
+            for (Index index : table.getIndexes()) {
+                index.rebuild();
+            }
+        });
+        assertWidened.run();
+        assertEquals(1, table.delete("hash_column", 7));
+        assertEquals(0, table.where("btree_column", 7).length);
+    }
+
+    @Test
+    void testWhereRangeWithIndex() {
+        Table table = new Table("test_table", new Column[]{
+                new Column(Column.DataType.DOUBLE, "double_column"),
+                new Column(Column.DataType.DATE, "date_column")
+        });
+        for (int i = 0; i < 300; i++) {
+            table.addRecord(new Record(table).setDouble("double_column", (i * 37 % 300) - 150.5).setDate("date_column", LocalDate.of(2020, 1, 1).plusDays(i)));
+        }
+        Record[] negative = table.whereRange("double_column", null, false, 0.0, false);
+        Record[] january = table.whereRange("date_column", LocalDate.of(2020, 1, 1), true, LocalDate.of(2020, 2, 1), false);
+
+        assertDoesNotThrow(() -> {
+            try {
+                table.addIndex(Index.Type.BTREE.create(table, "double_column"));
+                table.addIndex(Index.Type.BTREE.create(table, "date_column"));
+                for (Index index : table.getIndexes()) {
+                    index.rebuild();
+                    assertNotNull(index.searchRange(null, false, null, false));
+                }
+
+                assertEquals(151, negative.length);
+                assertArrayEquals(negative, table.whereRange("double_column", null, false, 0.0, false));
+                assertEquals(31, january.length);
+                assertArrayEquals(january, table.whereRange("date_column", LocalDate.of(2020, 1, 1), true, LocalDate.of(2020, 2, 1), false));
+
+                assertEquals(31, table.deleteRange("date_column", null, false, LocalDate.of(2020, 2, 1), false));
+                assertEquals(0, table.whereRange("date_column", LocalDate.of(2020, 1, 1), true, LocalDate.of(2020, 2, 1), false).length);
+                assertEquals(269, table.whereRange("double_column", null, false, null, false).length);
+            } finally {
+                for (Index index : table.getIndexes()) {
+                    index.forceFlush();
+                    DBMS.getInstance().getFilePool().delete(index.getFileName());
+                }
+            }
+        });
+    }
+
+    @Test
+    void testWhereCondition() {
+        Table table = new Table("test_table", new Column[]{
+                new Column(Column.DataType.INT, "int_column"),
+                new Column(Column.DataType.VARCHAR, "varchar_column", 16)
+        });
+        Record[] records = new Record[12];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = new Record(table).setInt("int_column", i).setVarchar("varchar_column", i % 3 == 0 ? null : "value" + i % 3);
+            table.addRecord(records[i]);
+        }
+
+        assertArrayEquals(new Record[]{records[4], records[7]}, table.where(Condition.and(
+                Condition.between("int_column", 2, 8),
+                Condition.equal("varchar_column", "value1"))));
+        assertArrayEquals(new Record[]{records[0], records[1], records[3], records[6], records[9]}, table.where(Condition.or(
+                Condition.lessThan("int_column", 2),
+                Condition.isNull("varchar_column"))));
+        assertArrayEquals(new Record[]{records[10], records[11]}, table.where(Condition.and(
+                Condition.not(Condition.isNull("varchar_column")),
+                Condition.greaterThan("int_column", 9))));
+        assertEquals(12, table.where(Condition.and()).length);
+        assertEquals(0, table.where(Condition.or()).length);
+        assertThrows(IllegalArgumentException.class, () -> table.where(Condition.equal("non_existent_column", 1)));
+
+        assertEquals(4, table.delete(Condition.isNull("varchar_column")));
+        assertEquals(8, table.getAllRecords().count());
+    }
+
+    @Test
+    void testWhereConditionWithIndexes() {
+        Table table = new Table("test_table", new Column[]{
+                new Column(Column.DataType.INT, "int_column"),
+                new Column(Column.DataType.CHAR, "char_column", 4)
+        });
+        for (int i = 0; i < 500; i++) {
+            table.addRecord(new Record(table).setInt("int_column", i).setChar("char_column", "c" + i % 5));
+        }
+        Condition[] conditions = {
+                Condition.and(Condition.equal("char_column", "c1  "), Condition.lessThan("int_column", 100)),
+                Condition.or(Condition.equal("char_column", "c2  "), Condition.between("int_column", 400, 450)),
+                Condition.or(Condition.equal("char_column", "c3  "), Condition.notEqual("int_column", 7)),
+                Condition.and(Condition.notEqual("char_column", "c4  "), Condition.not(Condition.greaterThanOrEqual("int_column", 50)))
+        };
+        Record[][] scanned = new Record[conditions.length][];
+        for (int i = 0; i < conditions.length; i++) {
+            scanned[i] = table.where(conditions[i]);
+        }
+
+        assertDoesNotThrow(() -> {
+            try {
+                table.addIndex(Index.Type.BITMAP.create(table, "char_column"));
+                table.addIndex(Index.Type.BTREE.create(table, "int_column"));
+                for (Index index : table.getIndexes()) {
+                    index.rebuild();
+                }
+
+                assertEquals(20, scanned[0].length);
+                for (int i = 0; i < conditions.length; i++) {
+                    assertArrayEquals(scanned[i], table.where(conditions[i]));
+                }
+                assertEquals(20, table.delete(conditions[0]));
+                assertEquals(0, table.where(conditions[0]).length);
+            } finally {
+                for (Index index : table.getIndexes()) {
+                    index.forceFlush();
+                    DBMS.getInstance().getFilePool().delete(index.getFileName());
+                }
+            }
+        });
+    }
+
+    @Test
+    void testSelect() {
+        Table table = new Table("test_table", new Column[]{
+                new Column(Column.DataType.INT, "int_column"),
+                new Column(Column.DataType.VARCHAR, "varchar_column", 64),
+                new Column(Column.DataType.CHAR, "char_column", 4)
+        });
+        for (int i = 0; i < 100; i++) {
+            table.addRecord(new Record(table)
+                    .setInt("int_column", i)
+                    .setVarchar("varchar_column", i % 10 == 0 ? null : "value" + i)
+                    .setChar("char_column", "c" + i % 5));
+        }
+
+        Row[] rows = table.select(new String[]{"varchar_column", "int_column"}, null);
+        assertEquals(100, rows.length);
+        assertEquals(new Row(new String[]{"varchar_column", "int_column"}, new Object[]{"value1", 1}), rows[1]);
+        assertNull(rows[0].getValue("varchar_column"));
+        assertThrows(IllegalArgumentException.class, () -> rows[0].getValue("char_column"));
+
+        Row[] selected = table.select(new String[]{"int_column"}, Condition.and(
+                Condition.equal("char_column", "c2  "),
+                Condition.lessThan("int_column", 20)));
+        assertArrayEquals(new Object[]{2, 7, 12, 17}, Arrays.stream(selected).map(row -> row.getValue(0)).toArray());
+        assertThrows(IllegalArgumentException.class, () -> table.select(new String[]{"non_existent_column"}, null));
+
+        assertDoesNotThrow(() -> {
+            try {
+                table.addIndex(Index.Type.BTREE.create(table, "int_column"));
+                for (Index index : table.getIndexes()) {
+                    index.rebuild();
+                }
+                assertArrayEquals(selected, table.select(new String[]{"int_column"}, Condition.and(
+                        Condition.equal("char_column", "c2  "),
+                        Condition.lessThan("int_column", 20))));
+            } finally {
+                for (Index index : table.getIndexes()) {
+                    index.forceFlush();
+                    DBMS.getInstance().getFilePool().delete(index.getFileName());
+                }
+            }
+        });
+    }
+
+    @Test
+    void testStream() {
+        Table table = new Table("test_table", new Column[]{
+                new Column(Column.DataType.INT, "int_column"),
+                new Column(Column.DataType.VARCHAR, "varchar_column", 200)
+        });
+        for (int i = 0; i < 1000; i++) {
+            table.addRecord(new Record(table).setInt("int_column", i).setVarchar("varchar_column", "value" + i % 7));
+        }
+        Condition condition = Condition.or(Condition.equal("varchar_column", "value3"), Condition.lessThan("int_column", 10));
+        Record[] records = table.where(condition);
+
+        assertArrayEquals(records, table.stream(condition).toArray(Record[]::new));
+        assertArrayEquals(Arrays.copyOfRange(records, 5, 15), table.stream(condition).skip(5).limit(10).toArray(Record[]::new));
+        assertEquals(1000, table.stream((Condition) null).count());
+        assertEquals(999, table.stream(new String[]{"int_column"}, null).reduce((first, second) -> second).orElseThrow().getValue(0));
+
+        assertDoesNotThrow(() -> {
+            try {
+                table.addIndex(Index.Type.BTREE.create(table, "int_column"));
+                table.addIndex(Index.Type.HASH.create(table, "varchar_column"));
+                for (Index index : table.getIndexes()) {
+                    index.rebuild();
+                }
+                assertArrayEquals(records, table.stream(condition).toArray(Record[]::new));
+                assertArrayEquals(Arrays.copyOf(records, 3), table.stream(condition).limit(3).toArray(Record[]::new));
+            } finally {
+                for (Index index : table.getIndexes()) {
+                    index.forceFlush();
+                    DBMS.getInstance().getFilePool().delete(index.getFileName());
+                }
+            }
+        });
+    }
+
+    @Test
+    void testStreamOrdered() {
+        Table table = new Table("test_table", new Column[]{
+                new Column(Column.DataType.INT, "int_column"),
+                new Column(Column.DataType.VARCHAR, "varchar_column", 16)
+        });
+        for (int i = 0; i < 300; i++) {
+            Record record = new Record(table).setVarchar("varchar_column", "value" + i % 3);
+            if (i % 10 != 0) {
+                record.setInt("int_column", i * 37 % 300);
+            }
+            table.addRecord(record);
+        }
+
+        assertFalse(table.hasOrderedIndex("int_column"));
+        assertNull(table.streamOrdered(new String[]{"int_column"}, null, "int_column"));
+        assertDoesNotThrow(() -> {
+            try {
+                table.addIndex(Index.Type.BTREE.create(table, "int_column"));
+                table.addIndex(Index.Type.HASH.create(table, "varchar_column"));
+                for (Index index : table.getIndexes()) {
+                    index.rebuild();
+                }
+                assertTrue(table.hasOrderedIndex("int_column"));
+                assertFalse(table.hasOrderedIndex("varchar_column"));
+                assertNull(table.streamOrdered(new String[]{"int_column"}, null, "varchar_column"));
+
+                Condition condition = Condition.equal("varchar_column", "value1");
+                Object[] expected = table.stream(new String[]{"int_column"}, Condition.and(condition, Condition.not(Condition.isNull("int_column"))))
+                        .map(row -> row.getValue(0))
+                        .sorted()
+                        .toArray();
+                assertEquals(90, expected.length);
+                assertArrayEquals(expected, table.streamOrdered(new String[]{"int_column", "varchar_column"}, condition, "int_column")
+                        .map(row -> row.getValue("int_column"))
+                        .toArray());
+                assertEquals(270, table.streamOrdered(new String[0], null, "int_column").count());
+            } finally {
+                for (Index index : table.getIndexes()) {
+                    index.forceFlush();
+                    DBMS.getInstance().getFilePool().delete(index.getFileName());
+                }
+            }
+        });
+    }
+
+    @Test
+    void testAddRecordRollsBackOnIndexFailure() {
+        Table table = new Table("test_table", new Column[]{
+                new Column(Column.DataType.INT, "int_column"),
+                new Column(Column.DataType.VARCHAR, "varchar_column", 16)
+        }, "int_column");
+        // inserts into an index that was never opened fail
+        Index index = Index.Type.HASH.create(table, "varchar_column");
+        table.addIndex(index);
+
+        assertDoesNotThrow(() -> {
+            try {
+                Record record = new Record(table).setInt("int_column", 1).setVarchar("varchar_column", "value");
+                assertFalse(table.addRecord(record));
+                assertNull(record.getRecordId());
+                assertEquals(0, table.getAllRecords().count());
+                assertNull(table.find(1));
+
+                index.open();
+                assertTrue(table.addRecord(record));
+                assertEquals(record, table.find(1));
+            } finally {
+                table.truncate();
+                for (Index tableIndex : new Index[]{index, table.getPrimaryIndex()}) {
+                    tableIndex.forceFlush();
+                    DBMS.getInstance().getFilePool().delete(tableIndex.getFileName());
+                }
+            }
+        });
+    }
+
+    @Test
+    void testProject() {
+        Table table = new Table("test_table", new Column[]{
+                new Column(Column.DataType.INT, "int_column"),
+                new Column(Column.DataType.VARCHAR, "varchar_column", 16)
+        }, "int_column");
+
+        Table schema = table.project(new String[]{"varchar_column"});
+        assertEquals("test_table", schema.getTableName());
+        assertArrayEquals(new Column[]{new Column(Column.DataType.VARCHAR, "varchar_column", 16)}, schema.getColumns());
+        assertNull(schema.getPrimaryColumn());
+        assertThrows(IllegalArgumentException.class, () -> table.project(new String[]{"non_existent_column"}));
+    }
 }
@@ -0,0 +1,51 @@
+package MyDBMS;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+// cleanup of the files the tests leave in the working directory
+final class TestFiles {
+
+    private TestFiles() {
+    }
+
+    // the table files and their side files such as .fsm, .pk, .hash, .bitmap and .spill, buffered pages are dropped
+    static void deleteFiles(String... tableNames) {
+        DBMS.getInstance().getBufferManager().forceFlush();
+        delete(ofTables(tableNames));
+    }
+
+    // same as deleteFiles, but buffered pages are written first so the tables the next tests use keep their records
+    static void flushAndDeleteFiles(String... tableNames) {
+        try {
+            DBMS.getInstance().getBufferManager().flush();
+        } catch (IOException e) {
+            // e.printStackTrace();
+        }
+        delete(ofTables(tableNames));
+    }
+
+    // every file whose name starts with the prefix, for tests creating tables on the fly
+    static void deleteFilesWithPrefix(String prefix) {
+        DBMS.getInstance().getBufferManager().forceFlush();
+        delete(fileName -> fileName.startsWith(prefix));
+    }
+
+    private static Predicate<String> ofTables(String... tableNames) {
+        return fileName -> Arrays.stream(tableNames).anyMatch(tableName -> fileName.equals(tableName) || fileName.startsWith(tableName + "."));
+    }
+
+    private static void delete(Predicate<String> filter) {
+        try (Stream<Path> files = Files.list(Path.of("."))) {
+            for (String fileName : files.map(path -> path.getFileName().toString()).filter(filter).toList()) {
+                DBMS.getInstance().getFilePool().delete(fileName);
+            }
+        } catch (IOException e) {
+            // e.printStackTrace();
+        }
+    }
+}